@@ -0,0 +1,70 @@
+#!/usr/bin/env bash
+####
+# Compares startup time of today's launch (java -jar on the fat jar) with the optimized launch of the
+# "optimized" image target: AOT-processed context plus a class-data sharing archive from a training run.
+#
+# Build the jar with AOT processing first, then run from the repository root:
+#
+# ./mvnw -Paot package -Dmaven.test.skip=true
+# docker/startup-benchmark.sh [runs]
+#
+# Each mode is launched the given number of times (default 5) and stopped once it reports it has started.
+# The script prints the median time Spring Boot reports for the context ("started in") and for the whole
+# JVM ("process running for"). Prefix the command with "taskset -c 0" to restrict it to one CPU, or compare
+# the two images under the pod's CPU limit with docker run --cpus=0.05.
+####
+set -euo pipefail
+
+RUNS=${1:-5}
+JAR=$(ls target/credit-bureau-service-*.jar | grep -v plain | head -1)
+WORK=target/startup-benchmark
+APP=$WORK/$(basename "$JAR")
+PORT=${PORT:-18080}
+
+if ! unzip -l "$JAR" | grep -q "__ApplicationContextInitializer"; then
+    echo "$JAR was built without AOT processing; run ./mvnw -Paot package -Dmaven.test.skip=true" >&2
+    exit 1
+fi
+
+echo "Extracting $JAR and recording the CDS archive with a training run"
+rm -rf "$WORK"
+java -Djarmode=tools -jar "$JAR" extract --destination "$WORK"
+java -XX:ArchiveClassesAtExit="$WORK/application.jsa" -Dspring.aot.enabled=true -jar "$APP" \
+    --server.port=$PORT --credit.startup.training-run=true > "$WORK/training.log" 2>&1
+
+# Launches the service, waits for the startup log line and prints "<started in> <process running for>"
+measure() {
+    local log=$WORK/run.log
+    java "$@" --server.port=$PORT > "$log" 2>&1 &
+    local pid=$!
+    until grep -q "Started CreditBureauServiceApplication" "$log"; do
+        if ! kill -0 $pid 2>/dev/null; then
+            echo "Service exited during startup, see $log" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    kill $pid
+    wait $pid 2>/dev/null || true
+    sed -n 's/.*Started CreditBureauServiceApplication in \([0-9.]*\) seconds (process running for \([0-9.]*\)).*/\1 \2/p' "$log"
+}
+
+median() {
+    sort -n | awk '{ values[NR] = $1 } END { print (NR % 2) ? values[(NR + 1) / 2] : (values[NR / 2] + values[NR / 2 + 1]) / 2 }'
+}
+
+benchmark() {
+    local name=$1
+    shift
+    local results=$WORK/$name.txt
+    : > "$results"
+    for _ in $(seq "$RUNS"); do
+        measure "$@" >> "$results"
+    done
+    printf "%-10s %12s %12s\n" "$name" "$(cut -d' ' -f1 "$results" | median)" "$(cut -d' ' -f2 "$results" | median)"
+}
+
+printf "%-10s %12s %12s\n" "launch" "context s" "process s"
+benchmark jar -jar "$JAR"
+benchmark aot -Dspring.aot.enabled=true -jar "$APP"
+benchmark optimized -XX:SharedArchiveFile="$WORK/application.jsa" -Dspring.aot.enabled=true -jar "$APP"
@@ -0,0 +1,122 @@
+package com.rjtmahinay.credit.service;
+
+import com.rjtmahinay.credit.CreditBureauServiceApplication;
+import com.rjtmahinay.credit.config.CreditBureauProperties;
+import com.rjtmahinay.credit.dto.CreditCheckRequest;
+import com.rjtmahinay.credit.model.CreditHistory;
+import com.rjtmahinay.credit.model.CreditScore;
+import com.rjtmahinay.credit.model.Ssn;
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Shared, deterministic inputs for the credit-check benchmarks.
+ */
+final class BenchmarkFixtures {
+
+    static final String[] ACCOUNT_TYPES = { "CREDIT_CARD", "LOAN", "MORTGAGE", "AUTO_LOAN" };
+    static final String[] PAYMENT_STATUSES = { "CURRENT", "CURRENT", "CURRENT", "CURRENT", "CURRENT", "CURRENT",
+            "LATE_30", "LATE_60", "LATE_90", "COLLECTIONS" };
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Binds the {@code credit.*} block of the shipped application.yml without starting Spring.
+     */
+    static CreditBureauProperties properties() {
+        try {
+            StandardEnvironment environment = new StandardEnvironment();
+            new YamlPropertySourceLoader().load("application", new ClassPathResource("application.yml"))
+                    .forEach(environment.getPropertySources()::addLast);
+            return Binder.get(environment).bind("credit", CreditBureauProperties.class).get();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Starts the application without a web server, quiet enough that logging does not dominate the numbers.
+     */
+    static ConfigurableApplicationContext startApplication(String... args) {
+        SpringApplication application = new SpringApplication(CreditBureauServiceApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        application.setBannerMode(Banner.Mode.OFF);
+
+        List<String> arguments = new ArrayList<>(List.of(
+                "--logging.level.root=WARN",
+                "--logging.level.com.rjtmahinay.credit=WARN",
+                "--logging.level.org.springframework.r2dbc=WARN"));
+        arguments.addAll(List.of(args));
+        return application.run(arguments.toArray(String[]::new));
+    }
+
+    static Ssn ssn(int index) {
+        return new Ssn(900_000_000 + index % 100_000_000);
+    }
+
+    static CreditScore creditScore(Ssn ssn, int score) {
+        return CreditScore.builder()
+                .ssn(ssn)
+                .firstName("Bench")
+                .lastName("Mark")
+                .score(score)
+                .riskLevel(score >= 700 ? "LOW" : score >= 600 ? "MEDIUM" : "HIGH")
+                .lastUpdated(LocalDateTime.now())
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    static List<CreditHistory> history(Ssn ssn, int rows, Random random) {
+        List<CreditHistory> history = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            String accountType = ACCOUNT_TYPES[random.nextInt(ACCOUNT_TYPES.length)];
+            String paymentStatus = PAYMENT_STATUSES[random.nextInt(PAYMENT_STATUSES.length)];
+            BigDecimal limit = BigDecimal.valueOf("MORTGAGE".equals(accountType) ? 150_000 + random.nextInt(350_000)
+                    : 1_000 + random.nextInt(30_000), 0);
+            history.add(CreditHistory.builder()
+                    .ssn(ssn)
+                    .accountType(accountType)
+                    .creditorName("Creditor " + random.nextInt(500))
+                    .originalAmount(limit)
+                    .currentBalance(limit.multiply(BigDecimal.valueOf(random.nextInt(100), 2)))
+                    .creditLimit(limit)
+                    .paymentStatus(paymentStatus)
+                    .daysLate("CURRENT".equals(paymentStatus) ? 0 : 15 + random.nextInt(120))
+                    .accountOpenDate(LocalDateTime.now().minusDays(random.nextInt(5_000)))
+                    .lastPaymentDate(LocalDateTime.now().minusDays(random.nextInt(60)))
+                    .reportedDate(LocalDateTime.now())
+                    .isActive(true)
+                    .build());
+        }
+        return history;
+    }
+
+    static CreditCheckRequest request(Ssn ssn, boolean includeHistory) {
+        return CreditCheckRequest.builder()
+                .ssn(ssn)
+                .firstName("Bench")
+                .lastName("Mark")
+                .requestedAmount(new BigDecimal("25000"))
+                .loanType("PERSONAL")
+                .termMonths(36)
+                .annualIncome(new BigDecimal("85000"))
+                .employmentStatus("EMPLOYED")
+                .includeHistory(includeHistory)
+                .build();
+    }
+}
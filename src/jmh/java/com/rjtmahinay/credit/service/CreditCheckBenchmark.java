@@ -0,0 +1,105 @@
+package com.rjtmahinay.credit.service;
+
+import com.rjtmahinay.credit.dto.CreditCheckRequest;
+import com.rjtmahinay.credit.dto.CreditCheckResponse;
+import com.rjtmahinay.credit.model.CreditHistory;
+import com.rjtmahinay.credit.model.CreditScore;
+import com.rjtmahinay.credit.model.Ssn;
+import com.rjtmahinay.credit.repository.CreditHistoryRepository;
+import com.rjtmahinay.credit.repository.CreditScoreRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@link CreditBureauService#performCreditCheck} against the in-memory H2 database, preloaded with a
+ * deterministic population of applicants and tradelines. The score cache is disabled so every call measures
+ * the database path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@Fork(1)
+public class CreditCheckBenchmark {
+
+    private static final int LOAD_CHUNK = 1_000;
+
+    @Param({ "10000" })
+    public int applicants;
+
+    @Param({ "true", "false" })
+    public boolean includeHistory;
+
+    private ConfigurableApplicationContext context;
+    private CreditBureauService service;
+    private CreditCheckRequest[] requests;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkFixtures.startApplication("--credit.cache.maximum-size=0",
+                "--credit.snapshot.enabled=false");
+        service = context.getBean(CreditBureauService.class);
+        load(context.getBean(CreditScoreRepository.class), context.getBean(CreditHistoryRepository.class));
+        context.getBean(DatabaseClient.class).sql("DELETE FROM credit_aggregates").then()
+                .then(context.getBean(DatabaseClient.class).sql("INSERT INTO credit_aggregates (ssn, active_accounts, "
+                        + "total_active_balance, total_credit_limit, delinquent_count, max_days_late, last_updated) "
+                        + "SELECT ssn, COUNT(*), COALESCE(SUM(current_balance), 0), COALESCE(SUM(credit_limit), 0), "
+                        + "SUM(CASE WHEN payment_status <> 'CURRENT' THEN 1 ELSE 0 END), COALESCE(MAX(days_late), 0), "
+                        + "CURRENT_TIMESTAMP FROM credit_history WHERE is_active = TRUE GROUP BY ssn").then())
+                .block();
+
+        requests = new CreditCheckRequest[applicants];
+        for (int i = 0; i < applicants; i++) {
+            requests[i] = BenchmarkFixtures.request(BenchmarkFixtures.ssn(i), includeHistory);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CreditCheckResponse performCreditCheck() {
+        return service.performCreditCheck(requests[ThreadLocalRandom.current().nextInt(applicants)]).block();
+    }
+
+    private void load(CreditScoreRepository scores, CreditHistoryRepository histories) {
+        Random random = new Random(42);
+        for (int start = 0; start < applicants; start += LOAD_CHUNK) {
+            List<CreditScore> scoreChunk = new ArrayList<>(LOAD_CHUNK);
+            List<CreditHistory> historyChunk = new ArrayList<>();
+            for (int i = start; i < Math.min(start + LOAD_CHUNK, applicants); i++) {
+                Ssn ssn = BenchmarkFixtures.ssn(i);
+                scoreChunk.add(BenchmarkFixtures.creditScore(ssn, 300 + random.nextInt(551)));
+                // Thin files dominate, with a tail of thick files
+                int rows = random.nextInt(10) == 0 ? 20 + random.nextInt(40) : random.nextInt(8);
+                historyChunk.addAll(BenchmarkFixtures.history(ssn, rows, random));
+            }
+            scores.saveAll(scoreChunk).then().block();
+            histories.saveAll(historyChunk).then().block();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.rjtmahinay.credit.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rjtmahinay.credit.dto.CreditCheckRequest;
+import com.rjtmahinay.credit.dto.CreditCheckResponse;
+import com.rjtmahinay.credit.model.CreditHistory;
+import com.rjtmahinay.credit.model.CreditScore;
+import com.rjtmahinay.credit.model.Ssn;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building a {@link CreditCheckResponse} from already-loaded rows, and serializing it with the application's
+ * own {@link ObjectMapper}, for thin and thick credit files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreditCheckResponseBenchmark {
+
+    @Param({ "0", "10", "100" })
+    public int historyRows;
+
+    private ConfigurableApplicationContext context;
+    private CreditBureauService service;
+    private ObjectMapper objectMapper;
+    private CreditScore creditScore;
+    private List<CreditHistory> history;
+    private CreditCheckRequest request;
+    private CreditCheckResponse response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkFixtures.startApplication();
+        service = context.getBean(CreditBureauService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+
+        Ssn ssn = BenchmarkFixtures.ssn(1);
+        creditScore = BenchmarkFixtures.creditScore(ssn, 640);
+        history = BenchmarkFixtures.history(ssn, historyRows, new Random(42));
+        request = BenchmarkFixtures.request(ssn, true);
+        response = service.buildCreditCheckResponse(creditScore, history, request);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CreditCheckResponse buildResponse() {
+        return service.buildCreditCheckResponse(creditScore, history, request);
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
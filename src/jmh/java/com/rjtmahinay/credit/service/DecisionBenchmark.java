@@ -0,0 +1,55 @@
+package com.rjtmahinay.credit.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Band lookup plus decision, approved amount and rate for a spread of scores across every band.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecisionBenchmark {
+
+    private static final BigDecimal REQUESTED_AMOUNT = new BigDecimal("25000");
+    private static final BigDecimal ANNUAL_INCOME = new BigDecimal("85000");
+    private static final BigDecimal TOTAL_DEBT = new BigDecimal("2650.00");
+
+    private ScorePolicyEngine engine;
+    private int[] scores;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        engine = new ScorePolicyEngine(BenchmarkFixtures.properties(), null);
+        scores = new int[1024];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = 300 + (i * 7919) % 551;
+        }
+    }
+
+    @Benchmark
+    public void decide(Blackhole blackhole) {
+        int score = scores[next++ & (scores.length - 1)];
+        ScoreBand band = engine.bandFor(score);
+        blackhole.consume(band.decide(TOTAL_DEBT, ANNUAL_INCOME));
+        blackhole.consume(band.approvedAmount(REQUESTED_AMOUNT));
+        blackhole.consume(band.getInterestRate());
+        blackhole.consume(band.getRiskLevel());
+    }
+}
@@ -0,0 +1,57 @@
+#!/usr/bin/env bash
+####
+# Compares /check throughput and tail latency of the reactive R2DBC execution mode (the default) with the jdbc
+# mode, in which the credit score and history repositories run over pooled JDBC on virtual threads, and with the
+# jdbc mode on Reactor's bounded-elastic platform threads instead. Needs JDK 21.
+#
+# Build the jar, then run from the repository root:
+#
+# ./mvnw package -Dmaven.test.skip=true
+# src/loadtest/execution-modes.sh [rate] [duration]
+#
+# Each mode gets a fresh service and the same seeded load (defaults: 300 requests/s for 60s after a 10s
+# warm-up); full reports are written to target/execution-mode-<mode>.json. Set MVN=mvn to use an installed Maven
+# instead of the wrapper.
+####
+set -euo pipefail
+
+RATE=${1:-300}
+DURATION=${2:-60s}
+JAR=$(ls target/credit-bureau-service-*.jar | grep -v plain | head -1)
+PORT=${PORT:-18081}
+MVN=${MVN:-sh ./mvnw}
+SUMMARY=$(mktemp)
+
+$MVN -B -q -Ploadtest test-compile
+
+run() {
+    local mode=$1 profiles=$2
+    shift 2
+    local log=target/execution-mode-$mode.log
+    java ${JAVA_OPTS:-} -jar "$JAR" --server.port=$PORT --spring.profiles.active="$profiles" "$@" > "$log" 2>&1 &
+    local pid=$!
+    until curl -sf "http://localhost:$PORT/actuator/health" > /dev/null; do
+        if ! kill -0 $pid 2>/dev/null; then
+            echo "Service exited during startup, see $log" >&2
+            exit 1
+        fi
+        sleep 1
+    done
+
+    echo "== $mode"
+    $MVN -B -q -Ploadtest exec:exec -Dloadtest.args="--base-url=http://localhost:$PORT --rate=$RATE \
+        --duration=$DURATION --mix=check:100 --report=target/execution-mode-$mode.json" \
+        | tee /dev/stderr | awk -v mode="$mode" '$1 == "check" { $1 = mode; print }' >> "$SUMMARY"
+    kill $pid
+    wait $pid 2>/dev/null || true
+}
+
+run r2dbc default
+run jdbc jdbc
+run jdbc-platform jdbc --spring.threads.virtual.enabled=false
+
+echo
+printf "%-15s %9s %9s %8s %9s %9s %9s %9s\n" "mode" "requests" "req/s" "errors" "p50 ms" "p99 ms" "p99.9 ms" \
+    "max ms"
+awk '{ printf "%-15s %9s %9s %8s %9s %9s %9s %9s\n", $1, $2, $3, $4, $5, $6, $7, $8 }' "$SUMMARY"
+rm -f "$SUMMARY"
@@ -0,0 +1,194 @@
+package com.rjtmahinay.credit.loadtest;
+
+import com.rjtmahinay.credit.dto.CreateCreditHistoryRequest;
+import com.rjtmahinay.credit.dto.CreateCreditScoreRequest;
+import com.rjtmahinay.credit.model.Ssn;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model HTTP load generator for a locally running instance of the service.
+ * <p>
+ * Requests start at a constant arrival rate no matter how long earlier ones take, each drawn from a weighted
+ * mix of endpoints and spread over a fixed set of applicants whose scores and history are written beforehand.
+ * Latency is measured from when a request was scheduled to start, not from when it was actually sent, so a
+ * stall in the service shows up in every request it delayed rather than lowering the offered load
+ * (coordinated omission). The warm-up runs at the full rate and is not recorded.
+ * <p>
+ * Start the service first, then: {@code ./mvnw -Ploadtest test-compile exec:exec -Dloadtest.args="--rate=500"}.
+ * Per-operation throughput, error rate and latency percentiles are printed and written as JSON to
+ * {@code --report}.
+ */
+public final class LoadGenerator {
+
+    private static final int SEED_BATCH = 1_000;
+
+    private final WebClient client;
+    private final LoadOptions options;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    private LoadGenerator(WebClient client, LoadOptions options) {
+        this.client = client;
+        this.options = options;
+        this.operations = options.mix().keySet().toArray(Operation[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int sum = 0;
+        for (int i = 0; i < operations.length; i++) {
+            sum += options.mix().get(operations[i]);
+            cumulativeWeights[i] = sum;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options;
+        try {
+            options = LoadOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        ConnectionProvider connections = ConnectionProvider.builder("load-generator")
+                .maxConnections(options.connections())
+                .pendingAcquireMaxCount(-1) // an open model queues rather than rejects when connections run out
+                .pendingAcquireTimeout(options.timeout())
+                .build();
+        WebClient client = WebClient.builder()
+                .baseUrl(options.baseUrl())
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                .build();
+        try {
+            if (options.seed()) {
+                seed(client, options);
+            }
+            LoadReport report = new LoadGenerator(client, options).run();
+            report.print(System.out);
+            report.write(options.report());
+            System.out.println("Report written to " + options.report().toAbsolutePath());
+        } finally {
+            connections.dispose();
+        }
+    }
+
+    /**
+     * Writes a score and two tradelines for every applicant through the bulk endpoints.
+     */
+    private static void seed(WebClient client, LoadOptions options) {
+        System.out.printf("Seeding %d applicants at %s%n", options.applicants(), options.baseUrl());
+        SplittableRandom random = new SplittableRandom(options.randomSeed());
+        List<CreateCreditScoreRequest> scores = new ArrayList<>();
+        List<CreateCreditHistoryRequest> tradelines = new ArrayList<>();
+        for (int i = 0; i < options.applicants(); i++) {
+            Ssn ssn = new Ssn(options.ssnBase() + i);
+            scores.add(CreateCreditScoreRequest.builder()
+                    .ssn(ssn)
+                    .firstName("Load")
+                    .lastName("Test")
+                    .score(300 + random.nextInt(551))
+                    .build());
+            tradelines.add(Operation.tradeline(ssn, random));
+            tradelines.add(Operation.tradeline(ssn, random));
+        }
+        Flux.fromIterable(scores).buffer(SEED_BATCH)
+                .concatMap(batch -> bulk(client, "/api/v1/credit/score/bulk", batch, CreateCreditScoreRequest.class))
+                .blockLast(Duration.ofMinutes(10));
+        Flux.fromIterable(tradelines).buffer(SEED_BATCH)
+                .concatMap(batch -> bulk(client, "/api/v1/credit/history/bulk", batch,
+                        CreateCreditHistoryRequest.class))
+                .blockLast(Duration.ofMinutes(10));
+    }
+
+    private static <T> Flux<String> bulk(WebClient client, String uri, List<T> batch, Class<T> type) {
+        return client.post().uri(uri)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(Flux.fromIterable(batch), type)
+                .retrieve()
+                .bodyToFlux(String.class);
+    }
+
+    private LoadReport run() {
+        LoadReport report = new LoadReport(options);
+        SplittableRandom random = new SplittableRandom(options.randomSeed());
+        AtomicLong outstanding = new AtomicLong();
+        double intervalNanos = 1e9 / options.rate();
+        long start = System.nanoTime();
+        long recordFrom = start + options.warmup().toNanos();
+        long end = recordFrom + options.duration().toNanos();
+        System.out.printf("Offering %d requests/s for %s of warm-up and %s recorded with mix %s%n", options.rate(),
+                options.warmup(), options.duration(), mixDescription());
+
+        for (long i = 0; ; i++) {
+            long scheduled = start + (long) (i * intervalNanos);
+            if (scheduled >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = scheduled - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean recorded = scheduled >= recordFrom;
+            if (recorded) {
+                report.sendLag(System.nanoTime() - scheduled);
+            }
+
+            Operation operation = next(random);
+            Ssn ssn = new Ssn(options.ssnBase() + random.nextInt(options.applicants()));
+            outstanding.incrementAndGet();
+            operation.send(client, ssn, random)
+                    .timeout(options.timeout())
+                    .subscribe(status -> {
+                        if (recorded) {
+                            report.record(operation, System.nanoTime() - scheduled, Integer.toString(status),
+                                    status < 400);
+                        }
+                        outstanding.decrementAndGet();
+                    }, error -> {
+                        if (recorded) {
+                            report.record(operation, System.nanoTime() - scheduled, error.getClass().getSimpleName(),
+                                    false);
+                        }
+                        outstanding.decrementAndGet();
+                    });
+        }
+
+        // Every request still open completes or times out within the timeout
+        long deadline = System.nanoTime() + options.timeout().plusSeconds(1).toNanos();
+        while (outstanding.get() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(Duration.ofMillis(10).toNanos());
+        }
+        return report;
+    }
+
+    private Operation next(SplittableRandom random) {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        throw new IllegalStateException("unreachable");
+    }
+
+    private String mixDescription() {
+        StringBuilder description = new StringBuilder();
+        for (Map.Entry<Operation, Integer> entry : options.mix().entrySet()) {
+            description.append(description.isEmpty() ? "" : ", ").append(entry.getKey().key()).append(':')
+                    .append(entry.getValue());
+        }
+        return description.toString();
+    }
+}
@@ -0,0 +1,97 @@
+package com.rjtmahinay.credit.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command-line options of {@link LoadGenerator}, each given as {@code --name=value}.
+ *
+ * @param baseUrl     root URL of the running service
+ * @param rate        requests started per second, whatever the response times
+ * @param warmup      time run at the full rate before recording starts
+ * @param duration    time recorded after the warm-up
+ * @param mix         relative weight of each operation
+ * @param applicants  SSNs the requests are spread over
+ * @param ssnBase     first of those SSNs, as its nine digits
+ * @param seed        whether the applicants' scores and history are written before the run
+ * @param randomSeed  seed of the operation, applicant and payload choices, so runs are repeatable
+ * @param connections maximum open HTTP connections
+ * @param timeout     time after which a request counts as failed
+ * @param report      file the JSON report is written to
+ */
+record LoadOptions(String baseUrl, int rate, Duration warmup, Duration duration, Map<Operation, Integer> mix,
+        int applicants, int ssnBase, boolean seed, long randomSeed, int connections, Duration timeout,
+        Path report) {
+
+    static final String USAGE = """
+            Options (all optional):
+              --base-url=http://localhost:8080
+              --rate=200                  requests per second (open model)
+              --warmup=10s --duration=60s
+              --mix=check:60,score:20,history:10,score-write:5,history-write:5
+              --applicants=1000 --ssn-base=800000000 --seed=true
+              --random-seed=42 --connections=500 --timeout=10s
+              --report=target/loadtest-report.json""";
+
+    static LoadOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Unrecognized argument " + arg + "\n" + USAGE);
+            }
+            values.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+
+        LoadOptions options = new LoadOptions(
+                values.getOrDefault("base-url", "http://localhost:8080"),
+                Integer.parseInt(values.getOrDefault("rate", "200")),
+                duration(values.getOrDefault("warmup", "10s")),
+                duration(values.getOrDefault("duration", "60s")),
+                mix(values.getOrDefault("mix", "check:60,score:20,history:10,score-write:5,history-write:5")),
+                Integer.parseInt(values.getOrDefault("applicants", "1000")),
+                Integer.parseInt(values.getOrDefault("ssn-base", "800000000")),
+                Boolean.parseBoolean(values.getOrDefault("seed", "true")),
+                Long.parseLong(values.getOrDefault("random-seed", "42")),
+                Integer.parseInt(values.getOrDefault("connections", "500")),
+                duration(values.getOrDefault("timeout", "10s")),
+                Path.of(values.getOrDefault("report", "target/loadtest-report.json")));
+        if (options.rate <= 0 || options.applicants <= 0 || options.ssnBase + options.applicants > 999_999_999) {
+            throw new IllegalArgumentException("rate and applicants must be positive and the SSNs nine digits");
+        }
+        return options;
+    }
+
+    /**
+     * Parses {@code 500ms}, {@code 30s} or {@code 2m}.
+     */
+    private static Duration duration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            default -> throw new IllegalArgumentException("Unsupported duration " + value);
+        };
+    }
+
+    private static Map<Operation, Integer> mix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split(":");
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                mix.put(Operation.byKey(parts[0].trim()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("The mix must give at least one operation a positive weight");
+        }
+        return mix;
+    }
+}
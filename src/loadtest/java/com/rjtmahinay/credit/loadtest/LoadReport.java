@@ -0,0 +1,139 @@
+package com.rjtmahinay.credit.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and outcome of every recorded request, per operation and in total. Latencies are recorded in
+ * microseconds from each request's scheduled start, failed requests included, so timeouts and errors weigh on the
+ * percentiles just as they would for a caller.
+ */
+final class LoadReport {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.HOURS.toMicros(1);
+
+    private final LoadOptions options;
+    private final Instant startedAt = Instant.now();
+    private final Map<Operation, Stats> byOperation = new EnumMap<>(Operation.class);
+    private final Stats total = new Stats("all");
+    private final AtomicLong maxSendLagNanos = new AtomicLong();
+
+    LoadReport(LoadOptions options) {
+        this.options = options;
+        options.mix().keySet().forEach(operation -> byOperation.put(operation, new Stats(operation.endpoint())));
+    }
+
+    void record(Operation operation, long latencyNanos, String outcome, boolean success) {
+        long micros = Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(latencyNanos), 1), MAX_LATENCY_MICROS);
+        byOperation.get(operation).record(micros, outcome, success);
+        total.record(micros, outcome, success);
+    }
+
+    /**
+     * Notes how late the generator itself sent a request; a large value means it could not sustain the rate.
+     */
+    void sendLag(long lagNanos) {
+        maxSendLagNanos.accumulateAndGet(lagNanos, Math::max);
+    }
+
+    void write(Path path) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", startedAt.toString());
+        report.put("baseUrl", options.baseUrl());
+        report.put("targetRate", options.rate());
+        report.put("warmupSeconds", options.warmup().toSeconds());
+        report.put("durationSeconds", options.duration().toSeconds());
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        options.mix().forEach((operation, weight) -> mix.put(operation.key(), weight));
+        report.put("mix", mix);
+        report.put("applicants", options.applicants());
+        report.put("maxSendLagMillis", maxSendLagNanos.get() / 1e6);
+        report.put("total", total.summary(options.duration().toNanos()));
+        Map<String, Object> operations = new LinkedHashMap<>();
+        byOperation.forEach((operation, stats) -> operations.put(operation.key(),
+                stats.summary(options.duration().toNanos())));
+        report.put("operations", operations);
+
+        if (path.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+    }
+
+    void print(PrintStream out) {
+        out.printf("%-15s %9s %9s %8s %9s %9s %9s %9s%n", "operation", "requests", "req/s", "errors", "p50 ms",
+                "p99 ms", "p99.9 ms", "max ms");
+        byOperation.forEach((operation, stats) -> stats.print(out, operation.key()));
+        total.print(out, "total");
+        out.printf("Max generator send lag: %.1f ms%n", maxSendLagNanos.get() / 1e6);
+    }
+
+    private final class Stats {
+
+        private final String endpoint;
+        private final Histogram latencies = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+        private final LongAdder errors = new LongAdder();
+        private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+        Stats(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        void record(long micros, String outcome, boolean success) {
+            latencies.recordValue(micros);
+            if (!success) {
+                errors.increment();
+            }
+            outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+        }
+
+        Map<String, Object> summary(long durationNanos) {
+            long requests = latencies.getTotalCount();
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("endpoint", endpoint);
+            summary.put("requests", requests);
+            summary.put("throughput", requests / (durationNanos / 1e9));
+            summary.put("errors", errors.sum());
+            summary.put("errorRate", requests > 0 ? errors.sum() / (double) requests : 0);
+            Map<String, Object> latency = new LinkedHashMap<>();
+            latency.put("mean", latencies.getMean() / 1e3);
+            latency.put("p50", millis(50));
+            latency.put("p90", millis(90));
+            latency.put("p99", millis(99));
+            latency.put("p99.9", millis(99.9));
+            latency.put("max", latencies.getMaxValue() / 1e3);
+            summary.put("latencyMillis", latency);
+            Map<String, Long> byOutcome = new TreeMap<>();
+            outcomes.forEach((outcome, count) -> byOutcome.put(outcome, count.sum()));
+            summary.put("outcomes", byOutcome);
+            return summary;
+        }
+
+        void print(PrintStream out, String name) {
+            long requests = latencies.getTotalCount();
+            out.printf("%-15s %9d %9.1f %8d %9.2f %9.2f %9.2f %9.2f%n", name, requests,
+                    requests / (options.duration().toNanos() / 1e9), errors.sum(), millis(50), millis(99),
+                    millis(99.9), latencies.getMaxValue() / 1e3);
+        }
+
+        private double millis(double percentile) {
+            return latencies.getValueAtPercentile(percentile) / 1e3;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.rjtmahinay.credit.loadtest;
+
+import com.rjtmahinay.credit.dto.CreateCreditHistoryRequest;
+import com.rjtmahinay.credit.dto.CreditCheckRequest;
+import com.rjtmahinay.credit.dto.UpdateCreditScoreRequest;
+import com.rjtmahinay.credit.model.Ssn;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+
+/**
+ * The requests the load generator can issue, one per endpoint. {@link #send} draws any payload values from the
+ * given random source immediately, on the calling thread, and returns the request unsent.
+ */
+enum Operation {
+
+    CHECK("check", "POST /api/v1/credit/check") {
+        @Override
+        Mono<Integer> send(WebClient client, Ssn ssn, SplittableRandom random) {
+            CreditCheckRequest request = CreditCheckRequest.builder()
+                    .ssn(ssn)
+                    .firstName("Load")
+                    .lastName("Test")
+                    .requestedAmount(BigDecimal.valueOf(1_000 + random.nextInt(49_000)))
+                    .loanType("PERSONAL")
+                    .termMonths(36)
+                    .annualIncome(BigDecimal.valueOf(30_000 + random.nextInt(170_000)))
+                    .employmentStatus("EMPLOYED")
+                    .includeHistory(random.nextInt(4) != 0)
+                    .build();
+            return status(client.post().uri("/api/v1/credit/check").bodyValue(request));
+        }
+    },
+
+    SCORE_READ("score", "GET /api/v1/credit/score/{ssn}") {
+        @Override
+        Mono<Integer> send(WebClient client, Ssn ssn, SplittableRandom random) {
+            return status(client.get().uri("/api/v1/credit/score/{ssn}", ssn));
+        }
+    },
+
+    HISTORY_READ("history", "GET /api/v1/credit/history/{ssn}") {
+        @Override
+        Mono<Integer> send(WebClient client, Ssn ssn, SplittableRandom random) {
+            return status(client.get().uri("/api/v1/credit/history/{ssn}", ssn));
+        }
+    },
+
+    SCORE_WRITE("score-write", "PUT /api/v1/credit/score/{ssn}") {
+        @Override
+        Mono<Integer> send(WebClient client, Ssn ssn, SplittableRandom random) {
+            UpdateCreditScoreRequest request = UpdateCreditScoreRequest.builder()
+                    .score(300 + random.nextInt(551))
+                    .build();
+            return status(client.put().uri("/api/v1/credit/score/{ssn}", ssn).bodyValue(request));
+        }
+    },
+
+    HISTORY_WRITE("history-write", "POST /api/v1/credit/history") {
+        @Override
+        Mono<Integer> send(WebClient client, Ssn ssn, SplittableRandom random) {
+            return status(client.post().uri("/api/v1/credit/history").bodyValue(tradeline(ssn, random)));
+        }
+    };
+
+    private static final String[] ACCOUNT_TYPES = { "CREDIT_CARD", "LOAN", "MORTGAGE", "AUTO_LOAN" };
+    private static final String[] PAYMENT_STATUSES = { "CURRENT", "CURRENT", "CURRENT", "LATE_30", "LATE_60" };
+
+    private final String key;
+    private final String endpoint;
+
+    Operation(String key, String endpoint) {
+        this.key = key;
+        this.endpoint = endpoint;
+    }
+
+    abstract Mono<Integer> send(WebClient client, Ssn ssn, SplittableRandom random);
+
+    String key() {
+        return key;
+    }
+
+    String endpoint() {
+        return endpoint;
+    }
+
+    static Operation byKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation " + key + "; expected one of check, score, history, "
+                + "score-write or history-write");
+    }
+
+    static CreateCreditHistoryRequest tradeline(Ssn ssn, SplittableRandom random) {
+        BigDecimal limit = BigDecimal.valueOf(1_000 + random.nextInt(20_000));
+        return CreateCreditHistoryRequest.builder()
+                .ssn(ssn)
+                .accountType(ACCOUNT_TYPES[random.nextInt(ACCOUNT_TYPES.length)])
+                .creditorName("Load Test Bank")
+                .creditLimit(limit)
+                .currentBalance(limit.multiply(BigDecimal.valueOf(random.nextInt(100))).movePointLeft(2))
+                .paymentStatus(PAYMENT_STATUSES[random.nextInt(PAYMENT_STATUSES.length)])
+                .daysLate(0)
+                .isActive(true)
+                .build();
+    }
+
+    /**
+     * Sends the request, discards the response body once it has been read, and emits the status code.
+     */
+    private static Mono<Integer> status(WebClient.RequestHeadersSpec<?> request) {
+        return request.accept(MediaType.APPLICATION_JSON)
+                .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().value()));
+    }
+}
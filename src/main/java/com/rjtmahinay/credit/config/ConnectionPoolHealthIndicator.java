@@ -0,0 +1,116 @@
+package com.rjtmahinay.credit.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.ReactiveHealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Reports how long it currently takes to acquire a connection from the R2DBC pool. Acquisition waits behind
+ * every pending request, so a slow acquire means the pool is undersized for the load; above
+ * {@code credit.pool-health.degraded-acquire-time} the status becomes {@code DEGRADED}, and a failed or
+ * timed-out acquire reports {@code DOWN}.
+ * <p>
+ * With sharding every shard's pool is checked, each reported under {@code shard-<n>}, and the overall status is
+ * that of the least healthy shard. With read replicas the status is the primary's, since reads fall back to it,
+ * and each replica is reported under {@code replica-<n>} along with whether it is in rotation.
+ */
+@Component("connectionPool")
+public class ConnectionPoolHealthIndicator implements ReactiveHealthIndicator {
+
+    static final Status DEGRADED = new Status("DEGRADED", "Connection acquisition is slower than expected");
+
+    // Most severe first, as in management.endpoint.health.status.order
+    private static final List<Status> SEVERITY = List.of(Status.DOWN, Status.OUT_OF_SERVICE, DEGRADED,
+            Status.UNKNOWN, Status.UP);
+
+    private final ConnectionFactory connectionFactory;
+    private final Duration degradedAcquireTime;
+
+    public ConnectionPoolHealthIndicator(ConnectionFactory connectionFactory, CreditBureauProperties properties) {
+        this.connectionFactory = connectionFactory;
+        this.degradedAcquireTime = properties.getPoolHealth().getDegradedAcquireTime();
+    }
+
+    @Override
+    public Mono<Health> health() {
+        if (connectionFactory instanceof ReplicaRoutingConnectionFactory replicas) {
+            return replicaHealth(replicas);
+        }
+        List<ConnectionFactory> shards = ShardRoutingConnectionFactory.targets(connectionFactory);
+        if (shards.size() == 1) {
+            return health(shards.get(0));
+        }
+        return Flux.fromIterable(shards)
+                .flatMapSequential(this::health)
+                .collectList()
+                .map(healths -> {
+                    Health.Builder builder = Health.status(healths.stream()
+                            .map(Health::getStatus)
+                            .min(Comparator.comparingInt(SEVERITY::indexOf))
+                            .orElse(Status.UNKNOWN));
+                    for (int shard = 0; shard < healths.size(); shard++) {
+                        builder.withDetail("shard-" + shard, healths.get(shard));
+                    }
+                    return builder.build();
+                });
+    }
+
+    private Mono<Health> replicaHealth(ReplicaRoutingConnectionFactory replicas) {
+        return Mono.zip(health(replicas.getPrimary()), Flux.fromIterable(replicas.getReplicas())
+                        .flatMapSequential(this::health)
+                        .collectList())
+                .map(healths -> {
+                    Health.Builder builder = Health.status(healths.getT1().getStatus())
+                            .withDetail("primary", healths.getT1());
+                    for (int replica = 0; replica < healths.getT2().size(); replica++) {
+                        Health health = healths.getT2().get(replica);
+                        builder.withDetail("replica-" + replica, Health.status(health.getStatus())
+                                .withDetails(health.getDetails())
+                                .withDetail("inRotation", replicas.isInRotation(replica))
+                                .build());
+                    }
+                    return builder.build();
+                });
+    }
+
+    private Mono<Health> health(ConnectionFactory connectionFactory) {
+        if (!(connectionFactory instanceof ConnectionPool pool)) {
+            return Mono.just(Health.unknown().withDetail("pooled", false).build());
+        }
+
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return Mono.usingWhen(pool.create(),
+                    connection -> Mono.just(Duration.ofNanos(System.nanoTime() - start)),
+                    Connection::close);
+        })
+                .map(acquireTime -> withPoolDetails(
+                        acquireTime.compareTo(degradedAcquireTime) > 0 ? Health.status(DEGRADED) : Health.up(), pool)
+                        .withDetail("acquireTimeMillis", acquireTime.toMillis())
+                        .withDetail("degradedAcquireTimeMillis", degradedAcquireTime.toMillis())
+                        .build())
+                .onErrorResume(error -> Mono.just(withPoolDetails(Health.down(error), pool).build()));
+    }
+
+    private static Health.Builder withPoolDetails(Health.Builder builder, ConnectionPool pool) {
+        pool.getMetrics().ifPresent(metrics -> builder
+                .withDetail("acquired", metrics.acquiredSize())
+                .withDetail("idle", metrics.idleSize())
+                .withDetail("allocated", metrics.allocatedSize())
+                .withDetail("maxAllocated", metrics.getMaxAllocatedSize())
+                .withDetail("pendingAcquire", metrics.pendingAcquireSize())
+                .withDetail("maxPendingAcquire", metrics.getMaxPendingAcquireSize()));
+        return builder;
+    }
+}
@@ -0,0 +1,53 @@
+package com.rjtmahinay.credit.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.PropertyMapper;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.util.StringUtils;
+
+/**
+ * Builds the connection pools that stand in for the single spring.r2dbc pool when queries are routed over
+ * several databases.
+ */
+final class ConnectionPools {
+
+    private ConnectionPools() {
+    }
+
+    /**
+     * A pool of connections to {@code url} with the spring.r2dbc credentials and pool settings, publishing the
+     * r2dbc.pool metrics tagged with {@code name}.
+     */
+    static ConnectionPool create(String name, String url, R2dbcProperties r2dbc,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        ConnectionPoolConfiguration.Builder builder = ConnectionPoolConfiguration.builder(
+                        ConnectionFactoryBuilder.withUrl(url)
+                                .username(r2dbc.getUsername())
+                                .password(r2dbc.getPassword())
+                                .build())
+                .name(name);
+        R2dbcProperties.Pool pool = r2dbc.getPool();
+        PropertyMapper map = PropertyMapper.get().alwaysApplyingWhenNonNull();
+        map.from(pool.getInitialSize()).to(builder::initialSize);
+        map.from(pool.getMaxSize()).to(builder::maxSize);
+        map.from(pool.getMinIdle()).to(builder::minIdle);
+        map.from(pool.getMaxIdleTime()).to(builder::maxIdleTime);
+        map.from(pool.getMaxLifeTime()).to(builder::maxLifeTime);
+        map.from(pool.getMaxAcquireTime()).to(builder::maxAcquireTime);
+        map.from(pool.getAcquireRetry()).to(builder::acquireRetry);
+        map.from(pool.getMaxCreateConnectionTime()).to(builder::maxCreateConnectionTime);
+        map.from(pool.getMaxValidationTime()).to(builder::maxValidationTime);
+        map.from(pool.getValidationDepth()).to(builder::validationDepth);
+        map.from(pool.getValidationQuery()).when(StringUtils::hasText).to(builder::validationQuery);
+        ConnectionPool connectionPool = new ConnectionPool(builder.build());
+        meterRegistry.ifAvailable(registry -> new ConnectionPoolMetrics(connectionPool, name, Tags.empty())
+                .bindTo(registry));
+        return connectionPool;
+    }
+}
@@ -0,0 +1,360 @@
+package com.rjtmahinay.credit.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "credit")
+public class CreditBureauProperties {
+
+    private final Batch batch = new Batch();
+    private final Cache cache = new Cache();
+    private final Policy policy = new Policy();
+    private final Ingestion ingestion = new Ingestion();
+    private final Export export = new Export();
+    private final PoolHealth poolHealth = new PoolHealth();
+    private final WriteBehind writeBehind = new WriteBehind();
+    private final Idempotency idempotency = new Idempotency();
+    private final Snapshot snapshot = new Snapshot();
+    private final ChangeFeed changeFeed = new ChangeFeed();
+    private final Rescore rescore = new Rescore();
+    private final Dataset dataset = new Dataset();
+    private final Startup startup = new Startup();
+    private final Sharding sharding = new Sharding();
+    private final Replicas replicas = new Replicas();
+
+    @Data
+    public static class Batch {
+
+        /**
+         * Number of applicants whose scores and active histories are loaded per database round trip.
+         */
+        private int chunkSize = 500;
+    }
+
+    @Data
+    public static class Cache {
+
+        /**
+         * Maximum number of credit scores kept in the in-process cache.
+         */
+        private long maximumSize = 10_000;
+
+        /**
+         * How long a cached credit score is served before it is reloaded from the database.
+         */
+        private Duration timeToLive = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Policy {
+
+        /**
+         * Optional JSON file holding a policy (same shape as this block) that overrides the bands below and can
+         * be re-read at runtime through the scorepolicy Actuator endpoint.
+         */
+        private String location;
+
+        /**
+         * Scores below this are rejected with "Credit score too low".
+         */
+        private int lowScoreThreshold = 500;
+
+        /**
+         * Rejections with more delinquent active accounts than this report "Too many delinquent accounts".
+         */
+        private int maxDelinquentAccounts = 2;
+
+        /**
+         * Score bands; each band applies from its minimum score up to the next band's minimum.
+         */
+        private List<Band> bands = new ArrayList<>();
+    }
+
+    @Data
+    public static class Band {
+
+        private int minScore;
+        private String decision; // APPROVED, REJECTED, MANUAL_REVIEW
+        private String riskLevel; // LOW, MEDIUM, HIGH
+        private BigDecimal approvalFactor;
+        private BigDecimal interestRate;
+
+        /**
+         * When set, applicants whose debt-to-income ratio is at or below this limit are approved and everyone
+         * else gets the band's decision.
+         */
+        private BigDecimal debtToIncomeApprovalLimit;
+    }
+
+    @Data
+    public static class Ingestion {
+
+        /**
+         * Number of tradelines written per multi-row insert.
+         */
+        private int batchSize = 500;
+
+        /**
+         * Maximum number of insert batches in flight at once for a single upload.
+         */
+        private int concurrency = 4;
+
+        /**
+         * Maximum number of rejected rows itemized in an upload summary; the rest are only counted.
+         */
+        private int maxReportedErrors = 100;
+    }
+
+    @Data
+    public static class Export {
+
+        /**
+         * Number of rows read per keyset page when streaming a table export.
+         */
+        private int pageSize = 1000;
+    }
+
+    @Data
+    public static class PoolHealth {
+
+        /**
+         * Connection acquire time above which the {@code connectionPool} health indicator reports DEGRADED.
+         */
+        private Duration degradedAcquireTime = Duration.ofMillis(250);
+    }
+
+    @Data
+    public static class WriteBehind {
+
+        /**
+         * Maximum number of decisions waiting to be written; further decisions are dropped and counted.
+         */
+        private int capacity = 10_000;
+
+        /**
+         * Number of loan applications written per multi-row insert.
+         */
+        private int batchSize = 200;
+
+        /**
+         * Longest a queued decision waits for its batch to fill before it is written anyway.
+         */
+        private Duration flushInterval = Duration.ofSeconds(1);
+
+        /**
+         * How long shutdown waits for the queue to drain.
+         */
+        private Duration shutdownTimeout = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Idempotency {
+
+        /**
+         * Maximum number of Idempotency-Key results remembered.
+         */
+        private long maximumSize = 10_000;
+
+        /**
+         * How long a result is replayed for retries that carry the same Idempotency-Key.
+         */
+        private Duration timeToLive = Duration.ofHours(1);
+    }
+
+    @Data
+    public static class Snapshot {
+
+        /**
+         * Whether credit score lookups are answered from a memory-mapped snapshot of the table when not cached.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Snapshot file. Rebuilds are written next to it and renamed into place, so it should survive restarts.
+         */
+        private Path path = Path.of(System.getProperty("java.io.tmpdir"), "credit-bureau", "score-snapshot.bin");
+
+        /**
+         * Delay after startup before the snapshot is first rebuilt from the database.
+         */
+        private Duration initialDelay = Duration.ofSeconds(30);
+
+        /**
+         * How often the snapshot is rebuilt; it can miss score changes made by other instances for this long.
+         */
+        private Duration rebuildInterval = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class ChangeFeed {
+
+        /**
+         * Number of most recent change events kept for subscribers resuming with a token.
+         */
+        private int replaySize = 10_000;
+
+        /**
+         * Events a subscriber may fall behind the feed, on top of a full replay, before it is disconnected.
+         */
+        private int subscriberBuffer = 1_000;
+    }
+
+    @Data
+    public static class Rescore {
+
+        /**
+         * Credit scores read, re-scored and checkpointed together.
+         */
+        private int chunkSize = 500;
+
+        /**
+         * Chunks written to the database at the same time.
+         */
+        private int writeConcurrency = 2;
+
+        /**
+         * Upper bound on credit scores re-scored per second.
+         */
+        private int maxRowsPerSecond = 5_000;
+
+        /**
+         * Pause before re-checking while live requests are waiting for a database connection.
+         */
+        private Duration busyBackoff = Duration.ofMillis(200);
+
+        /**
+         * Whether an unfinished pass is resumed from its checkpoint when the service starts.
+         */
+        private boolean resumeOnStartup = true;
+    }
+
+    @Data
+    public static class Dataset {
+
+        /**
+         * Applicants generated, each with one credit score and its credit history.
+         */
+        private int applicants = 100_000;
+
+        /**
+         * SSN of the first applicant as its nine digits; applicants take consecutive SSNs, which must not have
+         * scores yet.
+         */
+        private int ssnBase = 200_000_000;
+
+        /**
+         * Average credit history records per applicant.
+         */
+        private double meanAccounts = 10;
+
+        /**
+         * Seed of every random choice; the same seed, size and as-of date always generate the same rows.
+         */
+        private long seed = 42;
+
+        /**
+         * Date the generated history is reported as of; today when not set.
+         */
+        private LocalDate asOf;
+
+        /**
+         * Rows per multi-row insert statement.
+         */
+        private int batchSize = 1_000;
+
+        /**
+         * Batches of applicants generated and written at the same time.
+         */
+        private int concurrency = 4;
+    }
+
+    @Data
+    public static class Startup {
+
+        /**
+         * Whether the service exercises its own endpoints once it is ready and then exits, as the training run
+         * for a class-data sharing archive.
+         */
+        private boolean trainingRun = false;
+    }
+
+    @Data
+    public static class Sharding {
+
+        /**
+         * Whether credit scores, history and aggregates are spread over the databases in {@link #urls} by SSN
+         * instead of kept in the single spring.r2dbc database.
+         */
+        private boolean enabled = false;
+
+        /**
+         * R2DBC URLs of the shards, each pooled with the spring.r2dbc.pool settings and the spring.r2dbc
+         * credentials. The first also holds loan applications, rescoring checkpoints and the shard directory.
+         */
+        private List<String> urls = new ArrayList<>();
+
+        /**
+         * Buckets SSNs are hashed into; each bucket is owned by one shard and moves between shards as a whole.
+         * Fixed for the life of the data, since changing it re-hashes every SSN.
+         */
+        private int buckets = 1024;
+
+        /**
+         * How long a bucket move waits for writes already in flight to the bucket before giving up.
+         */
+        private Duration drainTimeout = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class Replicas {
+
+        /**
+         * Whether credit score, history and aggregate reads go to the read replicas in {@link #urls} instead of
+         * the spring.r2dbc database, which stays the primary for writes.
+         */
+        private boolean enabled = false;
+
+        /**
+         * R2DBC URLs of the read replicas, each pooled with the spring.r2dbc.pool settings and the spring.r2dbc
+         * credentials. Reads are spread over the healthy ones in turn.
+         */
+        private List<String> urls = new ArrayList<>();
+
+        /**
+         * How long after a write reads for the same SSN stay on the primary, so a client reads its own writes.
+         * Should exceed the replication lag the replicas are allowed ({@link #maxLag}).
+         */
+        private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+        /**
+         * How often each replica is checked; a replica that fails a check is taken out of rotation until it
+         * passes one again.
+         */
+        private Duration checkInterval = Duration.ofSeconds(5);
+
+        /**
+         * How long a check may take before the replica counts as failed.
+         */
+        private Duration checkTimeout = Duration.ofSeconds(2);
+
+        /**
+         * Optional query returning a replica's replication lag in seconds, such as
+         * {@code SELECT EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())} on PostgreSQL. Without it a
+         * check only validates a connection.
+         */
+        private String lagQuery;
+
+        /**
+         * Replicas lagging further behind than this, according to {@link #lagQuery}, are taken out of rotation.
+         */
+        private Duration maxLag = Duration.ofSeconds(2);
+    }
+}
@@ -0,0 +1,55 @@
+package com.rjtmahinay.credit.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Connection pool and transactions for the {@code jdbc} execution mode, in which the credit score, history and
+ * aggregate repositories run over JDBC (see {@code JdbcSupport}) while everything else stays on R2DBC. Boot only
+ * creates a {@code DataSource} when there is no R2DBC {@code ConnectionFactory}, so it is built here from the
+ * usual {@code spring.datasource.*} properties and must point at the same database as {@code spring.r2dbc.url}.
+ */
+@Configuration
+@Profile("jdbc")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class JdbcPersistenceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Runs the blocking JDBC calls: a virtual thread per call when {@code spring.threads.virtual.enabled} is set,
+     * as the {@code jdbc} profile does, and Reactor's bounded-elastic workers otherwise. Either way the Hikari pool
+     * bounds how many calls hold a connection at once.
+     */
+    @Bean
+    public Scheduler jdbcScheduler(Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return Schedulers.fromExecutorService(Executors.newVirtualThreadPerTaskExecutor(), "credit-jdbc");
+        }
+        return Schedulers.boundedElastic();
+    }
+
+    /**
+     * Replaces Boot's R2DBC transaction manager, so {@code TransactionalOperator} blocks commit the JDBC writes
+     * they contain atomically. The tables left on R2DBC are not written inside those blocks.
+     */
+    @Bean
+    public JdbcReactiveTransactionManager transactionManager(HikariDataSource dataSource, Scheduler jdbcScheduler) {
+        return new JdbcReactiveTransactionManager(dataSource, jdbcScheduler);
+    }
+}
@@ -0,0 +1,156 @@
+package com.rjtmahinay.credit.config;
+
+import org.springframework.jdbc.datasource.ConnectionHolder;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.reactive.AbstractReactiveTransactionManager;
+import org.springframework.transaction.reactive.GenericReactiveTransaction;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Reactive transactions on a JDBC {@link DataSource}, so that a {@code TransactionalOperator} in the {@code jdbc}
+ * execution mode spans the JDBC repositories. A transaction holds one connection, bound to the subscriber's
+ * transaction context as a {@link ConnectionHolder} keyed by the data source, and the repositories run every call
+ * made inside the transaction on that connection (see {@code JdbcSupport}). Opening, committing and closing the
+ * connection block, so they run on the {@code jdbcScheduler} as well.
+ */
+public class JdbcReactiveTransactionManager extends AbstractReactiveTransactionManager {
+
+    private final DataSource dataSource;
+    private final Scheduler scheduler;
+
+    public JdbcReactiveTransactionManager(DataSource dataSource, Scheduler scheduler) {
+        this.dataSource = dataSource;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    protected Object doGetTransaction(TransactionSynchronizationManager synchronizationManager) {
+        JdbcTransaction transaction = new JdbcTransaction();
+        transaction.holder = (ConnectionHolder) synchronizationManager.getResource(dataSource);
+        return transaction;
+    }
+
+    @Override
+    protected boolean isExistingTransaction(Object transaction) {
+        return ((JdbcTransaction) transaction).holder != null;
+    }
+
+    @Override
+    protected Mono<Void> doBegin(TransactionSynchronizationManager synchronizationManager, Object transaction,
+            TransactionDefinition definition) {
+        JdbcTransaction jdbcTransaction = (JdbcTransaction) transaction;
+        return Mono.fromCallable(() -> {
+                    Connection connection = dataSource.getConnection();
+                    try {
+                        jdbcTransaction.previousIsolationLevel =
+                                DataSourceUtils.prepareConnectionForTransaction(connection, definition);
+                        jdbcTransaction.readOnly = definition.isReadOnly();
+                        connection.setAutoCommit(false);
+                    } catch (SQLException | RuntimeException e) {
+                        DataSourceUtils.releaseConnection(connection, null);
+                        throw e;
+                    }
+                    ConnectionHolder holder = new ConnectionHolder(connection);
+                    holder.setSynchronizedWithTransaction(true);
+                    if (definition.getTimeout() != TransactionDefinition.TIMEOUT_DEFAULT) {
+                        holder.setTimeoutInSeconds(definition.getTimeout());
+                    }
+                    return holder;
+                })
+                .subscribeOn(scheduler)
+                .onErrorMap(SQLException.class,
+                        e -> new CannotCreateTransactionException("Could not open JDBC connection for transaction", e))
+                .doOnNext(holder -> {
+                    jdbcTransaction.holder = holder;
+                    synchronizationManager.bindResource(dataSource, holder);
+                })
+                .then();
+    }
+
+    @Override
+    protected Mono<Object> doSuspend(TransactionSynchronizationManager synchronizationManager, Object transaction) {
+        return Mono.fromSupplier(() -> {
+            ((JdbcTransaction) transaction).holder = null;
+            return synchronizationManager.unbindResource(dataSource);
+        });
+    }
+
+    @Override
+    protected Mono<Void> doResume(TransactionSynchronizationManager synchronizationManager, Object transaction,
+            Object suspendedResources) {
+        return Mono.fromRunnable(() -> synchronizationManager.bindResource(dataSource, suspendedResources));
+    }
+
+    @Override
+    protected Mono<Void> doCommit(TransactionSynchronizationManager synchronizationManager,
+            GenericReactiveTransaction status) {
+        Connection connection = ((JdbcTransaction) status.getTransaction()).holder.getConnection();
+        return run(connection::commit, "Could not commit JDBC transaction");
+    }
+
+    @Override
+    protected Mono<Void> doRollback(TransactionSynchronizationManager synchronizationManager,
+            GenericReactiveTransaction status) {
+        Connection connection = ((JdbcTransaction) status.getTransaction()).holder.getConnection();
+        return run(connection::rollback, "Could not roll back JDBC transaction");
+    }
+
+    @Override
+    protected Mono<Void> doSetRollbackOnly(TransactionSynchronizationManager synchronizationManager,
+            GenericReactiveTransaction status) {
+        return Mono.fromRunnable(() -> ((JdbcTransaction) status.getTransaction()).holder.setRollbackOnly());
+    }
+
+    @Override
+    protected Mono<Void> doCleanupAfterCompletion(TransactionSynchronizationManager synchronizationManager,
+            Object transaction) {
+        JdbcTransaction jdbcTransaction = (JdbcTransaction) transaction;
+        synchronizationManager.unbindResource(dataSource);
+        Connection connection = jdbcTransaction.holder.getConnection();
+        jdbcTransaction.holder.clear();
+        return Mono.fromRunnable(() -> {
+                    try {
+                        connection.setAutoCommit(true);
+                        DataSourceUtils.resetConnectionAfterTransaction(connection,
+                                jdbcTransaction.previousIsolationLevel, jdbcTransaction.readOnly);
+                    } catch (SQLException e) {
+                        logger.debug("Could not reset JDBC connection after transaction", e);
+                    } finally {
+                        DataSourceUtils.releaseConnection(connection, null);
+                    }
+                })
+                .subscribeOn(scheduler)
+                .then();
+    }
+
+    private Mono<Void> run(SqlAction action, String failure) {
+        return Mono.fromCallable(() -> {
+                    action.run();
+                    return true;
+                })
+                .subscribeOn(scheduler)
+                .onErrorMap(SQLException.class, e -> new TransactionSystemException(failure, e))
+                .then();
+    }
+
+    private interface SqlAction {
+
+        void run() throws SQLException;
+    }
+
+    private static class JdbcTransaction {
+
+        private ConnectionHolder holder;
+        private Integer previousIsolationLevel;
+        private boolean readOnly;
+    }
+}
@@ -1,11 +1,13 @@
 package com.rjtmahinay.credit.config;
 
+import com.rjtmahinay.credit.model.Ssn;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Contact;
 import io.swagger.v3.oas.models.info.Info;
 import io.swagger.v3.oas.models.info.License;
 import io.swagger.v3.oas.models.servers.Server;
 import org.springdoc.core.models.GroupedOpenApi;
+import org.springdoc.core.utils.SpringDocUtils;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -14,6 +16,11 @@ import java.util.List;
 @Configuration
 public class OpenApiConfig {
 
+    static {
+        // Ssn is read and written as its dashed string form
+        SpringDocUtils.getConfig().replaceWithClass(Ssn.class, String.class);
+    }
+
     @Bean
     public OpenAPI customOpenAPI() {
         return new OpenAPI()
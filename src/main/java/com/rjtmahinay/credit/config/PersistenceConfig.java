@@ -0,0 +1,47 @@
+package com.rjtmahinay.credit.config;
+
+import com.rjtmahinay.credit.model.Ssn;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.DialectResolver;
+
+import java.util.List;
+
+/**
+ * Maps {@link Ssn} to the {@code INTEGER} ssn columns for entities and repository query parameters. Statements
+ * built directly on the {@code DatabaseClient} bypass these conversions and bind {@link Ssn#value()} themselves.
+ */
+@Configuration
+public class PersistenceConfig {
+
+    @Bean
+    public R2dbcCustomConversions r2dbcCustomConversions(ConnectionFactory connectionFactory) {
+        return R2dbcCustomConversions.of(DialectResolver.getDialect(connectionFactory),
+                List.of(SsnToInteger.INSTANCE, IntegerToSsn.INSTANCE));
+    }
+
+    @WritingConverter
+    enum SsnToInteger implements Converter<Ssn, Integer> {
+        INSTANCE;
+
+        @Override
+        public Integer convert(Ssn source) {
+            return source.value();
+        }
+    }
+
+    @ReadingConverter
+    enum IntegerToSsn implements Converter<Integer, Ssn> {
+        INSTANCE;
+
+        @Override
+        public Ssn convert(Integer source) {
+            return new Ssn(source);
+        }
+    }
+}
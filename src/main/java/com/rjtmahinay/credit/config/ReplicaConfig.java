@@ -0,0 +1,54 @@
+package com.rjtmahinay.credit.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.autoconfigure.sql.init.SqlR2dbcScriptDatabaseInitializer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the single spring.r2dbc connection factory with a pool for the spring.r2dbc database as the primary
+ * and one per {@code credit.replicas.urls} entry behind a {@link ReplicaRoutingConnectionFactory}, and
+ * initializes the primary from the spring.sql.init scripts. Replicas are expected to receive the primary's data
+ * through replication. Not combined with sharding, which rejects {@code credit.replicas.enabled}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnExpression("${credit.replicas.enabled:false} and !${credit.sharding.enabled:false}")
+@EnableConfigurationProperties(SqlInitializationProperties.class)
+public class ReplicaConfig {
+
+    @Bean
+    public ReplicaRoutingConnectionFactory connectionFactory(CreditBureauProperties properties, R2dbcProperties r2dbc,
+            ObjectProvider<MeterRegistry> meterRegistry, Environment environment) {
+        CreditBureauProperties.Replicas config = properties.getReplicas();
+        if (config.getUrls().isEmpty()) {
+            throw new IllegalStateException("credit.replicas.enabled requires credit.replicas.urls");
+        }
+        if (environment.matchesProfiles("jdbc")) {
+            // The JDBC repositories read and write one DataSource and would bypass the routing
+            throw new IllegalStateException("credit.replicas is only supported by the R2DBC execution mode");
+        }
+        List<ConnectionFactory> replicas = new ArrayList<>();
+        for (int replica = 0; replica < config.getUrls().size(); replica++) {
+            replicas.add(ConnectionPools.create("replica-" + replica, config.getUrls().get(replica), r2dbc,
+                    meterRegistry));
+        }
+        return new ReplicaRoutingConnectionFactory(ConnectionPools.create("primary", r2dbc.getUrl(), r2dbc,
+                meterRegistry), replicas, config);
+    }
+
+    @Bean
+    public SqlR2dbcScriptDatabaseInitializer r2dbcScriptDatabaseInitializer(
+            ReplicaRoutingConnectionFactory connectionFactory, SqlInitializationProperties properties) {
+        return new SqlR2dbcScriptDatabaseInitializer(connectionFactory.getPrimary(), properties);
+    }
+}
@@ -0,0 +1,187 @@
+package com.rjtmahinay.credit.config;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.ValidationDepth;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.SmartLifecycle;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Hands out connections to the primary, or to one of the read replicas when the subscriber context asks for a
+ * replica with {@link #onReplica}. Replicas take turns. A replica that cannot hand out a connection, fails a
+ * periodic check or lags further behind than {@code credit.replicas.max-lag} is taken out of rotation until it
+ * passes a check again, and while no replica is in rotation reads go to the primary.
+ * <p>
+ * Transactions bind to this connection factory, so queries inside a transaction all use the transaction's
+ * connection, which comes from the primary unless the transaction was started on a replica.
+ */
+@Slf4j
+public class ReplicaRoutingConnectionFactory implements ConnectionFactory, SmartLifecycle, DisposableBean {
+
+    private static final String REPLICA = ReplicaRoutingConnectionFactory.class.getName() + ".replica";
+
+    private final ConnectionFactory primary;
+    private final List<ConnectionFactory> replicas;
+    private final CreditBureauProperties.Replicas config;
+    private final AtomicIntegerArray ejected;
+    private final AtomicInteger turn = new AtomicInteger();
+    private volatile Disposable checks;
+
+    public ReplicaRoutingConnectionFactory(ConnectionFactory primary, List<ConnectionFactory> replicas,
+            CreditBureauProperties.Replicas config) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.config = config;
+        this.ejected = new AtomicIntegerArray(replicas.size());
+    }
+
+    /**
+     * Context that sends the queries of a publisher to a replica.
+     */
+    public static ContextView onReplica() {
+        return Context.of(REPLICA, true);
+    }
+
+    public ConnectionFactory getPrimary() {
+        return primary;
+    }
+
+    public List<ConnectionFactory> getReplicas() {
+        return replicas;
+    }
+
+    public boolean isInRotation(int replica) {
+        return ejected.get(replica) == 0;
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.deferContextual(context -> context.getOrDefault(REPLICA, false)
+                ? replicaConnection(replicas.size())
+                : Mono.from(primary.create()));
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return primary.getMetadata();
+    }
+
+    /**
+     * A connection from the next replica in rotation, trying the others in turn when one fails, and from the
+     * primary when none is left.
+     */
+    private Mono<Connection> replicaConnection(int attempts) {
+        int replica = nextReplica();
+        if (replica < 0 || attempts == 0) {
+            return Mono.from(primary.create());
+        }
+        return Mono.<Connection>from(replicas.get(replica).create())
+                .onErrorResume(error -> {
+                    eject(replica, error.toString());
+                    return replicaConnection(attempts - 1);
+                });
+    }
+
+    private int nextReplica() {
+        int first = Math.floorMod(turn.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            int replica = (first + i) % replicas.size();
+            if (isInRotation(replica)) {
+                return replica;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks every replica once, taking those that fail out of rotation and putting those that pass back in.
+     */
+    public Mono<Void> checkReplicas() {
+        return Flux.range(0, replicas.size())
+                .flatMap(replica -> check(replica)
+                        .timeout(config.getCheckTimeout())
+                        .onErrorResume(error -> Mono.just(error.toString()))
+                        .doOnNext(failure -> eject(replica, failure))
+                        .switchIfEmpty(Mono.fromRunnable(() -> readmit(replica))))
+                .then();
+    }
+
+    /**
+     * Why the replica should be out of rotation, or empty if it is healthy.
+     */
+    private Mono<String> check(int replica) {
+        return Mono.usingWhen(replicas.get(replica).create(), connection -> {
+            if (config.getLagQuery() == null) {
+                return Mono.from(connection.validate(ValidationDepth.REMOTE))
+                        .filter(valid -> !valid)
+                        .map(invalid -> "connection failed validation");
+            }
+            return Flux.from(connection.createStatement(config.getLagQuery()).execute())
+                    .concatMap(result -> result.map(row -> {
+                        Object seconds = row.get(0);
+                        return seconds instanceof Number number ? number.doubleValue() : 0.0;
+                    }))
+                    .next()
+                    .map(seconds -> Duration.ofMillis(Math.round(seconds * 1000)))
+                    .filter(lag -> lag.compareTo(config.getMaxLag()) > 0)
+                    .map(lag -> "replication lag " + lag.toMillis() + " ms exceeds " + config.getMaxLag());
+        }, Connection::close);
+    }
+
+    private void eject(int replica, String reason) {
+        if (ejected.compareAndSet(replica, 0, 1)) {
+            log.warn("Took replica {} out of rotation: {}", replica, reason);
+        }
+    }
+
+    private void readmit(int replica) {
+        if (ejected.compareAndSet(replica, 1, 0)) {
+            log.info("Put replica {} back into rotation", replica);
+        }
+    }
+
+    @Override
+    public void start() {
+        checks = Flux.interval(Duration.ZERO, config.getCheckInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> checkReplicas())
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        if (checks != null) {
+            checks.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return checks != null && !checks.isDisposed();
+    }
+
+    @Override
+    public void destroy() {
+        stop();
+        for (ConnectionFactory connectionFactory : replicas) {
+            if (connectionFactory instanceof Disposable pool) {
+                pool.dispose();
+            }
+        }
+        if (primary instanceof Disposable pool) {
+            pool.dispose();
+        }
+    }
+}
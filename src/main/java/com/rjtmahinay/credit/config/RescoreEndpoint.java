@@ -0,0 +1,61 @@
+package com.rjtmahinay.credit.config;
+
+import com.rjtmahinay.credit.service.PortfolioRescoringJob;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@Endpoint(id = "rescore")
+@RequiredArgsConstructor
+public class RescoreEndpoint {
+
+    private final PortfolioRescoringJob portfolioRescoringJob;
+
+    @ReadOperation
+    public Mono<Map<String, Object>> status() {
+        return portfolioRescoringJob.checkpoint()
+                .map(this::status)
+                .defaultIfEmpty(status(null));
+    }
+
+    /**
+     * Resumes the unfinished pass, or starts a new one; {@code fromBeginning} discards the unfinished pass.
+     */
+    @WriteOperation
+    public Mono<WebEndpointResponse<Map<String, Object>>> start(@Nullable Boolean fromBeginning) {
+        return portfolioRescoringJob.start(Boolean.TRUE.equals(fromBeginning))
+                .then(status())
+                .map(WebEndpointResponse::new)
+                .onErrorResume(IllegalStateException.class, error -> status()
+                        .map(body -> new WebEndpointResponse<>(body, 409)));
+    }
+
+    @DeleteOperation
+    public Mono<Map<String, Object>> stop() {
+        portfolioRescoringJob.cancel();
+        return status();
+    }
+
+    private Map<String, Object> status(Object checkpoint) {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("active", portfolioRescoringJob.isActive());
+        status.put("rowsPerSecond", Math.round(portfolioRescoringJob.rowsPerSecond()));
+        if (checkpoint != null) {
+            status.put("checkpoint", checkpoint);
+        }
+        if (portfolioRescoringJob.lastError() != null) {
+            status.put("lastError", portfolioRescoringJob.lastError());
+        }
+        return status;
+    }
+}
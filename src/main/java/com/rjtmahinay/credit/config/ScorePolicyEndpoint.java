@@ -0,0 +1,31 @@
+package com.rjtmahinay.credit.config;
+
+import com.rjtmahinay.credit.service.ScorePolicyEngine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+@Endpoint(id = "scorepolicy")
+@RequiredArgsConstructor
+public class ScorePolicyEndpoint {
+
+    private final ScorePolicyEngine scorePolicyEngine;
+
+    @ReadOperation
+    public Map<String, Object> policy() {
+        return Map.of(
+                "version", scorePolicyEngine.version(),
+                "policy", scorePolicyEngine.currentPolicy());
+    }
+
+    @WriteOperation
+    public Map<String, Object> reload() {
+        scorePolicyEngine.reload();
+        return policy();
+    }
+}
@@ -0,0 +1,135 @@
+package com.rjtmahinay.credit.config;
+
+import com.rjtmahinay.credit.model.Ssn;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Which shard owns each SSN. SSNs hash into a fixed number of buckets and each bucket is owned by one shard:
+ * bucket {@code b} by shard {@code b % shards}, unless the {@code shard_directory} table on the first shard has
+ * assigned it elsewhere.
+ * <p>
+ * Writes register with the buckets they touch while they run, so a bucket being moved can turn new writes away
+ * and wait for the ones already in flight; reads are never held up.
+ */
+public class ShardDirectory {
+
+    private final int shardCount;
+    private final AtomicIntegerArray owners;
+    private final AtomicIntegerArray frozen;
+    private final AtomicIntegerArray writers;
+
+    public ShardDirectory(int shardCount, int buckets) {
+        if (shardCount < 1 || buckets < shardCount) {
+            throw new IllegalArgumentException("Sharding needs at least one shard and a bucket for each shard");
+        }
+        this.shardCount = shardCount;
+        this.owners = new AtomicIntegerArray(buckets);
+        this.frozen = new AtomicIntegerArray(buckets);
+        this.writers = new AtomicIntegerArray(buckets);
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            owners.set(bucket, bucket % shardCount);
+        }
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public int buckets() {
+        return owners.length();
+    }
+
+    /**
+     * The bucket of an SSN: a MurmurHash3 finalizer spreads consecutive SSNs over all buckets, and depends on
+     * nothing but the SSN and the bucket count.
+     */
+    public int bucketOf(Ssn ssn) {
+        int hash = ssn.value();
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, owners.length());
+    }
+
+    public int shardOf(Ssn ssn) {
+        return owners.get(bucketOf(ssn));
+    }
+
+    public int ownerOf(int bucket) {
+        return owners.get(bucket);
+    }
+
+    public void assign(int bucket, int shard) {
+        owners.set(bucket, shard);
+    }
+
+    /**
+     * Number of buckets each shard owns, by shard.
+     */
+    public Map<Integer, Integer> bucketsPerShard() {
+        Map<Integer, Integer> counts = new TreeMap<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            counts.put(shard, 0);
+        }
+        for (int bucket = 0; bucket < owners.length(); bucket++) {
+            counts.merge(owners.get(bucket), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Registers a write to each of {@code buckets}, unless one of them is being moved, in which case nothing is
+     * registered and {@code false} is returned.
+     */
+    public boolean tryEnter(int[] buckets) {
+        for (int i = 0; i < buckets.length; i++) {
+            writers.incrementAndGet(buckets[i]);
+            if (frozen.get(buckets[i]) != 0) {
+                exit(buckets, i + 1);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void exit(int[] buckets) {
+        exit(buckets, buckets.length);
+    }
+
+    private void exit(int[] buckets, int count) {
+        for (int i = 0; i < count; i++) {
+            writers.decrementAndGet(buckets[i]);
+        }
+    }
+
+    /**
+     * Turns new writes to the bucket away until {@link #unfreeze}.
+     *
+     * @throws IllegalStateException if the bucket is already frozen
+     */
+    public void freeze(int bucket) {
+        if (!frozen.compareAndSet(bucket, 0, 1)) {
+            throw new IllegalStateException("Bucket " + bucket + " is already being moved");
+        }
+    }
+
+    public void unfreeze(int bucket) {
+        frozen.set(bucket, 0);
+    }
+
+    public boolean isFrozen(int bucket) {
+        return frozen.get(bucket) != 0;
+    }
+
+    /**
+     * Whether no registered write to the bucket is still running.
+     */
+    public boolean isDrained(int bucket) {
+        return writers.get(bucket) == 0;
+    }
+}
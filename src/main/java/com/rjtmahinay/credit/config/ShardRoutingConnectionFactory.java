@@ -0,0 +1,73 @@
+package com.rjtmahinay.credit.config;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands out connections to the shard named in the subscriber context by {@link #onShard}, or to the first shard
+ * when the context names none. Transactions bind to the shard their first connection came from, so the shard
+ * must be in the context of the subscriber to the transactional publisher, not only inside it.
+ */
+public class ShardRoutingConnectionFactory extends AbstractRoutingConnectionFactory implements DisposableBean {
+
+    private static final String SHARD = ShardRoutingConnectionFactory.class.getName() + ".shard";
+
+    private final List<ConnectionFactory> shards;
+
+    public ShardRoutingConnectionFactory(List<ConnectionFactory> shards) {
+        this.shards = List.copyOf(shards);
+        Map<Integer, ConnectionFactory> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        setTargetConnectionFactories(targets);
+        setDefaultTargetConnectionFactory(shards.get(0));
+        setLenientFallback(false);
+    }
+
+    /**
+     * Context that routes the queries of a publisher to {@code shard}.
+     */
+    public static ContextView onShard(int shard) {
+        return Context.of(SHARD, shard);
+    }
+
+    public List<ConnectionFactory> getShards() {
+        return shards;
+    }
+
+    /**
+     * The connection factories queries through {@code connectionFactory} end up on unless they ask for a replica:
+     * each shard when it routes by shard, the primary when it routes reads to replicas, otherwise just itself.
+     */
+    public static List<ConnectionFactory> targets(ConnectionFactory connectionFactory) {
+        if (connectionFactory instanceof ReplicaRoutingConnectionFactory replicas) {
+            return List.of(replicas.getPrimary());
+        }
+        return connectionFactory instanceof ShardRoutingConnectionFactory router ? router.getShards()
+                : List.of(connectionFactory);
+    }
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return Mono.deferContextual(context -> Mono.justOrEmpty(context.getOrEmpty(SHARD)));
+    }
+
+    @Override
+    public void destroy() {
+        shards.forEach(shard -> {
+            if (shard instanceof Disposable pool) {
+                pool.dispose();
+            }
+        });
+    }
+}
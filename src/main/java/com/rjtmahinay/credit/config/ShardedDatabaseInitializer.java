@@ -0,0 +1,90 @@
+package com.rjtmahinay.credit.config;
+
+import com.rjtmahinay.credit.service.ShardMover;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.autoconfigure.sql.init.SqlR2dbcScriptDatabaseInitializer;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Runs the spring.sql.init schema scripts on every shard and the data scripts on the first, then moves the
+ * rows the data scripts wrote to the shards that own their SSNs. Standing in for Spring Boot's own initializer,
+ * it is ordered before the beans that depend on database initialization in the same way.
+ * <p>
+ * Each shard after the first generates {@code id}s from its own range of 2<sup>40</sup> values, so rows keep
+ * their {@code id} when they move between shards and stay unique across all of them.
+ */
+@Slf4j
+public class ShardedDatabaseInitializer extends SqlR2dbcScriptDatabaseInitializer {
+
+    private static final List<String> TABLES_WITH_IDS = List.of("credit_scores", "credit_history");
+    private static final long IDS_PER_SHARD = 1L << 40;
+
+    private final List<SqlR2dbcScriptDatabaseInitializer> otherShards;
+    private final List<DatabaseClient> shards;
+    private final ShardMover shardMover;
+
+    public ShardedDatabaseInitializer(ShardRoutingConnectionFactory connectionFactory,
+            SqlInitializationProperties properties, ShardMover shardMover) {
+        super(connectionFactory.getShards().get(0), properties);
+        SqlInitializationProperties schemaOnly = schemaOnly(properties);
+        this.otherShards = connectionFactory.getShards().stream()
+                .skip(1)
+                .map(shard -> new SqlR2dbcScriptDatabaseInitializer(shard, schemaOnly))
+                .toList();
+        this.shards = connectionFactory.getShards().stream().map(DatabaseClient::create).toList();
+        this.shardMover = shardMover;
+    }
+
+    @Override
+    public boolean initializeDatabase() {
+        boolean initialized = super.initializeDatabase();
+        for (SqlR2dbcScriptDatabaseInitializer shard : otherShards) {
+            initialized |= shard.initializeDatabase();
+        }
+        Flux.range(1, otherShards.size())
+                .concatMap(this::reserveIds)
+                .then(shardMover.loadDirectory())
+                .block();
+        if (initialized) {
+            Long moved = shardMover.rebalance().block();
+            log.info("Initialized {} shards; moved {} rows written by the data scripts to their owning shards",
+                    shards.size(), moved);
+        }
+        return initialized;
+    }
+
+    /**
+     * Restarts the shard's {@code id} sequences at the start of its range, unless they are already past it.
+     */
+    private Mono<Void> reserveIds(int shard) {
+        long first = shard * IDS_PER_SHARD + 1;
+        return Flux.fromIterable(TABLES_WITH_IDS)
+                .concatMap(table -> shards.get(shard).sql("SELECT COALESCE(MAX(id), 0) FROM " + table)
+                        .map(row -> row.get(0, Long.class))
+                        .one()
+                        .filter(maxId -> maxId < first)
+                        .flatMap(maxId -> shards.get(shard)
+                                .sql("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + first)
+                                .then()))
+                .then();
+    }
+
+    private static SqlInitializationProperties schemaOnly(SqlInitializationProperties properties) {
+        SqlInitializationProperties schemaOnly = new SqlInitializationProperties();
+        schemaOnly.setSchemaLocations(properties.getSchemaLocations());
+        schemaOnly.setDataLocations(List.of());
+        schemaOnly.setPlatform(properties.getPlatform());
+        schemaOnly.setUsername(properties.getUsername());
+        schemaOnly.setPassword(properties.getPassword());
+        schemaOnly.setContinueOnError(properties.isContinueOnError());
+        schemaOnly.setSeparator(properties.getSeparator());
+        schemaOnly.setEncoding(properties.getEncoding());
+        schemaOnly.setMode(properties.getMode());
+        return schemaOnly;
+    }
+}
@@ -0,0 +1,59 @@
+package com.rjtmahinay.credit.config;
+
+import com.rjtmahinay.credit.service.ShardMover;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the single spring.r2dbc connection factory with one pool per {@code credit.sharding.urls} entry behind
+ * a {@link ShardRoutingConnectionFactory}, and initializes every shard from the spring.sql.init scripts.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnBooleanProperty("credit.sharding.enabled")
+@EnableConfigurationProperties(SqlInitializationProperties.class)
+public class ShardingConfig {
+
+    @Bean
+    public ShardDirectory shardDirectory(CreditBureauProperties properties, Environment environment) {
+        CreditBureauProperties.Sharding config = properties.getSharding();
+        if (config.getUrls().isEmpty()) {
+            throw new IllegalStateException("credit.sharding.enabled requires credit.sharding.urls");
+        }
+        if (environment.matchesProfiles("jdbc")) {
+            // The JDBC repositories read and write one DataSource and would bypass the routing
+            throw new IllegalStateException("credit.sharding is only supported by the R2DBC execution mode");
+        }
+        if (properties.getReplicas().isEnabled()) {
+            throw new IllegalStateException("credit.replicas cannot be combined with credit.sharding");
+        }
+        return new ShardDirectory(config.getUrls().size(), config.getBuckets());
+    }
+
+    @Bean
+    public ShardRoutingConnectionFactory connectionFactory(CreditBureauProperties properties, R2dbcProperties r2dbc,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        List<ConnectionFactory> shards = new ArrayList<>();
+        List<String> urls = properties.getSharding().getUrls();
+        for (int shard = 0; shard < urls.size(); shard++) {
+            shards.add(ConnectionPools.create("shard-" + shard, urls.get(shard), r2dbc, meterRegistry));
+        }
+        return new ShardRoutingConnectionFactory(shards);
+    }
+
+    @Bean
+    public ShardedDatabaseInitializer shardedDatabaseInitializer(ShardRoutingConnectionFactory connectionFactory,
+            SqlInitializationProperties properties, ShardMover shardMover) {
+        return new ShardedDatabaseInitializer(connectionFactory, properties, shardMover);
+    }
+}
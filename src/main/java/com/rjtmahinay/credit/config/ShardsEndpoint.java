@@ -0,0 +1,66 @@
+package com.rjtmahinay.credit.config;
+
+import com.rjtmahinay.credit.model.Ssn;
+import com.rjtmahinay.credit.service.ShardMover;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Shows how buckets are spread over the shards, or which bucket and shard an SSN belongs to, and moves a bucket
+ * to another shard online through {@link ShardMover}.
+ */
+@Component
+@Endpoint(id = "shards")
+@ConditionalOnBooleanProperty("credit.sharding.enabled")
+@RequiredArgsConstructor
+public class ShardsEndpoint {
+
+    private final ShardDirectory shardDirectory;
+    private final ShardMover shardMover;
+
+    @ReadOperation
+    public WebEndpointResponse<Map<String, Object>> status(@Nullable String ssn) {
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (ssn != null) {
+            Ssn parsed;
+            try {
+                parsed = Ssn.of(ssn);
+            } catch (IllegalArgumentException e) {
+                return new WebEndpointResponse<>(Map.of("error", e.getMessage()), 400);
+            }
+            int bucket = shardDirectory.bucketOf(parsed);
+            status.put("ssn", parsed);
+            status.put("bucket", bucket);
+            status.put("shard", shardDirectory.ownerOf(bucket));
+            status.put("moving", shardDirectory.isFrozen(bucket));
+            return new WebEndpointResponse<>(status);
+        }
+        status.put("shards", shardDirectory.shardCount());
+        status.put("buckets", shardDirectory.buckets());
+        status.put("bucketsPerShard", shardDirectory.bucketsPerShard());
+        return new WebEndpointResponse<>(status);
+    }
+
+    /**
+     * Moves {@code bucket} and every SSN in it to {@code shard}.
+     */
+    @WriteOperation
+    public Mono<WebEndpointResponse<Object>> move(int bucket, int shard) {
+        return shardMover.move(bucket, shard)
+                .map(move -> new WebEndpointResponse<Object>(move))
+                .onErrorResume(IllegalArgumentException.class, error -> Mono.just(
+                        new WebEndpointResponse<>(Map.of("error", error.getMessage()), 400)))
+                .onErrorResume(IllegalStateException.class, error -> Mono.just(
+                        new WebEndpointResponse<>(Map.of("error", error.getMessage()), 409)));
+    }
+}
@@ -1,14 +1,23 @@
 package com.rjtmahinay.credit.controller;
 
+import com.rjtmahinay.credit.dto.BulkIngestionSummary;
+import com.rjtmahinay.credit.dto.CreditChangeEvent;
 import com.rjtmahinay.credit.dto.CreditCheckRequest;
 import com.rjtmahinay.credit.dto.CreditCheckResponse;
+import com.rjtmahinay.credit.dto.CreditHistoryPage;
 import com.rjtmahinay.credit.dto.CreateCreditScoreRequest;
 import com.rjtmahinay.credit.dto.CreateCreditHistoryRequest;
 import com.rjtmahinay.credit.dto.UpdateCreditScoreRequest;
 import com.rjtmahinay.credit.dto.UpdateCreditHistoryRequest;
 import com.rjtmahinay.credit.model.CreditHistory;
 import com.rjtmahinay.credit.model.CreditScore;
+import com.rjtmahinay.credit.model.LoanApplication;
+import com.rjtmahinay.credit.model.Ssn;
 import com.rjtmahinay.credit.service.CreditBureauService;
+import com.rjtmahinay.credit.service.CreditChangeFeed;
+import com.rjtmahinay.credit.service.CreditCheckIdempotencyCache;
+import com.rjtmahinay.credit.service.CreditExportService;
+import com.rjtmahinay.credit.service.CreditHistoryIngestionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -18,12 +27,24 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebInputException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 @Slf4j
 @RestController
 @RequestMapping("/api/v1/credit")
@@ -31,20 +52,42 @@ import reactor.core.publisher.Mono;
 @Tag(name = "Credit Bureau", description = "Credit Bureau Service API for credit checks, scores, and loan applications")
 public class CreditBureauController {
 
+        private static final String TEXT_CSV_VALUE = "text/csv";
+        private static final int MAX_HISTORY_PAGE_SIZE = 500;
+
         private final CreditBureauService creditBureauService;
+        private final CreditHistoryIngestionService creditHistoryIngestionService;
+        private final CreditExportService creditExportService;
+        private final CreditCheckIdempotencyCache creditCheckIdempotencyCache;
+        private final CreditChangeFeed creditChangeFeed;
 
         @Operation(summary = "Perform Credit Check", description = "Performs a comprehensive credit check for a given SSN and returns credit assessment details")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Credit check completed successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = CreditCheckResponse.class))),
+                        @ApiResponse(responseCode = "400", description = "SSN, a positive requested amount or a positive annual income is missing, or first and last name for an SSN with no score on file"),
+                        @ApiResponse(responseCode = "422", description = "Idempotency-Key was already used with a different request"),
                         @ApiResponse(responseCode = "500", description = "Internal server error during credit check")
         })
         @PostMapping("/check")
         public Mono<ResponseEntity<CreditCheckResponse>> performCreditCheck(
+                        @Parameter(description = "Client-generated key; retries with the same key replay the original result instead of re-running the check") @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
                         @Parameter(description = "Credit check request containing SSN and other details", required = true) @RequestBody CreditCheckRequest request) {
                 log.info("Received credit check request for SSN: {}", request.getSsn());
 
-                return creditBureauService.performCreditCheck(request)
+                Mono<CreditCheckResponse> check = idempotencyKey == null
+                                ? creditBureauService.performCreditCheck(request)
+                                : creditCheckIdempotencyCache.execute(idempotencyKey, request,
+                                                () -> creditBureauService.performCreditCheck(request));
+                return check
                                 .map(response -> ResponseEntity.ok(response))
+                                .onErrorResume(CreditCheckIdempotencyCache.KeyReusedException.class, error -> {
+                                        log.warn(error.getMessage());
+                                        return Mono.just(ResponseEntity.unprocessableEntity().build());
+                                })
+                                .onErrorResume(IllegalArgumentException.class, error -> {
+                                        log.warn("Rejected credit check: {}", error.getMessage());
+                                        return Mono.just(ResponseEntity.badRequest().build());
+                                })
                                 .onErrorResume(error -> {
                                         log.error("Error performing credit check", error);
                                         return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -52,14 +95,29 @@ public class CreditBureauController {
                                 });
         }
 
+        @Operation(summary = "Perform Batch Credit Check", description = "Performs credit checks for many applicants, loading scores and histories in chunks and streaming each response back as newline-delimited JSON, in request order. A request that cannot be checked gets a response with only its SSN and an error, and the rest of the batch goes on")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Credit checks streamed successfully", content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = CreditCheckResponse.class)))
+        })
+        @PostMapping(value = "/check/batch", consumes = { MediaType.APPLICATION_NDJSON_VALUE,
+                        MediaType.APPLICATION_JSON_VALUE }, produces = MediaType.APPLICATION_NDJSON_VALUE)
+        public Flux<CreditCheckResponse> performBatchCreditCheck(
+                        @Parameter(description = "Stream or array of credit check requests", required = true) @RequestBody Flux<CreditCheckRequest> requests) {
+                log.info("Received batch credit check request");
+
+                return creditBureauService.performBatchCreditCheck(requests)
+                                .doOnError(error -> log.error("Error performing batch credit check", error));
+        }
+
         @Operation(summary = "Get Credit Score", description = "Retrieves the current credit score for a specific SSN")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Credit score found successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = CreditScore.class))),
-                        @ApiResponse(responseCode = "404", description = "Credit score not found for the given SSN")
+                        @ApiResponse(responseCode = "404", description = "Credit score not found for the given SSN"),
+                        @ApiResponse(responseCode = "400", description = "SSN is not formatted as NNN-NN-NNNN or NNNNNNNNN")
         })
         @GetMapping("/score/{ssn}")
         public Mono<ResponseEntity<CreditScore>> getCreditScore(
-                        @Parameter(description = "Social Security Number", required = true, example = "123-45-6789") @PathVariable String ssn) {
+                        @Parameter(description = "Social Security Number", required = true, example = "123-45-6789") @PathVariable Ssn ssn) {
                 log.info("Fetching credit score for SSN: {}", ssn);
 
                 return creditBureauService.getCreditScoreBySSN(ssn)
@@ -72,15 +130,87 @@ public class CreditBureauController {
 
         @Operation(summary = "Get Credit History", description = "Retrieves the complete credit history for a specific SSN")
         @ApiResponses(value = {
-                        @ApiResponse(responseCode = "200", description = "Credit history retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = CreditHistory.class)))
+                        @ApiResponse(responseCode = "200", description = "Credit history retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = CreditHistory.class))),
+                        @ApiResponse(responseCode = "400", description = "SSN is not formatted as NNN-NN-NNNN or NNNNNNNNN")
         })
         @GetMapping("/history/{ssn}")
         public Flux<CreditHistory> getCreditHistory(
-                        @Parameter(description = "Social Security Number", required = true, example = "123-45-6789") @PathVariable String ssn) {
+                        @Parameter(description = "Social Security Number", required = true, example = "123-45-6789") @PathVariable Ssn ssn) {
                 log.info("Fetching credit history for SSN: {}", ssn);
                 return creditBureauService.getCreditHistoryBySSN(ssn);
         }
 
+        @Operation(summary = "Get Credit History Page", description = "Retrieves one page of the credit history for a specific SSN, newest report first, optionally filtered and reduced to the credit check summary columns")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Credit history page retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = CreditHistoryPage.class))),
+                        @ApiResponse(responseCode = "400", description = "Malformed SSN or cursor, unknown account type or payment status, or limit outside 1-500")
+        })
+        @GetMapping("/history/{ssn}/page")
+        public Mono<CreditHistoryPage<?>> getCreditHistoryPage(
+                        @Parameter(description = "Social Security Number", required = true, example = "123-45-6789") @PathVariable Ssn ssn,
+                        @Parameter(description = "nextCursor of the previous page; omit for the first page") @RequestParam(required = false) String cursor,
+                        @Parameter(description = "Maximum records per page", example = "50") @RequestParam(defaultValue = "50") int limit,
+                        @Parameter(description = "Only active accounts") @RequestParam(defaultValue = "false") boolean activeOnly,
+                        @Parameter(description = "Only these account types", example = "CREDIT_CARD") @RequestParam(name = "accountType", required = false) List<String> accountTypes,
+                        @Parameter(description = "Only these payment statuses", example = "LATE_30") @RequestParam(name = "paymentStatus", required = false) List<String> paymentStatuses,
+                        @Parameter(description = "full for complete records; summary reads only the credit check summary columns", example = "summary") @RequestParam(defaultValue = "full") String view) {
+                log.info("Fetching credit history page for SSN: {}", ssn);
+                if (limit < 1 || limit > MAX_HISTORY_PAGE_SIZE) {
+                        return Mono.error(new ServerWebInputException("limit must be between 1 and " + MAX_HISTORY_PAGE_SIZE));
+                }
+                if (!"full".equals(view) && !"summary".equals(view)) {
+                        return Mono.error(new ServerWebInputException("view must be full or summary"));
+                }
+
+                return creditBureauService.getCreditHistoryPage(ssn, cursor, limit, activeOnly,
+                                accountTypes != null ? Set.copyOf(accountTypes) : Set.of(),
+                                paymentStatuses != null ? Set.copyOf(paymentStatuses) : Set.of(), "summary".equals(view))
+                                .onErrorMap(IllegalArgumentException.class,
+                                                error -> new ServerWebInputException(error.getMessage()));
+        }
+
+        @Operation(summary = "Get Loan History", description = "Retrieves every recorded loan application decision for a specific SSN, most recent first")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Loan history retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = LoanApplication.class))),
+                        @ApiResponse(responseCode = "400", description = "SSN is not formatted as NNN-NN-NNNN or NNNNNNNNN")
+        })
+        @GetMapping("/loan-history/{ssn}")
+        public Flux<LoanApplication> getLoanHistory(
+                        @Parameter(description = "Social Security Number", required = true, example = "123-45-6789") @PathVariable Ssn ssn) {
+                log.info("Fetching loan history for SSN: {}", ssn);
+                return creditBureauService.getLoanHistoryBySSN(ssn);
+        }
+
+        @Operation(summary = "Get Loan Application", description = "Retrieves the loan application recorded for a credit check by its application id")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Loan application found successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = LoanApplication.class))),
+                        @ApiResponse(responseCode = "404", description = "Loan application not found (decisions are written asynchronously and may take up to the flush interval to appear)")
+        })
+        @GetMapping("/applications/{applicationId}")
+        public Mono<ResponseEntity<LoanApplication>> getLoanApplication(
+                        @Parameter(description = "Application id returned by the credit check", required = true) @PathVariable String applicationId) {
+                log.info("Fetching loan application: {}", applicationId);
+
+                return creditBureauService.getLoanApplication(applicationId)
+                                .map(ResponseEntity::ok)
+                                .onErrorResume(error -> {
+                                        log.error("Loan application not found: {}", applicationId, error);
+                                        return Mono.just(ResponseEntity.notFound().build());
+                                });
+        }
+
+        @Operation(summary = "Get Loan Applications by Status", description = "Retrieves the most recent loan applications with the given decision status")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Loan applications retrieved successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = LoanApplication.class)))
+        })
+        @GetMapping("/applications")
+        public Flux<LoanApplication> getLoanApplicationsByStatus(
+                        @Parameter(description = "Decision status", required = true, example = "MANUAL_REVIEW") @RequestParam String status,
+                        @Parameter(description = "Maximum number of applications to return", example = "100") @RequestParam(defaultValue = "100") int limit) {
+                log.info("Fetching up to {} loan applications with status {}", limit, status);
+                return creditBureauService.getLoanApplicationsByStatus(status, Math.min(Math.max(limit, 1), 1000));
+        }
+
         @Operation(summary = "Create Credit Score", description = "Creates a new credit score record or updates existing one for a given SSN")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "201", description = "Credit score created successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = CreditScore.class))),
@@ -122,16 +252,134 @@ public class CreditBureauController {
                                 });
         }
 
+        @Operation(summary = "Bulk Upsert Credit Scores", description = "Creates or overwrites many credit scores, written in multi-row batches, and returns a summary of accepted and rejected rows")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Scores processed; see the summary for rejected rows", content = @Content(mediaType = "application/json", schema = @Schema(implementation = BulkIngestionSummary.class))),
+                        @ApiResponse(responseCode = "400", description = "The stream contained a row that could not be read, such as a malformed SSN; the upload stopped at that row"),
+                        @ApiResponse(responseCode = "500", description = "Internal server error during the upsert")
+        })
+        @PostMapping(value = "/score/bulk", consumes = { MediaType.APPLICATION_NDJSON_VALUE,
+                        MediaType.APPLICATION_JSON_VALUE })
+        public Mono<ResponseEntity<BulkIngestionSummary>> upsertCreditScores(
+                        @Parameter(description = "Stream or array of credit scores", required = true) @RequestBody Flux<CreateCreditScoreRequest> requests) {
+                log.info("Receiving bulk credit score upsert");
+
+                return creditBureauService.upsertCreditScores(requests)
+                                .map(ResponseEntity::ok)
+                                .onErrorResume(ServerWebInputException.class, error -> {
+                                        log.warn("Rejected bulk credit score upload: {}", error.getReason());
+                                        return Mono.just(ResponseEntity.badRequest().build());
+                                })
+                                .onErrorResume(error -> {
+                                        log.error("Error upserting credit scores", error);
+                                        return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                                        .build());
+                                });
+        }
+
+        @Operation(summary = "Bulk Ingest Credit History", description = "Streams a furnisher file of credit history records (NDJSON, or CSV with a header row) into the bureau and returns a summary of accepted and rejected rows")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Upload processed; see the summary for rejected rows", content = @Content(mediaType = "application/json", schema = @Schema(implementation = BulkIngestionSummary.class))),
+                        @ApiResponse(responseCode = "500", description = "Internal server error during ingestion")
+        })
+        @PostMapping(value = "/history/bulk", consumes = { MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE })
+        public Mono<ResponseEntity<BulkIngestionSummary>> ingestCreditHistory(ServerHttpRequest request) {
+                MediaType contentType = request.getHeaders().getContentType();
+                log.info("Receiving bulk credit history upload ({})", contentType);
+
+                CreditHistoryIngestionService.Format format = contentType != null
+                                && contentType.isCompatibleWith(MediaType.parseMediaType(TEXT_CSV_VALUE))
+                                                ? CreditHistoryIngestionService.Format.CSV
+                                                : CreditHistoryIngestionService.Format.NDJSON;
+                Flux<String> lines = StringDecoder.allMimeTypes().decode(request.getBody(),
+                                ResolvableType.forClass(String.class), contentType, Map.of());
+
+                return creditHistoryIngestionService.ingest(lines, format)
+                                .map(ResponseEntity::ok)
+                                .onErrorResume(error -> {
+                                        log.error("Error ingesting credit history upload", error);
+                                        return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                                        .build());
+                                });
+        }
+
+        @Operation(summary = "Export Credit Scores", description = "Streams every credit score as newline-delimited JSON in id order, gzip-compressed when the client accepts it")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Credit scores streamed successfully", content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = CreditScore.class)))
+        })
+        @GetMapping(value = "/export/scores", produces = MediaType.APPLICATION_NDJSON_VALUE)
+        public Flux<CreditScore> exportCreditScores(
+                        @Parameter(description = "Resume after this id; 0 exports from the beginning", example = "0") @RequestParam(defaultValue = "0") long afterId) {
+                log.info("Exporting credit scores after id {}", afterId);
+                return creditExportService.exportCreditScores(afterId)
+                                .doOnError(error -> log.error("Error exporting credit scores", error));
+        }
+
+        @Operation(summary = "Export Credit History", description = "Streams every credit history record as newline-delimited JSON in id order, gzip-compressed when the client accepts it")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Credit history streamed successfully", content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = CreditHistory.class)))
+        })
+        @GetMapping(value = "/export/history", produces = MediaType.APPLICATION_NDJSON_VALUE)
+        public Flux<CreditHistory> exportCreditHistory(
+                        @Parameter(description = "Resume after this id; 0 exports from the beginning", example = "0") @RequestParam(defaultValue = "0") long afterId) {
+                log.info("Exporting credit history after id {}", afterId);
+                return creditExportService.exportCreditHistory(afterId)
+                                .doOnError(error -> log.error("Error exporting credit history", error));
+        }
+
+        @Operation(summary = "Stream Credit Changes", description = "Streams credit score and credit history changes as Server-Sent Events as they are written. Reconnecting with Last-Event-ID (or after) resumes from the next change while it is still retained")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Change stream opened", content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE, schema = @Schema(implementation = CreditChangeEvent.class))),
+                        @ApiResponse(responseCode = "400", description = "Malformed SSN or resume token"),
+                        @ApiResponse(responseCode = "410", description = "Changes after the resume token are no longer retained; reconnect without one")
+        })
+        @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+        public Flux<ServerSentEvent<CreditChangeEvent>> streamCreditChanges(
+                        @Parameter(description = "Sequence of the last event received", example = "42") @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+                        @Parameter(description = "Resume after this sequence; Last-Event-ID takes precedence", example = "42") @RequestParam(required = false) Long after,
+                        @Parameter(description = "Only changes for these SSNs") @RequestParam(name = "ssn", required = false) List<Ssn> ssns,
+                        @Parameter(description = "Only score changes with these risk levels", example = "HIGH") @RequestParam(name = "riskLevel", required = false) List<String> riskLevels) {
+                return changes(lastEventId != null ? lastEventId : after, ssns, riskLevels)
+                                .map(event -> ServerSentEvent.builder(event)
+                                                .id(Long.toString(event.getSequence()))
+                                                .event(event.getType().name())
+                                                .build());
+        }
+
+        @Operation(summary = "Stream Credit Changes as NDJSON", description = "Streams the same changes as newline-delimited JSON")
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Change stream opened", content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = CreditChangeEvent.class))),
+                        @ApiResponse(responseCode = "400", description = "Malformed SSN or resume token"),
+                        @ApiResponse(responseCode = "410", description = "Changes after the resume token are no longer retained; reconnect without one")
+        })
+        @GetMapping(value = "/changes", produces = MediaType.APPLICATION_NDJSON_VALUE)
+        public Flux<CreditChangeEvent> streamCreditChangesAsNdjson(
+                        @Parameter(description = "Resume after this sequence", example = "42") @RequestParam(required = false) Long after,
+                        @Parameter(description = "Only changes for these SSNs") @RequestParam(name = "ssn", required = false) List<Ssn> ssns,
+                        @Parameter(description = "Only score changes with these risk levels", example = "HIGH") @RequestParam(name = "riskLevel", required = false) List<String> riskLevels) {
+                return changes(after, ssns, riskLevels);
+        }
+
+        private Flux<CreditChangeEvent> changes(Long after, List<Ssn> ssns, List<String> riskLevels) {
+                log.info("Opening credit change stream after {} for SSNs {} and risk levels {}", after, ssns, riskLevels);
+                return creditChangeFeed.subscribe(after,
+                                ssns != null ? Set.copyOf(ssns) : Set.of(),
+                                riskLevels != null ? Set.copyOf(riskLevels) : Set.of())
+                                .onErrorMap(CreditChangeFeed.ResumeTokenExpiredException.class,
+                                                error -> new ResponseStatusException(HttpStatus.GONE, error.getMessage()));
+        }
+
         @Operation(summary = "Update Credit Score", description = "Updates an existing credit score record for a given SSN")
         @ApiResponses(value = {
                         @ApiResponse(responseCode = "200", description = "Credit score updated successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = CreditScore.class))),
                         @ApiResponse(responseCode = "404", description = "Credit score not found for the given SSN"),
-                        @ApiResponse(responseCode = "400", description = "Invalid request data"),
+                        @ApiResponse(responseCode = "400", description = "Invalid request data or malformed SSN"),
+                        @ApiResponse(responseCode = "409", description = "Record was modified since the version given in the request"),
                         @ApiResponse(responseCode = "500", description = "Internal server error during credit score update")
         })
         @PutMapping("/score/{ssn}")
         public Mono<ResponseEntity<CreditScore>> updateCreditScore(
-                        @Parameter(description = "Social Security Number", required = true, example = "123-45-6789") @PathVariable String ssn,
+                        @Parameter(description = "Social Security Number", required = true, example = "123-45-6789") @PathVariable Ssn ssn,
                         @Parameter(description = "Credit score update request", required = true) @RequestBody UpdateCreditScoreRequest request) {
                 log.info("Updating credit score for SSN: {}", ssn);
 
@@ -139,6 +387,9 @@ public class CreditBureauController {
                                 .map(ResponseEntity::ok)
                                 .onErrorResume(error -> {
                                         log.error("Error updating credit score for SSN: {}", ssn, error);
+                                        if (error instanceof OptimisticLockingFailureException) {
+                                                return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build());
+                                        }
                                         if (error.getMessage().contains("not found")) {
                                                 return Mono.just(ResponseEntity.notFound().build());
                                         }
@@ -152,6 +403,7 @@ public class CreditBureauController {
                         @ApiResponse(responseCode = "200", description = "Credit history updated successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = CreditHistory.class))),
                         @ApiResponse(responseCode = "404", description = "Credit history record not found"),
                         @ApiResponse(responseCode = "400", description = "Invalid request data"),
+                        @ApiResponse(responseCode = "409", description = "Record was modified since the version given in the request"),
                         @ApiResponse(responseCode = "500", description = "Internal server error during credit history update")
         })
         @PutMapping("/history/{id}")
@@ -164,6 +416,9 @@ public class CreditBureauController {
                                 .map(ResponseEntity::ok)
                                 .onErrorResume(error -> {
                                         log.error("Error updating credit history with ID: {}", id, error);
+                                        if (error instanceof OptimisticLockingFailureException) {
+                                                return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build());
+                                        }
                                         if (error.getMessage().contains("not found")) {
                                                 return Mono.just(ResponseEntity.notFound().build());
                                         }
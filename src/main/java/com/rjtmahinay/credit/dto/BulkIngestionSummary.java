@@ -0,0 +1,41 @@
+package com.rjtmahinay.credit.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Outcome of a bulk credit history upload")
+public class BulkIngestionSummary {
+
+    @Schema(description = "Data rows read from the upload", example = "1000000")
+    private long totalRows;
+
+    @Schema(description = "Rows validated and written", example = "999870")
+    private long acceptedRows;
+
+    @Schema(description = "Rows that failed validation or could not be written", example = "130")
+    private long rejectedRows;
+
+    @Schema(description = "Wall-clock processing time in milliseconds", example = "84211")
+    private long elapsedMillis;
+
+    @Schema(description = "First rejected rows with their reasons")
+    private List<RowError> errors;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String message;
+    }
+}
@@ -1,5 +1,6 @@
 package com.rjtmahinay.credit.dto;
 
+import com.rjtmahinay.credit.model.Ssn;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -17,7 +18,7 @@ import java.time.LocalDateTime;
 public class CreateCreditHistoryRequest {
 
     @Schema(description = "Social Security Number", example = "123-45-6789", required = true)
-    private String ssn;
+    private Ssn ssn;
 
     @Schema(description = "Account type (CREDIT_CARD, LOAN, MORTGAGE, AUTO_LOAN)", example = "CREDIT_CARD", required = true)
     private String accountType;
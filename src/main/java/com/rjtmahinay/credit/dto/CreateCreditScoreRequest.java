@@ -1,5 +1,6 @@
 package com.rjtmahinay.credit.dto;
 
+import com.rjtmahinay.credit.model.Ssn;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -14,7 +15,7 @@ import lombok.NoArgsConstructor;
 public class CreateCreditScoreRequest {
 
     @Schema(description = "Social Security Number", example = "123-45-6789", required = true)
-    private String ssn;
+    private Ssn ssn;
 
     @Schema(description = "First name", example = "John", required = true)
     private String firstName;
@@ -0,0 +1,46 @@
+package com.rjtmahinay.credit.dto;
+
+import com.rjtmahinay.credit.model.Ssn;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "A change to a credit score or credit history record")
+public class CreditChangeEvent {
+
+    public enum Type {
+        SCORE_CREATED, SCORE_UPDATED, HISTORY_CREATED, HISTORY_UPDATED
+    }
+
+    @Schema(description = "Position in the feed; pass it back as the resume token to continue after this event", example = "42")
+    private long sequence;
+
+    @Schema(description = "Kind of change", example = "SCORE_UPDATED")
+    private Type type;
+
+    @Schema(description = "Social Security Number", example = "123-45-6789")
+    private Ssn ssn;
+
+    @Schema(description = "Credit score after the change (score events only)", example = "720")
+    private Integer score;
+
+    @Schema(description = "Risk level after the change (score events only)", example = "LOW")
+    private String riskLevel;
+
+    @Schema(description = "Credit history record id (history events only)", example = "7")
+    private Long historyId;
+
+    @Schema(description = "Version of the changed record", example = "3")
+    private Long version;
+
+    @Schema(description = "When the change was published")
+    private LocalDateTime occurredAt;
+}
@@ -1,5 +1,6 @@
 package com.rjtmahinay.credit.dto;
 
+import com.rjtmahinay.credit.model.Ssn;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -13,7 +14,7 @@ import java.math.BigDecimal;
 @AllArgsConstructor
 public class CreditCheckRequest {
     
-    private String ssn;
+    private Ssn ssn;
     private String firstName;
     private String lastName;
     private BigDecimal requestedAmount;
@@ -21,4 +22,5 @@ public class CreditCheckRequest {
     private Integer termMonths;
     private BigDecimal annualIncome;
     private String employmentStatus;
+    private Boolean includeHistory; // defaults to true; false decides from the per-SSN aggregate only
 }
@@ -1,5 +1,6 @@
 package com.rjtmahinay.credit.dto;
 
+import com.rjtmahinay.credit.model.Ssn;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -15,7 +16,8 @@ import java.util.List;
 @AllArgsConstructor
 public class CreditCheckResponse {
     
-    private String ssn;
+    private String applicationId; // loan_applications record this decision is written to
+    private Ssn ssn;
     private String firstName;
     private String lastName;
     private Integer creditScore;
@@ -27,6 +29,7 @@ public class CreditCheckResponse {
     private BigDecimal recommendedInterestRate;
     private List<CreditHistorySummary> creditHistory;
     private LocalDateTime checkDate;
+    private String error; // why a request of a batch check was not decided; the decision fields are then empty
     
     @Data
     @Builder
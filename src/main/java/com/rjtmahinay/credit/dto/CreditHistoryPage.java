@@ -0,0 +1,23 @@
+package com.rjtmahinay.credit.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "One page of an SSN's credit history, newest report first")
+public class CreditHistoryPage<T> {
+
+    @Schema(description = "Full credit history records, or credit check summaries when requested with view=summary")
+    private List<T> items;
+
+    @Schema(description = "Opaque cursor for the next page; absent on the last page", example = "MjAyNi0xMC0xN1QxMjozMDowMHw0Mg")
+    private String nextCursor;
+}
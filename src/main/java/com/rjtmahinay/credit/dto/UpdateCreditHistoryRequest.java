@@ -45,4 +45,7 @@ public class UpdateCreditHistoryRequest {
 
     @Schema(description = "Is account active", example = "true")
     private Boolean isActive;
+
+    @Schema(description = "Version the update was based on; if the record has changed since, the update is rejected with 409", example = "0")
+    private Long version;
 }
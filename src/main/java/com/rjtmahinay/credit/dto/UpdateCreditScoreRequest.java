@@ -24,4 +24,7 @@ public class UpdateCreditScoreRequest {
 
     @Schema(description = "Risk level (LOW, MEDIUM, HIGH)", example = "LOW")
     private String riskLevel;
+
+    @Schema(description = "Version the update was based on; if the record has changed since, the update is rejected with 409", example = "0")
+    private Long version;
 }
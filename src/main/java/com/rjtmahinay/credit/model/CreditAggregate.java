@@ -0,0 +1,29 @@
+package com.rjtmahinay.credit.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("credit_aggregates")
+public class CreditAggregate {
+
+    @Id
+    private Ssn ssn;
+
+    private Integer activeAccounts;
+    private BigDecimal totalActiveBalance;
+    private BigDecimal totalCreditLimit;
+    private Integer delinquentCount; // active accounts whose payment status is not CURRENT
+    private Integer maxDaysLate;
+    private LocalDateTime lastUpdated;
+}
@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Table;
 
 import java.math.BigDecimal;
@@ -20,7 +21,10 @@ public class CreditHistory {
     @Id
     private Long id;
     
-    private String ssn;
+    @Version
+    private Long version;
+    
+    private Ssn ssn;
     private String accountType; // CREDIT_CARD, LOAN, MORTGAGE, AUTO_LOAN
     private String creditorName;
     private BigDecimal originalAmount;
@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Table;
 
 import java.time.LocalDateTime;
@@ -19,7 +20,10 @@ public class CreditScore {
     @Id
     private Long id;
     
-    private String ssn;
+    @Version
+    private Long version;
+    
+    private Ssn ssn;
     private String firstName;
     private String lastName;
     private Integer score;
@@ -0,0 +1,32 @@
+package com.rjtmahinay.credit.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("rescore_checkpoints")
+public class RescoreCheckpoint {
+
+    @Id
+    private String job;
+
+    private Integer lastSsn; // null until the first chunk is written
+    private Long rowsScanned;
+    private Long rowsUpdated;
+    private LocalDateTime startedAt;
+    private LocalDateTime checkpointedAt;
+    private LocalDateTime completedAt; // null while the pass is unfinished
+
+    public boolean isCompleted() {
+        return completedAt != null;
+    }
+}
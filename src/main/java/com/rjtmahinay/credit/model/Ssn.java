@@ -0,0 +1,66 @@
+package com.rjtmahinay.credit.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * A Social Security Number held as its nine digits in an {@code int}, which is also how it is stored and
+ * indexed. Parsed once where it enters the service, from either {@code 123-45-6789} or {@code 123456789}, so
+ * both spellings resolve to the same record; it is always written back out in the dashed form.
+ */
+public record Ssn(int value) implements Comparable<Ssn> {
+
+    private static final int MAX_VALUE = 999_999_999;
+
+    public Ssn {
+        if (value < 0 || value > MAX_VALUE) {
+            throw new IllegalArgumentException("SSN must have nine digits: " + value);
+        }
+    }
+
+    /**
+     * Parses {@code NNN-NN-NNNN} or {@code NNNNNNNNN}.
+     *
+     * @throws IllegalArgumentException if {@code text} is in neither form
+     */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Ssn of(String text) {
+        boolean dashed = text != null && text.length() == 11 && text.charAt(3) == '-' && text.charAt(6) == '-';
+        if (text == null || !dashed && text.length() != 9) {
+            throw new IllegalArgumentException("SSN must be formatted as NNN-NN-NNNN or NNNNNNNNN");
+        }
+        int value = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (dashed && (i == 3 || i == 6)) {
+                continue;
+            }
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("SSN must be formatted as NNN-NN-NNNN or NNNNNNNNN");
+            }
+            value = value * 10 + (c - '0');
+        }
+        return new Ssn(value);
+    }
+
+    @Override
+    public int compareTo(Ssn other) {
+        return Integer.compare(value, other.value);
+    }
+
+    @JsonValue
+    @Override
+    public String toString() {
+        char[] digits = new char[11];
+        int remaining = value;
+        for (int i = 10; i >= 0; i--) {
+            if (i == 3 || i == 6) {
+                digits[i] = '-';
+                continue;
+            }
+            digits[i] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        return new String(digits);
+    }
+}
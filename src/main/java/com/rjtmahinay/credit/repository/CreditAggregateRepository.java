@@ -0,0 +1,73 @@
+package com.rjtmahinay.credit.repository;
+
+import com.rjtmahinay.credit.model.CreditAggregate;
+import com.rjtmahinay.credit.model.Ssn;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+
+@Repository
+public interface CreditAggregateRepository extends ReactiveCrudRepository<CreditAggregate, Ssn>,
+        CreditAggregateRepositoryCustom {
+
+    /**
+     * Opens a merge of deltas into the aggregates; a row per SSN of {@code (ssn, accounts, balance, credit_limit,
+     * delinquent, days_late)} follows, then {@link #MERGE_DELTAS_TAIL}.
+     */
+    String MERGE_DELTAS_HEAD = "MERGE INTO credit_aggregates t USING (VALUES ";
+
+    /**
+     * Closes a merge of deltas: adds each to its SSN's aggregate, creating the row if it is missing.
+     */
+    String MERGE_DELTAS_TAIL = ") AS d(ssn, accounts, balance, credit_limit, delinquent, days_late) "
+            + "ON t.ssn = d.ssn "
+            + "WHEN MATCHED THEN UPDATE SET active_accounts = t.active_accounts + d.accounts, "
+            + "total_active_balance = t.total_active_balance + d.balance, "
+            + "total_credit_limit = t.total_credit_limit + d.credit_limit, "
+            + "delinquent_count = t.delinquent_count + d.delinquent, "
+            + "max_days_late = GREATEST(t.max_days_late, d.days_late), last_updated = CURRENT_TIMESTAMP "
+            + "WHEN NOT MATCHED THEN INSERT (ssn, active_accounts, total_active_balance, total_credit_limit, "
+            + "delinquent_count, max_days_late, last_updated) "
+            + "VALUES (d.ssn, d.accounts, d.balance, d.credit_limit, d.delinquent, d.days_late, CURRENT_TIMESTAMP)";
+
+    /**
+     * Adds one delta to an SSN's aggregate, creating the row if it is missing.
+     */
+    String APPLY_DELTA = MERGE_DELTAS_HEAD
+            + "(CAST(:ssn AS INTEGER), CAST(:accounts AS INTEGER), CAST(:balance AS DECIMAL(17,2)), "
+            + "CAST(:creditLimit AS DECIMAL(17,2)), CAST(:delinquent AS INTEGER), CAST(:daysLate AS INTEGER))"
+            + MERGE_DELTAS_TAIL;
+
+    /**
+     * Rebuilds an SSN's aggregate from its active credit history.
+     */
+    String RECOMPUTE = "MERGE INTO credit_aggregates t "
+            + "USING (SELECT CAST(:ssn AS INTEGER) AS ssn, COUNT(*) AS accounts, "
+            + "COALESCE(SUM(current_balance), 0) AS balance, COALESCE(SUM(credit_limit), 0) AS credit_limit, "
+            + "COALESCE(SUM(CASE WHEN payment_status <> 'CURRENT' THEN 1 ELSE 0 END), 0) AS delinquent, "
+            + "COALESCE(MAX(days_late), 0) AS days_late "
+            + "FROM credit_history WHERE ssn = :ssn AND is_active = true) d ON t.ssn = d.ssn "
+            + "WHEN MATCHED THEN UPDATE SET active_accounts = d.accounts, total_active_balance = d.balance, "
+            + "total_credit_limit = d.credit_limit, delinquent_count = d.delinquent, max_days_late = d.days_late, "
+            + "last_updated = CURRENT_TIMESTAMP "
+            + "WHEN NOT MATCHED THEN INSERT (ssn, active_accounts, total_active_balance, total_credit_limit, "
+            + "delinquent_count, max_days_late, last_updated) "
+            + "VALUES (d.ssn, d.accounts, d.balance, d.credit_limit, d.delinquent, d.days_late, CURRENT_TIMESTAMP)";
+
+    Flux<CreditAggregate> findBySsnIn(Collection<Ssn> ssns);
+
+    @Modifying
+    @Query(APPLY_DELTA)
+    Mono<Integer> applyDelta(Ssn ssn, int accounts, BigDecimal balance, BigDecimal creditLimit, int delinquent,
+            int daysLate);
+
+    @Modifying
+    @Query(RECOMPUTE)
+    Mono<Integer> recompute(Ssn ssn);
+}
@@ -0,0 +1,15 @@
+package com.rjtmahinay.credit.repository;
+
+import com.rjtmahinay.credit.model.CreditAggregate;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+public interface CreditAggregateRepositoryCustom {
+
+    /**
+     * Adds each delta to its SSN's aggregate (creating missing rows) in a single {@code MERGE} statement. The
+     * counts and amounts of every delta are increments; {@code maxDaysLate} is folded in with {@code GREATEST}.
+     */
+    Mono<Long> applyDeltas(Collection<CreditAggregate> deltas);
+}
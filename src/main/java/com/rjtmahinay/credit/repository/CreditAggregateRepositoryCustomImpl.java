@@ -0,0 +1,36 @@
+package com.rjtmahinay.credit.repository;
+
+import com.rjtmahinay.credit.model.CreditAggregate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+import static com.rjtmahinay.credit.repository.CreditAggregateRepository.MERGE_DELTAS_HEAD;
+import static com.rjtmahinay.credit.repository.CreditAggregateRepository.MERGE_DELTAS_TAIL;
+
+@RequiredArgsConstructor
+public class CreditAggregateRepositoryCustomImpl implements CreditAggregateRepositoryCustom {
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Mono<Long> applyDeltas(Collection<CreditAggregate> deltas) {
+        if (deltas.isEmpty()) {
+            return Mono.just(0L);
+        }
+
+        return MultiRowStatement.values(databaseClient, MERGE_DELTAS_HEAD, List.copyOf(deltas), (row, delta) -> row
+                .value(delta.getSsn().value(), Integer.class, "INTEGER")
+                .value(delta.getActiveAccounts(), Integer.class, "INTEGER")
+                .value(delta.getTotalActiveBalance(), BigDecimal.class, "DECIMAL(17,2)")
+                .value(delta.getTotalCreditLimit(), BigDecimal.class, "DECIMAL(17,2)")
+                .value(delta.getDelinquentCount(), Integer.class, "INTEGER")
+                .value(delta.getMaxDaysLate(), Integer.class, "INTEGER"))
+                .append(MERGE_DELTAS_TAIL)
+                .rowsUpdated();
+    }
+}
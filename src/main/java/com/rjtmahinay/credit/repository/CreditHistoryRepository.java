@@ -1,21 +1,31 @@
 package com.rjtmahinay.credit.repository;
 
 import com.rjtmahinay.credit.model.CreditHistory;
+import com.rjtmahinay.credit.model.Ssn;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 
+import java.util.Collection;
+
 @Repository
-public interface CreditHistoryRepository extends ReactiveCrudRepository<CreditHistory, Long> {
+public interface CreditHistoryRepository extends ReactiveCrudRepository<CreditHistory, Long>,
+        CreditHistoryRepositoryCustom {
     
-    Flux<CreditHistory> findBySsn(String ssn);
+    Flux<CreditHistory> findBySsn(Ssn ssn);
     
-    Flux<CreditHistory> findBySsnAndIsActive(String ssn, Boolean isActive);
+    Flux<CreditHistory> findBySsnAndIsActive(Ssn ssn, Boolean isActive);
     
     @Query("SELECT * FROM credit_history WHERE ssn = :ssn AND payment_status != 'CURRENT' ORDER BY days_late DESC")
-    Flux<CreditHistory> findNegativeHistoryBySsn(String ssn);
+    Flux<CreditHistory> findNegativeHistoryBySsn(Ssn ssn);
     
     @Query("SELECT * FROM credit_history WHERE ssn = :ssn AND is_active = true ORDER BY reported_date DESC")
-    Flux<CreditHistory> findActiveAccountsBySsn(String ssn);
+    Flux<CreditHistory> findActiveAccountsBySsn(Ssn ssn);
+    
+    @Query("SELECT * FROM credit_history WHERE ssn IN (:ssns) AND is_active = true ORDER BY reported_date DESC")
+    Flux<CreditHistory> findActiveAccountsBySsnIn(Collection<Ssn> ssns);
+    
+    @Query("SELECT * FROM credit_history WHERE id > :afterId ORDER BY id LIMIT :limit")
+    Flux<CreditHistory> findPageAfter(long afterId, int limit);
 }
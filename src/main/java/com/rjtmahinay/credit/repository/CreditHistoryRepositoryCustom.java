@@ -0,0 +1,46 @@
+package com.rjtmahinay.credit.repository;
+
+import com.rjtmahinay.credit.model.CreditHistory;
+import com.rjtmahinay.credit.model.Ssn;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+public interface CreditHistoryRepositoryCustom {
+
+    /**
+     * Inserts all rows with a single multi-row {@code INSERT} statement and returns the number of rows written.
+     */
+    Mono<Long> insertAll(List<CreditHistory> histories);
+
+    /**
+     * Updates only the non-null fields of {@code changes} on record {@code id} in a single statement,
+     * incrementing its version, and returns the updated row. Emits nothing if there is no such record or, when
+     * {@code expectedVersion} is given, the record has since moved to another version.
+     */
+    Mono<CreditHistory> updateNonNullFields(Long id, CreditHistory changes, Long expectedVersion);
+
+    /**
+     * Reads up to {@code query.limit()} records of one SSN, newest report first with ties broken by descending id,
+     * starting after the given position. When {@code query.summaryOnly()} is set only the columns of a credit check
+     * summary are selected, plus {@code id} and {@code reported_date} to continue from; every other field is left
+     * {@code null}.
+     */
+    Flux<CreditHistory> findPage(PageQuery query);
+
+    /**
+     * One page of an SSN's credit history.
+     *
+     * @param afterReportedDate reported date of the last record of the previous page, or {@code null} for the first
+     * @param afterId           id of that record
+     * @param activeOnly        whether closed accounts are left out
+     * @param accountTypes      account types to include, or empty for all
+     * @param paymentStatuses   payment statuses to include, or empty for all
+     */
+    record PageQuery(Ssn ssn, LocalDateTime afterReportedDate, Long afterId, boolean activeOnly,
+            Set<String> accountTypes, Set<String> paymentStatuses, int limit, boolean summaryOnly) {
+    }
+}
@@ -0,0 +1,116 @@
+package com.rjtmahinay.credit.repository;
+
+import com.rjtmahinay.credit.model.CreditHistory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class CreditHistoryRepositoryCustomImpl implements CreditHistoryRepositoryCustom {
+
+    private static final String INSERT_PREFIX = "INSERT INTO credit_history (ssn, account_type, creditor_name, "
+            + "original_amount, current_balance, credit_limit, payment_status, days_late, account_open_date, "
+            + "last_payment_date, reported_date, is_active) VALUES ";
+
+    private static final String SUMMARY_COLUMNS = "id, reported_date, account_type, creditor_name, current_balance, "
+            + "payment_status, days_late";
+
+    private final DatabaseClient databaseClient;
+    private final R2dbcConverter converter;
+
+    @Override
+    public Mono<Long> insertAll(List<CreditHistory> histories) {
+        if (histories.isEmpty()) {
+            return Mono.just(0L);
+        }
+
+        return MultiRowStatement.values(databaseClient, INSERT_PREFIX, histories, (row, history) -> row
+                .value(history.getSsn().value(), Integer.class)
+                .value(history.getAccountType(), String.class)
+                .value(history.getCreditorName(), String.class)
+                .value(history.getOriginalAmount(), BigDecimal.class)
+                .value(history.getCurrentBalance(), BigDecimal.class)
+                .value(history.getCreditLimit(), BigDecimal.class)
+                .value(history.getPaymentStatus(), String.class)
+                .value(history.getDaysLate(), Integer.class)
+                .value(history.getAccountOpenDate(), LocalDateTime.class)
+                .value(history.getLastPaymentDate(), LocalDateTime.class)
+                .value(history.getReportedDate(), LocalDateTime.class)
+                .value(history.getIsActive(), Boolean.class))
+                .rowsUpdated();
+    }
+
+    @Override
+    public Mono<CreditHistory> updateNonNullFields(Long id, CreditHistory changes, Long expectedVersion) {
+        return PartialUpdate.of(databaseClient, converter, CreditHistory.class, "credit_history")
+                .set("account_type", changes.getAccountType())
+                .set("creditor_name", changes.getCreditorName())
+                .set("original_amount", changes.getOriginalAmount())
+                .set("current_balance", changes.getCurrentBalance())
+                .set("credit_limit", changes.getCreditLimit())
+                .set("payment_status", changes.getPaymentStatus())
+                .set("days_late", changes.getDaysLate())
+                .set("account_open_date", changes.getAccountOpenDate())
+                .set("last_payment_date", changes.getLastPaymentDate())
+                .set("reported_date", changes.getReportedDate())
+                .set("is_active", changes.getIsActive())
+                .whereKey("id", id)
+                .expectVersion(expectedVersion)
+                .execute();
+    }
+
+    @Override
+    public Flux<CreditHistory> findPage(PageQuery query) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(pageSql(query));
+        for (Map.Entry<String, Object> parameter : pageParameters(query).entrySet()) {
+            spec = spec.bind(parameter.getKey(), parameter.getValue());
+        }
+        return spec.map((row, metadata) -> converter.read(CreditHistory.class, row, metadata)).all();
+    }
+
+    static String pageSql(PageQuery query) {
+        StringBuilder sql = new StringBuilder("SELECT ")
+                .append(query.summaryOnly() ? SUMMARY_COLUMNS : "*")
+                .append(" FROM credit_history WHERE ssn = :ssn");
+        if (query.activeOnly()) {
+            sql.append(" AND is_active = TRUE");
+        }
+        if (!query.accountTypes().isEmpty()) {
+            sql.append(" AND account_type IN (:accountTypes)");
+        }
+        if (!query.paymentStatuses().isEmpty()) {
+            sql.append(" AND payment_status IN (:paymentStatuses)");
+        }
+        if (query.afterReportedDate() != null) {
+            // Spelled out rather than as a row-value comparison so the (ssn, reported_date, id) index range applies
+            sql.append(" AND (reported_date < :afterReportedDate"
+                    + " OR (reported_date = :afterReportedDate AND id < :afterId))");
+        }
+        return sql.append(" ORDER BY reported_date DESC, id DESC LIMIT :limit").toString();
+    }
+
+    static Map<String, Object> pageParameters(PageQuery query) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("ssn", query.ssn().value());
+        parameters.put("limit", query.limit());
+        if (!query.accountTypes().isEmpty()) {
+            parameters.put("accountTypes", List.copyOf(query.accountTypes()));
+        }
+        if (!query.paymentStatuses().isEmpty()) {
+            parameters.put("paymentStatuses", List.copyOf(query.paymentStatuses()));
+        }
+        if (query.afterReportedDate() != null) {
+            parameters.put("afterReportedDate", query.afterReportedDate());
+            parameters.put("afterId", query.afterId());
+        }
+        return parameters;
+    }
+}
@@ -1,19 +1,36 @@
 package com.rjtmahinay.credit.repository;
 
 import com.rjtmahinay.credit.model.CreditScore;
+import com.rjtmahinay.credit.model.Ssn;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+
 @Repository
-public interface CreditScoreRepository extends ReactiveCrudRepository<CreditScore, Long> {
+public interface CreditScoreRepository extends ReactiveCrudRepository<CreditScore, Long>,
+        CreditScoreRepositoryCustom {
+    
+    Mono<CreditScore> findBySsn(Ssn ssn);
+    
+    Mono<Boolean> existsBySsn(Ssn ssn);
     
-    Mono<CreditScore> findBySsn(String ssn);
+    Flux<CreditScore> findBySsnIn(Collection<Ssn> ssns);
     
     @Query("SELECT * FROM credit_scores WHERE ssn = :ssn AND last_updated > NOW() - INTERVAL '30 days'")
-    Mono<CreditScore> findRecentCreditScoreBySsn(String ssn);
+    Mono<CreditScore> findRecentCreditScoreBySsn(Ssn ssn);
     
     @Query("SELECT * FROM credit_scores WHERE first_name = :firstName AND last_name = :lastName")
     Mono<CreditScore> findByFirstNameAndLastName(String firstName, String lastName);
+    
+    Flux<CreditScore> findAllByOrderBySsnAsc();
+    
+    @Query("SELECT * FROM credit_scores WHERE id > :afterId ORDER BY id LIMIT :limit")
+    Flux<CreditScore> findPageAfter(long afterId, int limit);
+    
+    @Query("SELECT * FROM credit_scores WHERE ssn > :afterSsn ORDER BY ssn LIMIT :limit")
+    Flux<CreditScore> findPageAfterSsn(int afterSsn, int limit);
 }
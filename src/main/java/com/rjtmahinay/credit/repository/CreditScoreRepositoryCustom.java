@@ -0,0 +1,49 @@
+package com.rjtmahinay.credit.repository;
+
+import com.rjtmahinay.credit.model.CreditScore;
+import com.rjtmahinay.credit.model.Ssn;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface CreditScoreRepositoryCustom {
+
+    /**
+     * Updates only the non-null fields of {@code changes} on the score for {@code ssn} in a single statement,
+     * incrementing its version, and returns the updated row. Emits nothing if the SSN has no score or, when
+     * {@code expectedVersion} is given, the score has since moved to another version.
+     */
+    Mono<CreditScore> updateNonNullFields(Ssn ssn, CreditScore changes, Long expectedVersion);
+
+    /**
+     * Inserts the score, or overwrites the names, score and risk level of the SSN's existing score, in one
+     * statement, and returns the stored row.
+     */
+    Mono<CreditScore> upsert(CreditScore score);
+
+    /**
+     * Inserts all scores with a single multi-row {@code INSERT} statement and returns the number of rows written.
+     * Fails if any SSN already has a score.
+     */
+    Mono<Long> insertAll(List<CreditScore> scores);
+
+    /**
+     * Upserts many scores with a single multi-row statement and returns the number of rows written. When an SSN
+     * appears more than once the last score wins.
+     */
+    Mono<Long> upsertAll(List<CreditScore> scores);
+
+    /**
+     * Inserts the scores whose SSN has none yet, leaving existing scores untouched, and returns the stored score
+     * for every SSN given.
+     */
+    Flux<CreditScore> insertMissing(List<CreditScore> scores);
+
+    /**
+     * Sets the risk level of each given score in a single statement, incrementing its version, provided the stored
+     * row is still at the given version. Returns the rows that were updated; a score changed in the meantime is
+     * left as it is.
+     */
+    Flux<CreditScore> updateRiskLevels(List<CreditScore> scores);
+}
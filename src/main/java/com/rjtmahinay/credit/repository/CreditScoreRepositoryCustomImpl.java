@@ -0,0 +1,145 @@
+package com.rjtmahinay.credit.repository;
+
+import com.rjtmahinay.credit.model.CreditScore;
+import com.rjtmahinay.credit.model.Ssn;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class CreditScoreRepositoryCustomImpl implements CreditScoreRepositoryCustom {
+
+    private static final String INSERT_PREFIX = "INSERT INTO credit_scores (ssn, first_name, last_name, score, "
+            + "risk_level, last_updated, created_at) VALUES ";
+    private static final String SOURCE_COLUMNS = "s(ssn, first_name, last_name, score, risk_level, last_updated)";
+    // Assignments for an existing row t from the incoming values s
+    private static final String OVERWRITE = "first_name = s.first_name, last_name = s.last_name, score = s.score, "
+            + "risk_level = s.risk_level, last_updated = s.last_updated, version = t.version + 1";
+    // A no-op update so the data change returns existing rows as well as inserted ones
+    private static final String KEEP = "version = t.version";
+
+    private final DatabaseClient databaseClient;
+    private final R2dbcConverter converter;
+
+    @Override
+    public Mono<CreditScore> updateNonNullFields(Ssn ssn, CreditScore changes, Long expectedVersion) {
+        return PartialUpdate.of(databaseClient, converter, CreditScore.class, "credit_scores")
+                .set("first_name", changes.getFirstName())
+                .set("last_name", changes.getLastName())
+                .set("score", changes.getScore())
+                .set("risk_level", changes.getRiskLevel())
+                .set("last_updated", changes.getLastUpdated())
+                .whereKey("ssn", ssn.value())
+                .expectVersion(expectedVersion)
+                .execute();
+    }
+
+    @Override
+    public Mono<CreditScore> upsert(CreditScore score) {
+        return returning(List.of(score), OVERWRITE).next();
+    }
+
+    @Override
+    public Mono<Long> insertAll(List<CreditScore> scores) {
+        if (scores.isEmpty()) {
+            return Mono.just(0L);
+        }
+
+        return MultiRowStatement.values(databaseClient, INSERT_PREFIX, scores, (row, score) -> row
+                .value(score.getSsn().value(), Integer.class)
+                .value(score.getFirstName(), String.class)
+                .value(score.getLastName(), String.class)
+                .value(score.getScore(), Integer.class)
+                .value(score.getRiskLevel(), String.class)
+                .value(score.getLastUpdated(), LocalDateTime.class)
+                .value(score.getCreatedAt(), LocalDateTime.class))
+                .rowsUpdated();
+    }
+
+    @Override
+    public Mono<Long> upsertAll(List<CreditScore> scores) {
+        if (scores.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return upsertStatement(lastPerSsn(scores), OVERWRITE).rowsUpdated();
+    }
+
+    @Override
+    public Flux<CreditScore> insertMissing(List<CreditScore> scores) {
+        if (scores.isEmpty()) {
+            return Flux.empty();
+        }
+        return returning(lastPerSsn(scores), KEEP);
+    }
+
+    @Override
+    public Flux<CreditScore> updateRiskLevels(List<CreditScore> scores) {
+        if (scores.isEmpty()) {
+            return Flux.empty();
+        }
+        // Source columns are named apart from the table's so that the written rows map back onto CreditScore
+        MultiRowStatement statement = MultiRowStatement.values(databaseClient,
+                "MERGE INTO credit_scores t USING (VALUES ", scores, (row, score) -> row
+                        .value(score.getSsn().value(), Integer.class, "INTEGER")
+                        .value(score.getVersion(), Long.class, "BIGINT")
+                        .value(score.getRiskLevel(), String.class, "VARCHAR(10)"))
+                .append(") AS s(score_ssn, expected_version, new_risk_level) "
+                        + "ON t.ssn = s.score_ssn AND t.version = s.expected_version "
+                        + "WHEN MATCHED THEN UPDATE SET risk_level = s.new_risk_level, version = t.version + 1");
+        Map<Ssn, Long> expectedVersions = new HashMap<>();
+        scores.forEach(score -> expectedVersions.put(score.getSsn(), score.getVersion() + 1));
+        return statement.written(SqlDialect.of(databaseClient.getConnectionFactory()), this::read,
+                () -> findAll(scores)
+                        .filter(score -> score.getVersion().equals(expectedVersions.get(score.getSsn()))));
+    }
+
+    private Flux<CreditScore> returning(List<CreditScore> scores, String onExisting) {
+        return upsertStatement(scores, onExisting)
+                .written(SqlDialect.of(databaseClient.getConnectionFactory()), this::read, () -> findAll(scores));
+    }
+
+    private MultiRowStatement upsertStatement(List<CreditScore> scores, String onExisting) {
+        return MultiRowStatement.values(databaseClient, "MERGE INTO credit_scores t USING (VALUES ", scores,
+                        (row, score) -> row
+                                .value(score.getSsn().value(), Integer.class, "INTEGER")
+                                .value(score.getFirstName(), String.class, "VARCHAR(100)")
+                                .value(score.getLastName(), String.class, "VARCHAR(100)")
+                                .value(score.getScore(), Integer.class, "INTEGER")
+                                .value(score.getRiskLevel(), String.class, "VARCHAR(10)")
+                                .value(score.getLastUpdated() != null ? score.getLastUpdated() : LocalDateTime.now(),
+                                        LocalDateTime.class, "TIMESTAMP"))
+                .append(") AS " + SOURCE_COLUMNS + " ON t.ssn = s.ssn "
+                        + "WHEN MATCHED THEN UPDATE SET " + onExisting + " "
+                        + "WHEN NOT MATCHED THEN INSERT (ssn, first_name, last_name, score, risk_level, last_updated, "
+                        + "created_at, version) VALUES (s.ssn, s.first_name, s.last_name, s.score, s.risk_level, "
+                        + "s.last_updated, s.last_updated, 0)");
+    }
+
+    private Flux<CreditScore> findAll(List<CreditScore> scores) {
+        return databaseClient.sql("SELECT * FROM credit_scores WHERE ssn IN (:ssns)")
+                .bind("ssns", scores.stream().map(score -> score.getSsn().value()).toList())
+                .map(this::read)
+                .all();
+    }
+
+    private CreditScore read(Row row, RowMetadata metadata) {
+        return converter.read(CreditScore.class, row, metadata);
+    }
+
+    private static List<CreditScore> lastPerSsn(List<CreditScore> scores) {
+        // MERGE rejects a statement that touches the same target row twice
+        Map<Ssn, CreditScore> bySsn = new LinkedHashMap<>();
+        scores.forEach(score -> bySsn.put(score.getSsn(), score));
+        return List.copyOf(bySsn.values());
+    }
+}
@@ -0,0 +1,221 @@
+package com.rjtmahinay.credit.repository;
+
+import com.rjtmahinay.credit.model.CreditAggregate;
+import com.rjtmahinay.credit.model.Ssn;
+import org.reactivestreams.Publisher;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.StreamSupport;
+
+/**
+ * {@link CreditAggregateRepository} over pooled JDBC for the {@code jdbc} execution mode, so aggregates are written
+ * in the same JDBC transaction as the credit history they summarize; see {@link JdbcSupport}. Aggregates are keyed
+ * by SSN and unversioned, so, as with R2DBC, {@link #save} updates the existing row.
+ */
+@Primary
+@Profile("jdbc")
+@Repository
+public class JdbcCreditAggregateRepository extends JdbcSupport implements CreditAggregateRepository {
+
+    public JdbcCreditAggregateRepository(NamedParameterJdbcTemplate jdbc, Scheduler jdbcScheduler) {
+        super(jdbc, jdbcScheduler);
+    }
+
+    @Override
+    public Flux<CreditAggregate> findBySsnIn(Collection<Ssn> ssns) {
+        return ssns.isEmpty() ? Flux.empty() : query("WHERE ssn IN (:ssns)", Map.of("ssns", values(ssns)));
+    }
+
+    @Override
+    public Mono<Integer> applyDelta(Ssn ssn, int accounts, BigDecimal balance, BigDecimal creditLimit,
+            int delinquent, int daysLate) {
+        return call(() -> jdbc.update(APPLY_DELTA, deltaParameters(ssn, accounts, balance, creditLimit, delinquent,
+                daysLate)));
+    }
+
+    @Override
+    public Mono<Integer> recompute(Ssn ssn) {
+        return call(() -> jdbc.update(RECOMPUTE, Map.of("ssn", ssn.value())));
+    }
+
+    @Override
+    public Mono<Long> applyDeltas(Collection<CreditAggregate> deltas) {
+        if (deltas.isEmpty()) {
+            return Mono.just(0L);
+        }
+        List<Map<String, Object>> rows = deltas.stream()
+                .map(delta -> deltaParameters(delta.getSsn(), delta.getActiveAccounts(),
+                        delta.getTotalActiveBalance(), delta.getTotalCreditLimit(), delta.getDelinquentCount(),
+                        delta.getMaxDaysLate()))
+                .toList();
+        return call(() -> sum(batch(APPLY_DELTA, rows)));
+    }
+
+    @Override
+    public <S extends CreditAggregate> Mono<S> save(S aggregate) {
+        return call(() -> {
+            int updated = jdbc.update("UPDATE credit_aggregates SET active_accounts = :activeAccounts, "
+                    + "total_active_balance = :totalActiveBalance, total_credit_limit = :totalCreditLimit, "
+                    + "delinquent_count = :delinquentCount, max_days_late = :maxDaysLate, "
+                    + "last_updated = :lastUpdated WHERE ssn = :ssn", columns(aggregate));
+            if (updated == 0) {
+                throw new TransientDataAccessResourceException("Failed to update table [credit_aggregates]; Row "
+                        + "with Id [%s] does not exist".formatted(aggregate.getSsn()));
+            }
+            return aggregate;
+        });
+    }
+
+    @Override
+    public <S extends CreditAggregate> Flux<S> saveAll(Iterable<S> aggregates) {
+        return Flux.fromIterable(aggregates).concatMap(this::save);
+    }
+
+    @Override
+    public <S extends CreditAggregate> Flux<S> saveAll(Publisher<S> aggregateStream) {
+        return Flux.from(aggregateStream).concatMap(this::save);
+    }
+
+    @Override
+    public Mono<CreditAggregate> findById(Ssn ssn) {
+        return query("WHERE ssn = :ssn", Map.of("ssn", ssn.value())).next();
+    }
+
+    @Override
+    public Mono<CreditAggregate> findById(Publisher<Ssn> ssn) {
+        return Mono.from(ssn).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Ssn ssn) {
+        return call(() -> !jdbc.queryForList("SELECT 1 FROM credit_aggregates WHERE ssn = :ssn",
+                Map.of("ssn", ssn.value()), Integer.class).isEmpty());
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<Ssn> ssn) {
+        return Mono.from(ssn).flatMap(this::existsById);
+    }
+
+    @Override
+    public Flux<CreditAggregate> findAll() {
+        return stream("SELECT * FROM credit_aggregates", Map.of(), JdbcCreditAggregateRepository::mapRow);
+    }
+
+    @Override
+    public Flux<CreditAggregate> findAllById(Iterable<Ssn> ssns) {
+        return findBySsnIn(StreamSupport.stream(ssns.spliterator(), false).toList());
+    }
+
+    @Override
+    public Flux<CreditAggregate> findAllById(Publisher<Ssn> ssnStream) {
+        return Flux.from(ssnStream).collectList().flatMapMany(this::findBySsnIn);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return call(() -> jdbc.queryForObject("SELECT COUNT(*) FROM credit_aggregates", Map.of(), Long.class));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Ssn ssn) {
+        return call(() -> jdbc.update("DELETE FROM credit_aggregates WHERE ssn = :ssn", Map.of("ssn", ssn.value())))
+                .then();
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<Ssn> ssn) {
+        return Mono.from(ssn).flatMap(this::deleteById);
+    }
+
+    @Override
+    public Mono<Void> delete(CreditAggregate aggregate) {
+        return deleteById(aggregate.getSsn());
+    }
+
+    @Override
+    public Mono<Void> deleteAllById(Iterable<? extends Ssn> ssns) {
+        List<Integer> values = StreamSupport.stream(ssns.spliterator(), false).map(Ssn::value).toList();
+        return values.isEmpty()
+                ? Mono.empty()
+                : call(() -> jdbc.update("DELETE FROM credit_aggregates WHERE ssn IN (:ssns)",
+                        Map.of("ssns", values))).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends CreditAggregate> aggregates) {
+        return deleteAllById(StreamSupport.stream(aggregates.spliterator(), false)
+                .map(CreditAggregate::getSsn)
+                .toList());
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends CreditAggregate> aggregateStream) {
+        return Flux.from(aggregateStream).map(CreditAggregate::getSsn).collectList().flatMap(this::deleteAllById);
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return call(() -> jdbc.update("DELETE FROM credit_aggregates", Map.of())).then();
+    }
+
+    private Flux<CreditAggregate> query(String where, Map<String, ?> parameters) {
+        return callMany(() -> jdbc.query("SELECT * FROM credit_aggregates " + where, parameters,
+                JdbcCreditAggregateRepository::mapRow));
+    }
+
+    private static Map<String, Object> deltaParameters(Ssn ssn, int accounts, BigDecimal balance,
+            BigDecimal creditLimit, int delinquent, int daysLate) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("ssn", ssn.value());
+        parameters.put("accounts", accounts);
+        parameters.put("balance", balance);
+        parameters.put("creditLimit", creditLimit);
+        parameters.put("delinquent", delinquent);
+        parameters.put("daysLate", daysLate);
+        return parameters;
+    }
+
+    private static Map<String, Object> columns(CreditAggregate aggregate) {
+        Map<String, Object> columns = new HashMap<>();
+        columns.put("ssn", aggregate.getSsn().value());
+        columns.put("activeAccounts", aggregate.getActiveAccounts());
+        columns.put("totalActiveBalance", aggregate.getTotalActiveBalance());
+        columns.put("totalCreditLimit", aggregate.getTotalCreditLimit());
+        columns.put("delinquentCount", aggregate.getDelinquentCount());
+        columns.put("maxDaysLate", aggregate.getMaxDaysLate());
+        columns.put("lastUpdated", aggregate.getLastUpdated());
+        return columns;
+    }
+
+    private static List<Integer> values(Collection<Ssn> ssns) {
+        return ssns.stream().map(Ssn::value).toList();
+    }
+
+    private static CreditAggregate mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return CreditAggregate.builder()
+                .ssn(new Ssn(rs.getInt("ssn")))
+                .activeAccounts(rs.getInt("active_accounts"))
+                .totalActiveBalance(rs.getBigDecimal("total_active_balance"))
+                .totalCreditLimit(rs.getBigDecimal("total_credit_limit"))
+                .delinquentCount(rs.getInt("delinquent_count"))
+                .maxDaysLate(rs.getInt("max_days_late"))
+                .lastUpdated(rs.getObject("last_updated", LocalDateTime.class))
+                .build();
+    }
+}
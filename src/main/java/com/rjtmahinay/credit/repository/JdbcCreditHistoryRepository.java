@@ -0,0 +1,171 @@
+package com.rjtmahinay.credit.repository;
+
+import com.rjtmahinay.credit.model.CreditHistory;
+import com.rjtmahinay.credit.model.Ssn;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link CreditHistoryRepository} over pooled JDBC for the {@code jdbc} execution mode; see
+ * {@link JdbcCrudSupport}.
+ */
+@Primary
+@Profile("jdbc")
+@Repository
+public class JdbcCreditHistoryRepository extends JdbcCrudSupport<CreditHistory>
+        implements CreditHistoryRepository {
+
+    private static final String INSERT = "INSERT INTO credit_history (ssn, account_type, creditor_name, "
+            + "original_amount, current_balance, credit_limit, payment_status, days_late, account_open_date, "
+            + "last_payment_date, reported_date, is_active) VALUES (:ssn, :account_type, :creditor_name, "
+            + ":original_amount, :current_balance, :credit_limit, :payment_status, :days_late, :account_open_date, "
+            + ":last_payment_date, :reported_date, :is_active)";
+
+    public JdbcCreditHistoryRepository(NamedParameterJdbcTemplate jdbc, Scheduler jdbcScheduler) {
+        super(jdbc, jdbcScheduler, "credit_history", JdbcCreditHistoryRepository::mapRow);
+    }
+
+    @Override
+    public Flux<CreditHistory> findBySsn(Ssn ssn) {
+        return queryAll("SELECT * FROM credit_history WHERE ssn = :ssn", Map.of("ssn", ssn.value()));
+    }
+
+    @Override
+    public Flux<CreditHistory> findBySsnAndIsActive(Ssn ssn, Boolean isActive) {
+        return queryAll("SELECT * FROM credit_history WHERE ssn = :ssn AND is_active = :isActive",
+                Map.of("ssn", ssn.value(), "isActive", isActive));
+    }
+
+    @Override
+    public Flux<CreditHistory> findNegativeHistoryBySsn(Ssn ssn) {
+        return queryAll("SELECT * FROM credit_history WHERE ssn = :ssn AND payment_status != 'CURRENT' "
+                + "ORDER BY days_late DESC", Map.of("ssn", ssn.value()));
+    }
+
+    @Override
+    public Flux<CreditHistory> findActiveAccountsBySsn(Ssn ssn) {
+        return queryAll("SELECT * FROM credit_history WHERE ssn = :ssn AND is_active = true "
+                + "ORDER BY reported_date DESC", Map.of("ssn", ssn.value()));
+    }
+
+    @Override
+    public Flux<CreditHistory> findActiveAccountsBySsnIn(Collection<Ssn> ssns) {
+        if (ssns.isEmpty()) {
+            return Flux.empty();
+        }
+        return queryAll("SELECT * FROM credit_history WHERE ssn IN (:ssns) AND is_active = true "
+                + "ORDER BY reported_date DESC", Map.of("ssns", ssns.stream().map(Ssn::value).toList()));
+    }
+
+    @Override
+    public Flux<CreditHistory> findPageAfter(long afterId, int limit) {
+        return queryAll("SELECT * FROM credit_history WHERE id > :afterId ORDER BY id LIMIT :limit",
+                Map.of("afterId", afterId, "limit", limit));
+    }
+
+    @Override
+    public Mono<Long> insertAll(List<CreditHistory> histories) {
+        if (histories.isEmpty()) {
+            return Mono.just(0L);
+        }
+        List<Map<String, Object>> rows = histories.stream().map(this::columns).toList();
+        return call(() -> sum(batch(INSERT, rows)));
+    }
+
+    @Override
+    public Mono<CreditHistory> updateNonNullFields(Long id, CreditHistory changes, Long expectedVersion) {
+        Map<String, Object> values = columns(changes);
+        values.remove("ssn");
+        return updateNonNull(values, "id", id, expectedVersion);
+    }
+
+    @Override
+    public Flux<CreditHistory> findPage(PageQuery query) {
+        String sql = CreditHistoryRepositoryCustomImpl.pageSql(query);
+        Map<String, Object> parameters = CreditHistoryRepositoryCustomImpl.pageParameters(query);
+        return query.summaryOnly()
+                ? callMany(() -> jdbc.query(sql, parameters, JdbcCreditHistoryRepository::mapSummaryRow))
+                : queryAll(sql, parameters);
+    }
+
+    @Override
+    protected Map<String, Object> columns(CreditHistory history) {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put("ssn", history.getSsn() != null ? history.getSsn().value() : null);
+        columns.put("account_type", history.getAccountType());
+        columns.put("creditor_name", history.getCreditorName());
+        columns.put("original_amount", history.getOriginalAmount());
+        columns.put("current_balance", history.getCurrentBalance());
+        columns.put("credit_limit", history.getCreditLimit());
+        columns.put("payment_status", history.getPaymentStatus());
+        columns.put("days_late", history.getDaysLate());
+        columns.put("account_open_date", history.getAccountOpenDate());
+        columns.put("last_payment_date", history.getLastPaymentDate());
+        columns.put("reported_date", history.getReportedDate());
+        columns.put("is_active", history.getIsActive());
+        return columns;
+    }
+
+    @Override
+    protected Long id(CreditHistory history) {
+        return history.getId();
+    }
+
+    @Override
+    protected Long version(CreditHistory history) {
+        return history.getVersion();
+    }
+
+    @Override
+    protected void assign(CreditHistory history, Long id, Long version) {
+        history.setId(id);
+        history.setVersion(version);
+    }
+
+    private static CreditHistory mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return CreditHistory.builder()
+                .id(rs.getLong("id"))
+                .version(rs.getLong("version"))
+                .ssn(new Ssn(rs.getInt("ssn")))
+                .accountType(rs.getString("account_type"))
+                .creditorName(rs.getString("creditor_name"))
+                .originalAmount(rs.getBigDecimal("original_amount"))
+                .currentBalance(rs.getBigDecimal("current_balance"))
+                .creditLimit(rs.getBigDecimal("credit_limit"))
+                .paymentStatus(rs.getString("payment_status"))
+                .daysLate(rs.getObject("days_late", Integer.class))
+                .accountOpenDate(rs.getObject("account_open_date", LocalDateTime.class))
+                .lastPaymentDate(rs.getObject("last_payment_date", LocalDateTime.class))
+                .reportedDate(rs.getObject("reported_date", LocalDateTime.class))
+                .isActive(rs.getObject("is_active", Boolean.class))
+                .build();
+    }
+
+    /**
+     * Maps the columns selected for a summary page; every other field is left {@code null}.
+     */
+    private static CreditHistory mapSummaryRow(ResultSet rs, int rowNum) throws SQLException {
+        return CreditHistory.builder()
+                .id(rs.getLong("id"))
+                .reportedDate(rs.getObject("reported_date", LocalDateTime.class))
+                .accountType(rs.getString("account_type"))
+                .creditorName(rs.getString("creditor_name"))
+                .currentBalance(rs.getBigDecimal("current_balance"))
+                .paymentStatus(rs.getString("payment_status"))
+                .daysLate(rs.getObject("days_late", Integer.class))
+                .build();
+    }
+}
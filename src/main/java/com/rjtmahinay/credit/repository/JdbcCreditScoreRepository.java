@@ -0,0 +1,228 @@
+package com.rjtmahinay.credit.repository;
+
+import com.rjtmahinay.credit.model.CreditScore;
+import com.rjtmahinay.credit.model.Ssn;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link CreditScoreRepository} over pooled JDBC for the {@code jdbc} execution mode; see {@link JdbcCrudSupport}.
+ * Upserts use standard {@code MERGE} (H2, PostgreSQL 15 and later) and re-read the rows they wrote.
+ */
+@Primary
+@Profile("jdbc")
+@Repository
+public class JdbcCreditScoreRepository extends JdbcCrudSupport<CreditScore> implements CreditScoreRepository {
+
+    private static final String MERGE = "MERGE INTO credit_scores t USING (VALUES (CAST(:ssn AS INTEGER), "
+            + "CAST(:firstName AS VARCHAR(100)), CAST(:lastName AS VARCHAR(100)), CAST(:score AS INTEGER), "
+            + "CAST(:riskLevel AS VARCHAR(10)), CAST(:lastUpdated AS TIMESTAMP))) "
+            + "AS s(ssn, first_name, last_name, score, risk_level, last_updated) ON t.ssn = s.ssn ";
+    private static final String OVERWRITE = "WHEN MATCHED THEN UPDATE SET first_name = s.first_name, "
+            + "last_name = s.last_name, score = s.score, risk_level = s.risk_level, last_updated = s.last_updated, "
+            + "version = t.version + 1 ";
+    private static final String INSERT = "WHEN NOT MATCHED THEN INSERT (ssn, first_name, last_name, score, "
+            + "risk_level, last_updated, created_at, version) VALUES (s.ssn, s.first_name, s.last_name, s.score, "
+            + "s.risk_level, s.last_updated, s.last_updated, 0)";
+
+    public JdbcCreditScoreRepository(NamedParameterJdbcTemplate jdbc, Scheduler jdbcScheduler) {
+        super(jdbc, jdbcScheduler, "credit_scores", JdbcCreditScoreRepository::mapRow);
+    }
+
+    @Override
+    public Mono<CreditScore> findBySsn(Ssn ssn) {
+        return queryOne("SELECT * FROM credit_scores WHERE ssn = :ssn", Map.of("ssn", ssn.value()));
+    }
+
+    @Override
+    public Mono<Boolean> existsBySsn(Ssn ssn) {
+        return exists("ssn = :ssn", Map.of("ssn", ssn.value()));
+    }
+
+    @Override
+    public Flux<CreditScore> findBySsnIn(Collection<Ssn> ssns) {
+        return ssns.isEmpty()
+                ? Flux.empty()
+                : queryAll("SELECT * FROM credit_scores WHERE ssn IN (:ssns)", Map.of("ssns", values(ssns)));
+    }
+
+    @Override
+    public Mono<CreditScore> findRecentCreditScoreBySsn(Ssn ssn) {
+        return queryOne("SELECT * FROM credit_scores WHERE ssn = :ssn AND last_updated > NOW() - INTERVAL '30 days'",
+                Map.of("ssn", ssn.value()));
+    }
+
+    @Override
+    public Mono<CreditScore> findByFirstNameAndLastName(String firstName, String lastName) {
+        return queryOne("SELECT * FROM credit_scores WHERE first_name = :firstName AND last_name = :lastName",
+                Map.of("firstName", firstName, "lastName", lastName));
+    }
+
+    @Override
+    public Flux<CreditScore> findAllByOrderBySsnAsc() {
+        return stream("SELECT * FROM credit_scores ORDER BY ssn", Map.of(), JdbcCreditScoreRepository::mapRow);
+    }
+
+    @Override
+    public Flux<CreditScore> findPageAfter(long afterId, int limit) {
+        return queryAll("SELECT * FROM credit_scores WHERE id > :afterId ORDER BY id LIMIT :limit",
+                Map.of("afterId", afterId, "limit", limit));
+    }
+
+    @Override
+    public Flux<CreditScore> findPageAfterSsn(int afterSsn, int limit) {
+        return queryAll("SELECT * FROM credit_scores WHERE ssn > :afterSsn ORDER BY ssn LIMIT :limit",
+                Map.of("afterSsn", afterSsn, "limit", limit));
+    }
+
+    @Override
+    public Mono<CreditScore> updateNonNullFields(Ssn ssn, CreditScore changes, Long expectedVersion) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("first_name", changes.getFirstName());
+        values.put("last_name", changes.getLastName());
+        values.put("score", changes.getScore());
+        values.put("risk_level", changes.getRiskLevel());
+        values.put("last_updated", changes.getLastUpdated());
+        return updateNonNull(values, "ssn", ssn.value(), expectedVersion);
+    }
+
+    @Override
+    public Mono<CreditScore> upsert(CreditScore score) {
+        return call(() -> jdbc.update(MERGE + OVERWRITE + INSERT, mergeParameters(score)))
+                .then(findBySsn(score.getSsn()));
+    }
+
+    @Override
+    public Mono<Long> insertAll(List<CreditScore> scores) {
+        if (scores.isEmpty()) {
+            return Mono.just(0L);
+        }
+        List<Map<String, Object>> rows = new ArrayList<>(scores.size());
+        for (CreditScore score : scores) {
+            Map<String, Object> row = columns(score);
+            row.put("version", 0L);
+            rows.add(row);
+        }
+        return call(() -> sum(batch("INSERT INTO credit_scores (ssn, first_name, last_name, score, risk_level, "
+                + "last_updated, created_at, version) VALUES (:ssn, :first_name, :last_name, :score, :risk_level, "
+                + ":last_updated, :created_at, :version)", rows)));
+    }
+
+    @Override
+    public Mono<Long> upsertAll(List<CreditScore> scores) {
+        if (scores.isEmpty()) {
+            return Mono.just(0L);
+        }
+        List<Map<String, Object>> rows = lastPerSsn(scores).stream().map(JdbcCreditScoreRepository::mergeParameters)
+                .toList();
+        return call(() -> sum(batch(MERGE + OVERWRITE + INSERT, rows)));
+    }
+
+    @Override
+    public Flux<CreditScore> insertMissing(List<CreditScore> scores) {
+        if (scores.isEmpty()) {
+            return Flux.empty();
+        }
+        List<CreditScore> distinct = lastPerSsn(scores);
+        List<Map<String, Object>> rows = distinct.stream().map(JdbcCreditScoreRepository::mergeParameters).toList();
+        return call(() -> batch(MERGE + INSERT, rows))
+                .thenMany(findBySsnIn(distinct.stream().map(CreditScore::getSsn).toList()));
+    }
+
+    @Override
+    public Flux<CreditScore> updateRiskLevels(List<CreditScore> scores) {
+        if (scores.isEmpty()) {
+            return Flux.empty();
+        }
+        List<Map<String, Object>> rows = scores.stream()
+                .map(score -> Map.<String, Object>of("ssn", score.getSsn().value(), "version", score.getVersion(),
+                        "riskLevel", score.getRiskLevel()))
+                .toList();
+        Map<Ssn, Long> expectedVersions = new HashMap<>();
+        scores.forEach(score -> expectedVersions.put(score.getSsn(), score.getVersion() + 1));
+        return call(() -> batch("UPDATE credit_scores SET risk_level = :riskLevel, version = version + 1 "
+                + "WHERE ssn = :ssn AND version = :version", rows))
+                .thenMany(findBySsnIn(expectedVersions.keySet()))
+                .filter(score -> score.getVersion().equals(expectedVersions.get(score.getSsn())));
+    }
+
+    @Override
+    protected Map<String, Object> columns(CreditScore score) {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put("ssn", score.getSsn().value());
+        columns.put("first_name", score.getFirstName());
+        columns.put("last_name", score.getLastName());
+        columns.put("score", score.getScore());
+        columns.put("risk_level", score.getRiskLevel());
+        columns.put("last_updated", score.getLastUpdated());
+        columns.put("created_at", score.getCreatedAt());
+        return columns;
+    }
+
+    @Override
+    protected Long id(CreditScore score) {
+        return score.getId();
+    }
+
+    @Override
+    protected Long version(CreditScore score) {
+        return score.getVersion();
+    }
+
+    @Override
+    protected void assign(CreditScore score, Long id, Long version) {
+        score.setId(id);
+        score.setVersion(version);
+    }
+
+    private static Map<String, Object> mergeParameters(CreditScore score) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("ssn", score.getSsn().value());
+        parameters.put("firstName", score.getFirstName());
+        parameters.put("lastName", score.getLastName());
+        parameters.put("score", score.getScore());
+        parameters.put("riskLevel", score.getRiskLevel());
+        parameters.put("lastUpdated", score.getLastUpdated() != null ? score.getLastUpdated() : LocalDateTime.now());
+        return parameters;
+    }
+
+    private static List<CreditScore> lastPerSsn(List<CreditScore> scores) {
+        // MERGE rejects a statement that touches the same target row twice, so keep batches to one row per SSN
+        Map<Ssn, CreditScore> bySsn = new LinkedHashMap<>();
+        scores.forEach(score -> bySsn.put(score.getSsn(), score));
+        return List.copyOf(bySsn.values());
+    }
+
+    private static List<Integer> values(Collection<Ssn> ssns) {
+        return ssns.stream().map(Ssn::value).toList();
+    }
+
+    private static CreditScore mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return CreditScore.builder()
+                .id(rs.getLong("id"))
+                .version(rs.getLong("version"))
+                .ssn(new Ssn(rs.getInt("ssn")))
+                .firstName(rs.getString("first_name"))
+                .lastName(rs.getString("last_name"))
+                .score(rs.getObject("score", Integer.class))
+                .riskLevel(rs.getString("risk_level"))
+                .lastUpdated(rs.getObject("last_updated", LocalDateTime.class))
+                .createdAt(rs.getObject("created_at", LocalDateTime.class))
+                .build();
+    }
+}
@@ -0,0 +1,207 @@
+package com.rjtmahinay.credit.repository;
+
+import org.reactivestreams.Publisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reactive CRUD operations over blocking JDBC for the {@code jdbc} execution mode, with the same semantics as the
+ * R2DBC repositories they stand in for: an entity without a version is inserted, and a versioned one is updated
+ * only if the stored row is still at that version.
+ */
+abstract class JdbcCrudSupport<T> extends JdbcSupport {
+
+    private final String table;
+    private final RowMapper<T> rowMapper;
+
+    protected JdbcCrudSupport(NamedParameterJdbcTemplate jdbc, Scheduler scheduler, String table,
+            RowMapper<T> rowMapper) {
+        super(jdbc, scheduler);
+        this.table = table;
+        this.rowMapper = rowMapper;
+    }
+
+    /**
+     * Columns written on insert and update, other than {@code id} and {@code version}.
+     */
+    protected abstract Map<String, Object> columns(T entity);
+
+    protected abstract Long id(T entity);
+
+    protected abstract Long version(T entity);
+
+    protected abstract void assign(T entity, Long id, Long version);
+
+    protected Mono<T> queryOne(String sql, Map<String, ?> parameters) {
+        return call(() -> {
+            List<T> rows = jdbc.query(sql, parameters, rowMapper);
+            return rows.isEmpty() ? null : rows.get(0);
+        });
+    }
+
+    protected Flux<T> queryAll(String sql, Map<String, ?> parameters) {
+        return callMany(() -> jdbc.query(sql, parameters, rowMapper));
+    }
+
+    protected Mono<Boolean> exists(String where, Map<String, ?> parameters) {
+        return call(() -> !jdbc.queryForList("SELECT 1 FROM " + table + " WHERE " + where + " LIMIT 1",
+                parameters, Integer.class).isEmpty());
+    }
+
+    /**
+     * Sets only the non-null {@code values} on the row whose {@code keyColumn} equals {@code key}, bumping its
+     * version, and re-reads it. Emits nothing when no row matched the key and, if given, the expected version.
+     */
+    protected Mono<T> updateNonNull(Map<String, Object> values, String keyColumn, Object key, Long expectedVersion) {
+        StringBuilder sql = new StringBuilder("UPDATE " + table + " SET ");
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        values.forEach((column, value) -> {
+            if (value != null) {
+                sql.append(column).append(" = :").append(column).append(", ");
+                parameters.addValue(column, value);
+            }
+        });
+        sql.append("version = version + 1 WHERE ").append(keyColumn).append(" = :key");
+        parameters.addValue("key", key);
+        if (expectedVersion != null) {
+            sql.append(" AND version = :expectedVersion");
+            parameters.addValue("expectedVersion", expectedVersion);
+        }
+        return call(() -> jdbc.update(sql.toString(), parameters))
+                .filter(updated -> updated > 0)
+                .flatMap(updated -> queryOne("SELECT * FROM " + table + " WHERE " + keyColumn + " = :key",
+                        Map.of("key", key)));
+    }
+
+    public <S extends T> Mono<S> save(S entity) {
+        return call(() -> {
+            saveBlocking(entity);
+            return entity;
+        });
+    }
+
+    public <S extends T> Flux<S> saveAll(Iterable<S> entities) {
+        return Flux.fromIterable(entities).concatMap(this::save);
+    }
+
+    public <S extends T> Flux<S> saveAll(Publisher<S> entityStream) {
+        return Flux.from(entityStream).concatMap(this::save);
+    }
+
+    public Mono<T> findById(Long id) {
+        return queryOne("SELECT * FROM " + table + " WHERE id = :id", Map.of("id", id));
+    }
+
+    public Mono<T> findById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    public Mono<Boolean> existsById(Long id) {
+        return exists("id = :id", Map.of("id", id));
+    }
+
+    public Mono<Boolean> existsById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::existsById);
+    }
+
+    public Flux<T> findAll() {
+        return stream("SELECT * FROM " + table, Map.of(), rowMapper);
+    }
+
+    public Flux<T> findAllById(Iterable<Long> ids) {
+        List<Long> idList = StreamSupport.stream(ids.spliterator(), false).toList();
+        return idList.isEmpty()
+                ? Flux.empty()
+                : queryAll("SELECT * FROM " + table + " WHERE id IN (:ids)", Map.of("ids", idList));
+    }
+
+    public Flux<T> findAllById(Publisher<Long> idStream) {
+        return Flux.from(idStream).collectList().flatMapMany(this::findAllById);
+    }
+
+    public Mono<Long> count() {
+        return call(() -> jdbc.queryForObject("SELECT COUNT(*) FROM " + table, Map.of(), Long.class));
+    }
+
+    public Mono<Void> deleteById(Long id) {
+        return call(() -> jdbc.update("DELETE FROM " + table + " WHERE id = :id", Map.of("id", id))).then();
+    }
+
+    public Mono<Void> deleteById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::deleteById);
+    }
+
+    public Mono<Void> delete(T entity) {
+        return deleteById(id(entity));
+    }
+
+    public Mono<Void> deleteAllById(Iterable<? extends Long> ids) {
+        List<Long> idList = StreamSupport.stream(ids.spliterator(), false).map(Long.class::cast).toList();
+        return idList.isEmpty()
+                ? Mono.empty()
+                : call(() -> jdbc.update("DELETE FROM " + table + " WHERE id IN (:ids)", Map.of("ids", idList)))
+                        .then();
+    }
+
+    public Mono<Void> deleteAll(Iterable<? extends T> entities) {
+        return deleteAllById(StreamSupport.stream(entities.spliterator(), false).map(this::id).toList());
+    }
+
+    public Mono<Void> deleteAll(Publisher<? extends T> entityStream) {
+        return Flux.from(entityStream).map(this::id).collectList().flatMap(this::deleteAllById);
+    }
+
+    public Mono<Void> deleteAll() {
+        return call(() -> jdbc.update("DELETE FROM " + table, Map.of())).then();
+    }
+
+    private void saveBlocking(T entity) {
+        Map<String, Object> columns = columns(entity);
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        if (version(entity) == null) {
+            // Like R2DBC, inserts leave out null columns so their defaults apply
+            columns.forEach((column, value) -> {
+                if (value != null) {
+                    parameters.addValue(column, value);
+                }
+            });
+            if (id(entity) != null) {
+                parameters.addValue("id", id(entity));
+            }
+            KeyHolder keys = new GeneratedKeyHolder();
+            String names = String.join(", ", parameters.getParameterNames());
+            String placeholders = Stream.of(parameters.getParameterNames())
+                    .map(name -> ":" + name)
+                    .collect(Collectors.joining(", "));
+            jdbc.update("INSERT INTO " + table + " (" + names + ") VALUES (" + placeholders + ")", parameters, keys,
+                    new String[] { "id" });
+            assign(entity, id(entity) != null ? id(entity) : keys.getKeyAs(Long.class), 0L);
+            return;
+        }
+
+        parameters.addValues(columns).addValue("id", id(entity)).addValue("version", version(entity));
+        String assignments = columns.keySet().stream()
+                .map(column -> column + " = :" + column)
+                .collect(Collectors.joining(", "));
+        int updated = jdbc.update("UPDATE " + table + " SET " + assignments + ", version = :version + 1 "
+                + "WHERE id = :id AND version = :version", parameters);
+        if (updated == 0) {
+            throw new OptimisticLockingFailureException("Failed to update versioned entity with id '%s' (version "
+                    + "'%s') in table [%s]".formatted(id(entity), version(entity), table));
+        }
+        assign(entity, id(entity), version(entity) + 1);
+    }
+}
@@ -0,0 +1,101 @@
+package com.rjtmahinay.credit.repository;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.ConnectionHolder;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+
+/**
+ * Blocking JDBC calls for the repositories of the {@code jdbc} execution mode, run on the {@code jdbcScheduler}
+ * (see {@code JdbcPersistenceConfig}) so the event loop never blocks on the database.
+ * <p>
+ * Outside a transaction every call borrows a pooled connection, and results are read in full before they are
+ * emitted so the connection goes back to the pool at once, except for {@link #stream}. Inside a transaction of
+ * {@code JdbcReactiveTransactionManager} every call runs on the transaction's connection instead, so writes
+ * through several repositories commit or roll back together.
+ */
+abstract class JdbcSupport {
+
+    protected final NamedParameterJdbcTemplate jdbc;
+    private final Scheduler scheduler;
+    private final DataSource dataSource;
+
+    protected JdbcSupport(NamedParameterJdbcTemplate jdbc, Scheduler scheduler) {
+        this.jdbc = jdbc;
+        this.scheduler = scheduler;
+        this.dataSource = jdbc.getJdbcTemplate().getDataSource();
+    }
+
+    /**
+     * Emits the call's result, or nothing if it returns {@code null}.
+     */
+    protected <R> Mono<R> call(Callable<R> call) {
+        return transaction().flatMap(holder -> {
+            Callable<R> target = holder.isPresent() ? () -> callOn(holder.get(), call) : call;
+            return Mono.fromCallable(target).subscribeOn(scheduler);
+        });
+    }
+
+    protected <R> Flux<R> callMany(Callable<List<R>> call) {
+        return call(call).flatMapIterable(rows -> rows);
+    }
+
+    /**
+     * Emits the rows as they are read, holding the connection until the last one, for results too large to
+     * collect first. Inside a transaction the rows are collected like any other call.
+     */
+    protected <R> Flux<R> stream(String sql, Map<String, ?> parameters, RowMapper<R> mapper) {
+        return transaction().flatMapMany(holder -> holder.isPresent()
+                ? callMany(() -> jdbc.query(sql, parameters, mapper))
+                : Flux.fromStream(() -> jdbc.queryForStream(sql, parameters, mapper)).subscribeOn(scheduler));
+    }
+
+    /**
+     * Runs a batch of the same statement, one parameter set per item, and returns the rows each changed.
+     */
+    protected int[] batch(String sql, List<? extends Map<String, ?>> items) {
+        @SuppressWarnings("unchecked")
+        Map<String, ?>[] batch = items.toArray(Map[]::new);
+        return jdbc.batchUpdate(sql, batch);
+    }
+
+    protected static long sum(int[] counts) {
+        long total = 0;
+        for (int count : counts) {
+            total += Math.max(count, 0); // drivers may report SUCCESS_NO_INFO (-2) for batched rows
+        }
+        return total;
+    }
+
+    /**
+     * The connection of the subscriber's transaction, if any.
+     */
+    private Mono<Optional<ConnectionHolder>> transaction() {
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .map(synchronizationManager -> Optional.ofNullable(
+                        (ConnectionHolder) synchronizationManager.getResource(dataSource)))
+                .onErrorResume(NoTransactionException.class, e -> Mono.just(Optional.empty()));
+    }
+
+    /**
+     * Runs the call with the transaction's connection bound to the worker thread, where JdbcTemplate looks for it.
+     */
+    private <R> R callOn(ConnectionHolder holder, Callable<R> call) throws Exception {
+        org.springframework.transaction.support.TransactionSynchronizationManager.bindResource(dataSource, holder);
+        try {
+            return call.call();
+        } finally {
+            org.springframework.transaction.support.TransactionSynchronizationManager.unbindResource(dataSource);
+        }
+    }
+}
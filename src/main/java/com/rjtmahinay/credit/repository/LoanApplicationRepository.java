@@ -0,0 +1,20 @@
+package com.rjtmahinay.credit.repository;
+
+import com.rjtmahinay.credit.model.LoanApplication;
+import com.rjtmahinay.credit.model.Ssn;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface LoanApplicationRepository extends ReactiveCrudRepository<LoanApplication, Long>,
+        LoanApplicationRepositoryCustom {
+    
+    Mono<LoanApplication> findByApplicationId(String applicationId);
+    
+    Flux<LoanApplication> findBySsnOrderByApplicationDateDesc(Ssn ssn);
+    
+    Flux<LoanApplication> findByStatusOrderByIdDesc(String status, Limit limit);
+}
@@ -0,0 +1,14 @@
+package com.rjtmahinay.credit.repository;
+
+import com.rjtmahinay.credit.model.LoanApplication;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface LoanApplicationRepositoryCustom {
+
+    /**
+     * Inserts all rows with a single multi-row {@code INSERT} statement and returns the number of rows written.
+     */
+    Mono<Long> insertAll(List<LoanApplication> applications);
+}
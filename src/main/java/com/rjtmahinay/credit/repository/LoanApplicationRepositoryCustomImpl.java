@@ -0,0 +1,45 @@
+package com.rjtmahinay.credit.repository;
+
+import com.rjtmahinay.credit.model.LoanApplication;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class LoanApplicationRepositoryCustomImpl implements LoanApplicationRepositoryCustom {
+
+    private static final String INSERT_PREFIX = "INSERT INTO loan_applications (application_id, ssn, first_name, "
+            + "last_name, email, phone, requested_amount, loan_type, term_months, annual_income, employment_status, "
+            + "status, rejection_reason, application_date, processed_date) VALUES ";
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Mono<Long> insertAll(List<LoanApplication> applications) {
+        if (applications.isEmpty()) {
+            return Mono.just(0L);
+        }
+
+        return MultiRowStatement.values(databaseClient, INSERT_PREFIX, applications, (row, application) -> row
+                .value(application.getApplicationId(), String.class)
+                .value(application.getSsn().value(), Integer.class)
+                .value(application.getFirstName(), String.class)
+                .value(application.getLastName(), String.class)
+                .value(application.getEmail(), String.class)
+                .value(application.getPhone(), String.class)
+                .value(application.getRequestedAmount(), BigDecimal.class)
+                .value(application.getLoanType(), String.class)
+                .value(application.getTermMonths(), Integer.class)
+                .value(application.getAnnualIncome(), BigDecimal.class)
+                .value(application.getEmploymentStatus(), String.class)
+                .value(application.getStatus(), String.class)
+                .value(application.getRejectionReason(), String.class)
+                .value(application.getApplicationDate(), LocalDateTime.class)
+                .value(application.getProcessedDate(), LocalDateTime.class))
+                .rowsUpdated();
+    }
+}
@@ -0,0 +1,118 @@
+package com.rjtmahinay.credit.repository;
+
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.binding.BindMarkers;
+import org.springframework.r2dbc.core.binding.BindMarkersFactoryResolver;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Builds one statement carrying many {@code VALUES} rows and binds it positionally with the driver's own bind
+ * markers. Binding goes straight to the R2DBC {@link Statement} because named-parameter expansion in
+ * {@link DatabaseClient} grows much faster than linearly with thousands of parameters.
+ */
+final class MultiRowStatement {
+
+    private final DatabaseClient databaseClient;
+    private final BindMarkers markers;
+    private final StringBuilder sql;
+    private final List<Object> values = new ArrayList<>();
+    private final List<Class<?>> types = new ArrayList<>();
+
+    private MultiRowStatement(DatabaseClient databaseClient, String prefix) {
+        this.databaseClient = databaseClient;
+        this.markers = BindMarkersFactoryResolver.resolve(databaseClient.getConnectionFactory()).create();
+        this.sql = new StringBuilder(prefix);
+    }
+
+    static <T> MultiRowStatement values(DatabaseClient databaseClient, String prefix, List<T> items,
+            BiConsumer<Values, T> binder) {
+        MultiRowStatement statement = new MultiRowStatement(databaseClient, prefix);
+        Values row = statement.new Values();
+        for (int i = 0; i < items.size(); i++) {
+            statement.sql.append(i == 0 ? "(" : ", (");
+            row.first = true;
+            binder.accept(row, items.get(i));
+            statement.sql.append(')');
+        }
+        return statement;
+    }
+
+    MultiRowStatement append(String suffix) {
+        sql.append(suffix);
+        return this;
+    }
+
+    Mono<Long> rowsUpdated() {
+        return rowsUpdated(sql.toString());
+    }
+
+    <T> Flux<T> rows(BiFunction<Row, RowMetadata, T> mapper) {
+        return rows(sql.toString(), mapper);
+    }
+
+    /**
+     * Runs the statement and emits the rows it wrote, as the {@link SqlDialect} allows; {@code reRead} fetches
+     * them where the database cannot return rows from a data change.
+     */
+    <T> Flux<T> written(SqlDialect dialect, BiFunction<Row, RowMetadata, T> mapper, Supplier<Flux<T>> reRead) {
+        return dialect.written(sql.toString(), query -> rows(query, mapper), this::rowsUpdated, reRead);
+    }
+
+    private Mono<Long> rowsUpdated(String statement) {
+        return databaseClient.inConnection(connection -> Flux.from(bind(connection.createStatement(statement))
+                        .execute())
+                .flatMap(Result::getRowsUpdated)
+                .reduce(0L, Long::sum));
+    }
+
+    private <T> Flux<T> rows(String statement, BiFunction<Row, RowMetadata, T> mapper) {
+        return databaseClient.inConnectionMany(connection -> Flux.from(bind(connection.createStatement(statement))
+                        .execute())
+                .flatMap(result -> result.map(mapper)));
+    }
+
+    private Statement bind(Statement statement) {
+        for (int i = 0; i < values.size(); i++) {
+            if (values.get(i) != null) {
+                statement.bind(i, values.get(i));
+            } else {
+                statement.bindNull(i, types.get(i));
+            }
+        }
+        return statement;
+    }
+
+    final class Values {
+
+        private boolean first;
+
+        Values value(Object value, Class<?> type) {
+            return value(value, type, null);
+        }
+
+        /**
+         * Adds a bound value, wrapped in {@code CAST(... AS sqlType)} when the column type cannot be inferred
+         * from context (for example in a {@code MERGE ... USING (VALUES ...)} source).
+         */
+        Values value(Object value, Class<?> type, String sqlType) {
+            String placeholder = markers.next().getPlaceholder();
+            sql.append(first ? "" : ", ")
+                    .append(sqlType != null ? "CAST(" + placeholder + " AS " + sqlType + ")" : placeholder);
+            first = false;
+            values.add(value);
+            types.add(type);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.rjtmahinay.credit.repository;
+
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * One {@code UPDATE} that sets only the columns given a non-null value, bumps the row's optimistic-lock
+ * {@code version}, and hands back the updated row. Where the {@link SqlDialect} can return rows from an update
+ * that is the only round trip; elsewhere the row is re-read by key afterwards. Emits nothing when no row matched
+ * the key and expected version.
+ */
+final class PartialUpdate<T> {
+
+    private final DatabaseClient databaseClient;
+    private final R2dbcConverter converter;
+    private final Class<T> type;
+    private final String table;
+    private final Map<String, Object> assignments = new LinkedHashMap<>();
+    private final Map<String, Object> conditions = new LinkedHashMap<>();
+    private String keyColumn;
+
+    private PartialUpdate(DatabaseClient databaseClient, R2dbcConverter converter, Class<T> type, String table) {
+        this.databaseClient = databaseClient;
+        this.converter = converter;
+        this.type = type;
+        this.table = table;
+    }
+
+    static <T> PartialUpdate<T> of(DatabaseClient databaseClient, R2dbcConverter converter, Class<T> type,
+            String table) {
+        return new PartialUpdate<>(databaseClient, converter, type, table);
+    }
+
+    /**
+     * Sets {@code column} unless {@code value} is null, in which case the column is left untouched.
+     */
+    PartialUpdate<T> set(String column, Object value) {
+        if (value != null) {
+            assignments.put(column, value);
+        }
+        return this;
+    }
+
+    PartialUpdate<T> whereKey(String column, Object value) {
+        keyColumn = column;
+        conditions.put(column, value);
+        return this;
+    }
+
+    /**
+     * Only applies the update if the row is still at {@code version}; a null version skips the check.
+     */
+    PartialUpdate<T> expectVersion(Long version) {
+        if (version != null) {
+            conditions.put("version", version);
+        }
+        return this;
+    }
+
+    Mono<T> execute() {
+        List<Object> values = new ArrayList<>();
+        String set = assignments.entrySet().stream()
+                .map(assignment -> assignment.getKey() + " = " + parameter(values, assignment.getValue()))
+                .collect(Collectors.joining(", "));
+        String where = conditions.entrySet().stream()
+                .map(condition -> condition.getKey() + " = " + parameter(values, condition.getValue()))
+                .collect(Collectors.joining(" AND "));
+        String update = "UPDATE " + table + " SET " + (set.isEmpty() ? "" : set + ", ")
+                + "version = version + 1 WHERE " + where;
+
+        return SqlDialect.of(databaseClient.getConnectionFactory())
+                .written(update,
+                        statement -> query(statement, values).flux(),
+                        statement -> bind(databaseClient.sql(statement), values).fetch().rowsUpdated(),
+                        () -> query("SELECT * FROM " + table + " WHERE " + keyColumn + " = :p0",
+                                List.of(conditions.get(keyColumn))).flux())
+                .singleOrEmpty();
+    }
+
+    private Mono<T> query(String sql, List<Object> values) {
+        return bind(databaseClient.sql(sql), values)
+                .map((row, metadata) -> converter.read(type, row, metadata))
+                .one();
+    }
+
+    private static String parameter(List<Object> values, Object value) {
+        values.add(value);
+        return ":p" + (values.size() - 1);
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, List<Object> values) {
+        for (int i = 0; i < values.size(); i++) {
+            spec = spec.bind("p" + i, values.get(i));
+        }
+        return spec;
+    }
+}
@@ -0,0 +1,37 @@
+package com.rjtmahinay.credit.repository;
+
+import com.rjtmahinay.credit.model.RescoreCheckpoint;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface RescoreCheckpointRepository extends ReactiveCrudRepository<RescoreCheckpoint, String> {
+
+    @Modifying
+    @Query("MERGE INTO rescore_checkpoints t "
+            + "USING (VALUES (CAST(:job AS VARCHAR(50)), CAST(:lastSsn AS INTEGER), CAST(:rowsScanned AS BIGINT), "
+            + "CAST(:rowsUpdated AS BIGINT), CAST(:startedAt AS TIMESTAMP), CAST(:checkpointedAt AS TIMESTAMP), "
+            + "CAST(:completedAt AS TIMESTAMP))) "
+            + "AS c(job, last_ssn, rows_scanned, rows_updated, started_at, checkpointed_at, completed_at) "
+            + "ON t.job = c.job "
+            + "WHEN MATCHED THEN UPDATE SET last_ssn = c.last_ssn, rows_scanned = c.rows_scanned, "
+            + "rows_updated = c.rows_updated, started_at = c.started_at, checkpointed_at = c.checkpointed_at, "
+            + "completed_at = c.completed_at "
+            + "WHEN NOT MATCHED THEN INSERT (job, last_ssn, rows_scanned, rows_updated, started_at, checkpointed_at, "
+            + "completed_at) VALUES (c.job, c.last_ssn, c.rows_scanned, c.rows_updated, c.started_at, "
+            + "c.checkpointed_at, c.completed_at)")
+    Mono<Integer> upsert(String job, Integer lastSsn, long rowsScanned, long rowsUpdated, LocalDateTime startedAt,
+            LocalDateTime checkpointedAt, LocalDateTime completedAt);
+
+    default Mono<RescoreCheckpoint> store(RescoreCheckpoint checkpoint) {
+        return upsert(checkpoint.getJob(), checkpoint.getLastSsn(), checkpoint.getRowsScanned(),
+                checkpoint.getRowsUpdated(), checkpoint.getStartedAt(), checkpoint.getCheckpointedAt(),
+                checkpoint.getCompletedAt())
+                .thenReturn(checkpoint);
+    }
+}
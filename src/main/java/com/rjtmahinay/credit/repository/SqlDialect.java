@@ -0,0 +1,45 @@
+package com.rjtmahinay.credit.repository;
+
+import io.r2dbc.spi.ConnectionFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * How a data-change statement hands back the rows it wrote on the databases this service can run on. H2 returns
+ * them from the statement itself; anything else runs the change and then re-reads the rows by key.
+ */
+enum SqlDialect {
+
+    H2 {
+        @Override
+        <T> Flux<T> written(String dataChange, Function<String, Flux<T>> query,
+                Function<String, Mono<Long>> update, Supplier<Flux<T>> reRead) {
+            return query.apply("SELECT * FROM FINAL TABLE (" + dataChange + ")");
+        }
+    },
+
+    STANDARD {
+        @Override
+        <T> Flux<T> written(String dataChange, Function<String, Flux<T>> query,
+                Function<String, Mono<Long>> update, Supplier<Flux<T>> reRead) {
+            return update.apply(dataChange)
+                    .filter(updated -> updated > 0)
+                    .flatMapMany(updated -> reRead.get());
+        }
+    };
+
+    /**
+     * Runs an {@code INSERT}/{@code UPDATE}/upsert and emits the rows as written: in one round trip through
+     * {@code query} where the database can return rows from a data change, otherwise by running it through
+     * {@code update} and, if it changed anything, fetching the rows with {@code reRead}.
+     */
+    abstract <T> Flux<T> written(String dataChange, Function<String, Flux<T>> query,
+            Function<String, Mono<Long>> update, Supplier<Flux<T>> reRead);
+
+    static SqlDialect of(ConnectionFactory connectionFactory) {
+        return "H2".equals(connectionFactory.getMetadata().getName()) ? H2 : STANDARD;
+    }
+}
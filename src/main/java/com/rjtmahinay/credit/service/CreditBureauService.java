@@ -1,86 +1,441 @@
 package com.rjtmahinay.credit.service;
 
+import com.rjtmahinay.credit.config.CreditBureauProperties;
+import com.rjtmahinay.credit.dto.BulkIngestionSummary;
+import com.rjtmahinay.credit.dto.CreditChangeEvent;
 import com.rjtmahinay.credit.dto.CreditCheckRequest;
 import com.rjtmahinay.credit.dto.CreditCheckResponse;
+import com.rjtmahinay.credit.dto.CreditHistoryPage;
 import com.rjtmahinay.credit.dto.CreateCreditScoreRequest;
 import com.rjtmahinay.credit.dto.CreateCreditHistoryRequest;
 import com.rjtmahinay.credit.dto.UpdateCreditScoreRequest;
 import com.rjtmahinay.credit.dto.UpdateCreditHistoryRequest;
+import com.rjtmahinay.credit.model.CreditAggregate;
 import com.rjtmahinay.credit.model.CreditHistory;
 import com.rjtmahinay.credit.model.CreditScore;
+import com.rjtmahinay.credit.model.LoanApplication;
+import com.rjtmahinay.credit.model.Ssn;
+import com.rjtmahinay.credit.repository.CreditAggregateRepository;
 import com.rjtmahinay.credit.repository.CreditHistoryRepository;
+import com.rjtmahinay.credit.repository.CreditHistoryRepositoryCustom.PageQuery;
 import com.rjtmahinay.credit.repository.CreditScoreRepository;
+import com.rjtmahinay.credit.repository.LoanApplicationRepository;
+import com.rjtmahinay.credit.service.CreditCheckMetrics.Stage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class CreditBureauService {
 
+    // Two upserts that both find an SSN absent can still collide on its unique key; the retry then sees the row
+    private static final Retry CONCURRENT_INSERT_RETRY = Retry.max(1).filter(DuplicateKeyException.class::isInstance);
+    private static final String NAMES_REQUIRED = "First and last name are required for an SSN with no score on file";
+
     private final CreditScoreRepository creditScoreRepository;
     private final CreditHistoryRepository creditHistoryRepository;
+    private final CreditAggregateRepository creditAggregateRepository;
+    private final LoanApplicationRepository loanApplicationRepository;
+    private final CreditScoreCache creditScoreCache;
+    private final ScorePolicyEngine scorePolicyEngine;
+    private final CreditBureauProperties properties;
+    private final CreditCheckMetrics creditCheckMetrics;
+    private final LoanApplicationWriter loanApplicationWriter;
+    private final CreditChangeFeed creditChangeFeed;
+    private final ShardRouter shardRouter;
+    private final ReplicaRouter replicaRouter;
+    private final TransactionalOperator transactionalOperator;
+
+    // Concurrent checks for the same SSN share one score lookup and one history or aggregate read. A mock score
+    // is created under the caller's names, so only checks sending the same names share its creation
+    private final SingleFlight<Ssn, CreditScore> scoreFlights = new SingleFlight<>();
+    private final SingleFlight<MockScoreKey, CreditScore> mockScoreFlights = new SingleFlight<>();
+    private final SingleFlight<Ssn, List<CreditHistory>> historyFlights = new SingleFlight<>();
+    private final SingleFlight<Ssn, CreditAggregate> aggregateFlights = new SingleFlight<>();
 
     public Mono<CreditCheckResponse> performCreditCheck(CreditCheckRequest request) {
         log.info("Performing credit check for SSN: {}", request.getSsn());
+        String invalid = validateCreditCheck(request);
+        if (invalid != null) {
+            return Mono.error(new IllegalArgumentException(invalid));
+        }
+        Ssn ssn = request.getSsn();
+
+        if (!includesHistory(request)) {
+            // Decide from the maintained aggregate instead of materializing every tradeline
+            Mono<CreditAggregate> aggregate = aggregateFlights.execute(ssn,
+                    () -> creditCheckMetrics.time(Stage.AGGREGATE_FETCH,
+                            shardRouter.read(ssn, creditAggregateRepository.findById(ssn))
+                                    .defaultIfEmpty(emptyAggregate(ssn))));
+            return Mono.zip(findOrCreateCreditScore(request), aggregate)
+                    .map(loaded -> creditCheckMetrics.time(Stage.DECISION,
+                            () -> buildCreditCheckResponse(loaded.getT1(), loaded.getT2(), null, request)))
+                    .doOnNext(response -> recordDecision(request, response));
+        }
+
+        Mono<List<CreditHistory>> history = historyFlights.execute(ssn,
+                () -> creditCheckMetrics.time(Stage.HISTORY_FETCH,
+                        shardRouter.read(ssn, creditHistoryRepository.findActiveAccountsBySsn(ssn)).collectList()));
+        return Mono.zip(findOrCreateCreditScore(request), history)
+                .map(loaded -> creditCheckMetrics.time(Stage.DECISION,
+                        () -> buildCreditCheckResponse(loaded.getT1(), loaded.getT2(), request)))
+                .doOnNext(response -> recordDecision(request, response));
+    }
 
-        return creditScoreRepository.findBySsn(request.getSsn())
-                .switchIfEmpty(generateMockCreditScore(request))
-                .flatMap(creditScore -> creditHistoryRepository.findActiveAccountsBySsn(request.getSsn())
-                        .collectList()
-                        .map(history -> buildCreditCheckResponse(creditScore, history, request)));
+    private Mono<CreditScore> findOrCreateCreditScore(CreditCheckRequest request) {
+        Ssn ssn = request.getSsn();
+        return scoreFlights.execute(ssn,
+                        () -> creditCheckMetrics.time(Stage.SCORE_LOOKUP,
+                                creditScoreCache.get(ssn, this::findCreditScore)))
+                .switchIfEmpty(Mono.defer(() -> mockScoreFlights.execute(
+                        new MockScoreKey(ssn, request.getFirstName(), request.getLastName()),
+                        () -> creditCheckMetrics.time(Stage.MOCK_SCORE_INSERT, generateMockCreditScore(request)))));
     }
 
-    public Mono<CreditScore> getCreditScoreBySSN(String ssn) {
-        return creditScoreRepository.findBySsn(ssn)
+    private Mono<CreditScore> findCreditScore(Ssn ssn) {
+        return shardRouter.read(ssn, creditScoreRepository.findBySsn(ssn));
+    }
+
+    /**
+     * Emits one response per request, in request order. A request that is invalid or fails to be decided gets a
+     * response carrying only its SSN and the {@code error}, and the rest of the batch goes on.
+     */
+    public Flux<CreditCheckResponse> performBatchCreditCheck(Flux<CreditCheckRequest> requests) {
+        // Chunks are processed one at a time so upstream is only drained as fast as responses are consumed
+        return requests
+                .buffer(properties.getBatch().getChunkSize())
+                .concatMap(this::performCreditCheckChunk, 0);
+    }
+
+    private Flux<CreditCheckResponse> performCreditCheckChunk(List<CreditCheckRequest> requests) {
+        Map<CreditCheckRequest, String> invalid = new IdentityHashMap<>();
+        requests.forEach(request -> {
+            String error = validateCreditCheck(request);
+            if (error != null) {
+                invalid.put(request, error);
+            }
+        });
+        List<CreditCheckRequest> chunk = invalid.isEmpty() ? requests
+                : requests.stream().filter(request -> !invalid.containsKey(request)).toList();
+        Map<Ssn, CreditCheckRequest> requestsBySsn = chunk.stream()
+                .collect(Collectors.toMap(CreditCheckRequest::getSsn, Function.identity(), (first, second) -> first,
+                        LinkedHashMap::new));
+        log.info("Performing batch credit check for {} requests ({} distinct SSNs)", chunk.size(),
+                requestsBySsn.size());
+
+        Map<Ssn, CreditScore> cached = creditScoreCache.getAllPresent(requestsBySsn.keySet());
+        List<Ssn> uncached = requestsBySsn.keySet().stream()
+                .filter(ssn -> !cached.containsKey(ssn))
+                .toList();
+
+        Mono<Map<Ssn, CreditScore>> scores = (uncached.isEmpty() ? Flux.<CreditScore>empty()
+                : shardRouter.readAll(uncached, Function.identity(), creditScoreRepository::findBySsnIn))
+                .doOnNext(creditScoreCache::putLoaded)
+                .collectMap(CreditScore::getSsn, Function.identity(), () -> new HashMap<>(cached))
+                .flatMap(found -> {
+                    // An SSN with no score on file gets a mock one under the first names sent for it; without
+                    // names it is left unscored and its requests are answered with an error below
+                    List<CreditScore> missing = chunk.stream()
+                            .filter(request -> !found.containsKey(request.getSsn()) && hasNames(request))
+                            .collect(Collectors.toMap(CreditCheckRequest::getSsn, this::buildMockCreditScore,
+                                    (first, second) -> first, LinkedHashMap::new))
+                            .values().stream()
+                            .toList();
+                    if (missing.isEmpty()) {
+                        return Mono.just(found);
+                    }
+                    // Scores another check created concurrently are kept and returned instead
+                    return shardRouter.writeAll(missing, CreditScore::getSsn, creditScoreRepository::insertMissing)
+                            .retryWhen(CONCURRENT_INSERT_RETRY)
+                            .doOnNext(creditScoreCache::put)
+                            .doOnNext(created -> found.put(created.getSsn(), created))
+                            .then(Mono.just(found));
+                });
+
+        Set<Ssn> historySsns = chunk.stream()
+                .filter(this::includesHistory)
+                .map(CreditCheckRequest::getSsn)
+                .collect(Collectors.toSet());
+        Set<Ssn> aggregateSsns = chunk.stream()
+                .filter(request -> !includesHistory(request))
+                .map(CreditCheckRequest::getSsn)
+                .collect(Collectors.toSet());
+
+        Mono<Map<Ssn, List<CreditHistory>>> histories = (historySsns.isEmpty() ? Flux.<CreditHistory>empty()
+                : shardRouter.readAll(historySsns, Function.identity(),
+                        creditHistoryRepository::findActiveAccountsBySsnIn))
+                .collect(Collectors.groupingBy(CreditHistory::getSsn));
+        Mono<Map<Ssn, CreditAggregate>> aggregates = (aggregateSsns.isEmpty() ? Flux.<CreditAggregate>empty()
+                : shardRouter.readAll(aggregateSsns, Function.identity(), creditAggregateRepository::findBySsnIn))
+                .collectMap(CreditAggregate::getSsn);
+
+        return Mono.zip(scores, histories, aggregates)
+                .flatMapIterable(loaded -> requests.stream()
+                        .map(request -> {
+                            if (invalid.containsKey(request)) {
+                                return failedCreditCheck(request, invalid.get(request));
+                            }
+                            CreditScore creditScore = loaded.getT1().get(request.getSsn());
+                            if (creditScore == null) {
+                                return failedCreditCheck(request, NAMES_REQUIRED);
+                            }
+                            CreditCheckResponse response;
+                            try {
+                                if (!includesHistory(request)) {
+                                    CreditAggregate aggregate = loaded.getT3().getOrDefault(request.getSsn(),
+                                            emptyAggregate(request.getSsn()));
+                                    response = buildCreditCheckResponse(creditScore, aggregate, null, request);
+                                } else {
+                                    response = buildCreditCheckResponse(creditScore,
+                                            loaded.getT2().getOrDefault(request.getSsn(), List.of()), request);
+                                }
+                            } catch (RuntimeException e) {
+                                log.warn("Batch credit check failed for SSN: {}", request.getSsn(), e);
+                                return failedCreditCheck(request, "Credit check failed: " + e.getMessage());
+                            }
+                            recordDecision(request, response);
+                            return response;
+                        })
+                        .toList());
+    }
+
+    private static CreditCheckResponse failedCreditCheck(CreditCheckRequest request, String error) {
+        return CreditCheckResponse.builder()
+                .ssn(request.getSsn())
+                .error(error)
+                .checkDate(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * Why the request cannot be decided, or {@code null} if it can.
+     */
+    private static String validateCreditCheck(CreditCheckRequest request) {
+        if (request.getSsn() == null) {
+            return "SSN is required";
+        }
+        if (request.getRequestedAmount() == null || request.getRequestedAmount().signum() <= 0) {
+            return "Requested amount must be positive";
+        }
+        if (request.getAnnualIncome() == null || request.getAnnualIncome().signum() <= 0) {
+            return "Annual income must be positive";
+        }
+        return null;
+    }
+
+    private void recordDecision(CreditCheckRequest request, CreditCheckResponse response) {
+        creditCheckMetrics.recordOutcome(response);
+        loanApplicationWriter.submit(request, response);
+    }
+
+    public Mono<LoanApplication> getLoanApplication(String applicationId) {
+        return loanApplicationRepository.findByApplicationId(applicationId)
+                .switchIfEmpty(Mono.error(new RuntimeException("Loan application not found: " + applicationId)));
+    }
+
+    public Flux<LoanApplication> getLoanHistoryBySSN(Ssn ssn) {
+        return loanApplicationRepository.findBySsnOrderByApplicationDateDesc(ssn);
+    }
+
+    public Flux<LoanApplication> getLoanApplicationsByStatus(String status, int limit) {
+        return loanApplicationRepository.findByStatusOrderByIdDesc(status, Limit.of(limit));
+    }
+
+    public Mono<CreditScore> getCreditScoreBySSN(Ssn ssn) {
+        return creditScoreCache.get(ssn, this::findCreditScore)
                 .switchIfEmpty(Mono.error(new RuntimeException("Credit score not found for SSN: " + ssn)));
     }
 
-    public Flux<CreditHistory> getCreditHistoryBySSN(String ssn) {
-        return creditHistoryRepository.findBySsn(ssn);
+    public Flux<CreditHistory> getCreditHistoryBySSN(Ssn ssn) {
+        return shardRouter.read(ssn, creditHistoryRepository.findBySsn(ssn));
+    }
+
+    /**
+     * Reads one page of an SSN's credit history, newest report first, continuing after {@code cursor} when given.
+     * One row beyond {@code limit} is read to tell whether another page follows. With {@code summaryOnly} the
+     * items are {@link CreditCheckResponse.CreditHistorySummary credit check summaries} read from just their
+     * columns; otherwise they are full {@link CreditHistory} records.
+     *
+     * @throws IllegalArgumentException (as the error signal) if the cursor, an account type or a payment status
+     *                                  is invalid
+     */
+    public Mono<CreditHistoryPage<?>> getCreditHistoryPage(Ssn ssn, String cursor, int limit, boolean activeOnly,
+            Set<String> accountTypes, Set<String> paymentStatuses, boolean summaryOnly) {
+        return Mono.fromCallable(() -> {
+            requireConstants(CreditHistory.AccountType.class, accountTypes, "account type");
+            requireConstants(CreditHistory.PaymentStatus.class, paymentStatuses, "payment status");
+            CreditHistory after = cursor != null ? decodeCursor(cursor) : null;
+            return new PageQuery(ssn, after != null ? after.getReportedDate() : null,
+                    after != null ? after.getId() : null, activeOnly, accountTypes, paymentStatuses, limit + 1,
+                    summaryOnly);
+        })
+                .flatMap(query -> shardRouter.read(ssn, creditHistoryRepository.findPage(query).collectList()))
+                .<CreditHistoryPage<?>>map(rows -> {
+                    List<CreditHistory> items = rows.size() > limit ? rows.subList(0, limit) : rows;
+                    String nextCursor = rows.size() > limit ? encodeCursor(items.get(items.size() - 1)) : null;
+                    return summaryOnly
+                            ? new CreditHistoryPage<>(items.stream().map(CreditBureauService::toSummary).toList(),
+                                    nextCursor)
+                            : new CreditHistoryPage<>(List.copyOf(items), nextCursor);
+                });
+    }
+
+    private static <E extends Enum<E>> void requireConstants(Class<E> type, Set<String> names, String description) {
+        for (String name : names) {
+            if (Arrays.stream(type.getEnumConstants()).noneMatch(constant -> constant.name().equals(name))) {
+                throw new IllegalArgumentException("Invalid " + description + ": " + name);
+            }
+        }
+    }
+
+    /**
+     * Encodes the position of the last record of a page as {@code reportedDate|id} in URL-safe Base64.
+     */
+    private static String encodeCursor(CreditHistory last) {
+        String position = last.getReportedDate() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodes a cursor into a record holding just the reported date and id it points at.
+     */
+    private static CreditHistory decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            int separator = position.indexOf('|');
+            return CreditHistory.builder()
+                    .reportedDate(LocalDateTime.parse(position.substring(0, separator)))
+                    .id(Long.parseLong(position.substring(separator + 1)))
+                    .build();
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
     }
 
     public Mono<CreditScore> createCreditScore(CreateCreditScoreRequest request) {
         log.info("Creating credit score for SSN: {}", request.getSsn());
 
-        // Check if credit score already exists for this SSN
-        return creditScoreRepository.findBySsn(request.getSsn())
-                .flatMap(existingScore -> {
-                    log.warn("Credit score already exists for SSN: {}, updating existing record", request.getSsn());
-                    return updateExistingCreditScore(existingScore, request);
-                })
-                .switchIfEmpty(Mono.defer(() -> {
-                    // Create new credit score
-                    String riskLevel = request.getRiskLevel() != null ? request.getRiskLevel()
-                            : determineRiskLevel(request.getScore());
-
-                    CreditScore creditScore = CreditScore.builder()
-                            .ssn(request.getSsn())
-                            .firstName(request.getFirstName())
-                            .lastName(request.getLastName())
-                            .score(request.getScore())
-                            .riskLevel(riskLevel)
-                            .createdAt(LocalDateTime.now())
-                            .lastUpdated(LocalDateTime.now())
-                            .build();
-
-                    return creditScoreRepository.save(creditScore);
-                }));
+        // Inserts, or overwrites the existing score for this SSN, in one statement
+        return shardRouter.write(request.getSsn(),
+                        Mono.defer(() -> creditScoreRepository.upsert(newCreditScore(request))))
+                .retryWhen(CONCURRENT_INSERT_RETRY)
+                .doOnNext(creditScoreCache::put)
+                .doOnNext(stored -> creditChangeFeed.scoreChanged(stored.getVersion() == 0
+                        ? CreditChangeEvent.Type.SCORE_CREATED : CreditChangeEvent.Type.SCORE_UPDATED, stored));
+    }
+
+    /**
+     * Upserts a stream of bureau scores in multi-row batches, validating each row. Rows are numbered from 1 in
+     * the order received.
+     */
+    public Mono<BulkIngestionSummary> upsertCreditScores(Flux<CreateCreditScoreRequest> requests) {
+        CreditBureauProperties.Ingestion config = properties.getIngestion();
+
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            AtomicLong total = new AtomicLong();
+            AtomicLong accepted = new AtomicLong();
+            List<BulkIngestionSummary.RowError> errors = Collections.synchronizedList(new ArrayList<>());
+
+            return requests
+                    .index()
+                    .doOnNext(indexed -> total.incrementAndGet())
+                    .filter(indexed -> {
+                        String invalid = validateCreditScore(indexed.getT2());
+                        if (invalid != null && errors.size() < config.getMaxReportedErrors()) {
+                            errors.add(BulkIngestionSummary.RowError.builder()
+                                    .line(indexed.getT1() + 1).message(invalid).build());
+                        }
+                        return invalid == null;
+                    })
+                    .map(indexed -> newCreditScore(indexed.getT2()))
+                    .buffer(config.getBatchSize())
+                    .flatMap(batch -> shardRouter.writeAll(batch, CreditScore::getSsn, creditScoreRepository::upsertAll)
+                            .retryWhen(CONCURRENT_INSERT_RETRY)
+                            .then(Mono.fromRunnable(() -> {
+                                accepted.addAndGet(batch.size());
+                                batch.forEach(score -> creditScoreCache.invalidate(score.getSsn()));
+                            })), config.getConcurrency())
+                    .then(Mono.fromSupplier(() -> BulkIngestionSummary.builder()
+                            .totalRows(total.get())
+                            .acceptedRows(accepted.get())
+                            .rejectedRows(total.get() - accepted.get())
+                            .elapsedMillis((System.nanoTime() - start) / 1_000_000)
+                            .errors(List.copyOf(errors))
+                            .build()));
+        });
+    }
+
+    private static String validateCreditScore(CreateCreditScoreRequest request) {
+        if (request.getSsn() == null) {
+            return "SSN is required";
+        }
+        if (request.getFirstName() == null || request.getLastName() == null) {
+            return "First and last name are required";
+        }
+        if (request.getScore() == null || request.getScore() < 300 || request.getScore() > 850) {
+            return "Score must be between 300 and 850";
+        }
+        return null;
+    }
+
+    private CreditScore newCreditScore(CreateCreditScoreRequest request) {
+        String riskLevel = request.getRiskLevel() != null ? request.getRiskLevel()
+                : determineRiskLevel(request.getScore());
+
+        return CreditScore.builder()
+                .ssn(request.getSsn())
+                .firstName(request.getFirstName())
+                .lastName(request.getLastName())
+                .score(request.getScore())
+                .riskLevel(riskLevel)
+                .lastUpdated(LocalDateTime.now())
+                .build();
     }
 
     public Mono<CreditHistory> createCreditHistory(CreateCreditHistoryRequest request) {
         log.info("Creating credit history for SSN: {}", request.getSsn());
 
-        CreditHistory creditHistory = CreditHistory.builder()
+        return shardRouter.write(request.getSsn(), creditHistoryRepository.save(newCreditHistory(request))
+                .flatMap(saved -> applyToAggregate(null, saved).thenReturn(saved))
+                .flatMap(saved -> afterCommit(() -> creditChangeFeed.historyChanged(
+                        CreditChangeEvent.Type.HISTORY_CREATED, saved)).thenReturn(saved))
+                .as(transactionalOperator::transactional));
+    }
+
+    static CreditHistory newCreditHistory(CreateCreditHistoryRequest request) {
+        return CreditHistory.builder()
                 .ssn(request.getSsn())
                 .accountType(request.getAccountType())
                 .creditorName(request.getCreditorName())
@@ -94,97 +449,161 @@ public class CreditBureauService {
                 .reportedDate(LocalDateTime.now())
                 .isActive(request.getIsActive() != null ? request.getIsActive() : true)
                 .build();
-
-        return creditHistoryRepository.save(creditHistory);
     }
 
-    public Mono<CreditScore> updateCreditScore(String ssn, UpdateCreditScoreRequest request) {
+    public Mono<CreditScore> updateCreditScore(Ssn ssn, UpdateCreditScoreRequest request) {
         log.info("Updating credit score for SSN: {}", ssn);
 
-        return creditScoreRepository.findBySsn(ssn)
-                .switchIfEmpty(Mono.error(new RuntimeException("Credit score not found for SSN: " + ssn)))
-                .flatMap(existingScore -> {
-                    String riskLevel = request.getRiskLevel() != null ? request.getRiskLevel()
-                            : (request.getScore() != null ? determineRiskLevel(request.getScore())
-                                    : existingScore.getRiskLevel());
-
-                    CreditScore updatedScore = CreditScore.builder()
-                            .id(existingScore.getId())
-                            .ssn(existingScore.getSsn())
-                            .firstName(request.getFirstName() != null ? request.getFirstName()
-                                    : existingScore.getFirstName())
-                            .lastName(
-                                    request.getLastName() != null ? request.getLastName() : existingScore.getLastName())
-                            .score(request.getScore() != null ? request.getScore() : existingScore.getScore())
-                            .riskLevel(riskLevel)
-                            .createdAt(existingScore.getCreatedAt())
-                            .lastUpdated(LocalDateTime.now())
-                            .build();
-
-                    return creditScoreRepository.save(updatedScore);
-                });
+        // A new score without an explicit risk level re-derives it; otherwise the stored level is kept
+        String riskLevel = request.getRiskLevel() != null ? request.getRiskLevel()
+                : (request.getScore() != null ? determineRiskLevel(request.getScore()) : null);
+        CreditScore changes = CreditScore.builder()
+                .firstName(request.getFirstName())
+                .lastName(request.getLastName())
+                .score(request.getScore())
+                .riskLevel(riskLevel)
+                .lastUpdated(LocalDateTime.now())
+                .build();
+
+        return shardRouter.write(ssn, creditScoreRepository.updateNonNullFields(ssn, changes, request.getVersion())
+                        .switchIfEmpty(notUpdated(creditScoreRepository.existsBySsn(ssn), request.getVersion(),
+                                "Credit score not found for SSN: " + ssn)))
+                .doOnNext(creditScoreCache::put)
+                .doOnNext(updated -> creditChangeFeed.scoreChanged(CreditChangeEvent.Type.SCORE_UPDATED, updated));
     }
 
     public Mono<CreditHistory> updateCreditHistory(Long id, UpdateCreditHistoryRequest request) {
         log.info("Updating credit history record with ID: {}", id);
 
-        return creditHistoryRepository.findById(id)
-                .switchIfEmpty(Mono.error(new RuntimeException("Credit history record not found with ID: " + id)))
-                .flatMap(existingHistory -> {
-                    CreditHistory updatedHistory = CreditHistory.builder()
-                            .id(existingHistory.getId())
-                            .ssn(existingHistory.getSsn())
-                            .accountType(request.getAccountType() != null ? request.getAccountType()
-                                    : existingHistory.getAccountType())
-                            .creditorName(request.getCreditorName() != null ? request.getCreditorName()
-                                    : existingHistory.getCreditorName())
-                            .originalAmount(request.getOriginalAmount() != null ? request.getOriginalAmount()
-                                    : existingHistory.getOriginalAmount())
-                            .currentBalance(request.getCurrentBalance() != null ? request.getCurrentBalance()
-                                    : existingHistory.getCurrentBalance())
-                            .creditLimit(request.getCreditLimit() != null ? request.getCreditLimit()
-                                    : existingHistory.getCreditLimit())
-                            .paymentStatus(request.getPaymentStatus() != null ? request.getPaymentStatus()
-                                    : existingHistory.getPaymentStatus())
-                            .daysLate(request.getDaysLate() != null ? request.getDaysLate()
-                                    : existingHistory.getDaysLate())
-                            .accountOpenDate(request.getAccountOpenDate() != null ? request.getAccountOpenDate()
-                                    : existingHistory.getAccountOpenDate())
-                            .lastPaymentDate(request.getLastPaymentDate() != null ? request.getLastPaymentDate()
-                                    : existingHistory.getLastPaymentDate())
-                            .reportedDate(LocalDateTime.now())
-                            .isActive(request.getIsActive() != null ? request.getIsActive()
-                                    : existingHistory.getIsActive())
-                            .build();
-
-                    return creditHistoryRepository.save(updatedHistory);
-                });
+        CreditHistory changes = CreditHistory.builder()
+                .accountType(request.getAccountType())
+                .creditorName(request.getCreditorName())
+                .originalAmount(request.getOriginalAmount())
+                .currentBalance(request.getCurrentBalance())
+                .creditLimit(request.getCreditLimit())
+                .paymentStatus(request.getPaymentStatus())
+                .daysLate(request.getDaysLate())
+                .accountOpenDate(request.getAccountOpenDate())
+                .lastPaymentDate(request.getLastPaymentDate())
+                .reportedDate(LocalDateTime.now())
+                .isActive(request.getIsActive())
+                .build();
+
+        String notFound = "Credit history record not found with ID: " + id;
+        Mono<CreditHistory> update = creditHistoryRepository.updateNonNullFields(id, changes, request.getVersion())
+                .switchIfEmpty(notUpdated(creditHistoryRepository.existsById(id), request.getVersion(), notFound))
+                // The previous values are never read, so the aggregate is rebuilt when a rolled-up field changed
+                .flatMap(updated -> changesAggregate(request)
+                        ? creditAggregateRepository.recompute(updated.getSsn()).thenReturn(updated)
+                        : Mono.just(updated))
+                .flatMap(updated -> afterCommit(() -> creditChangeFeed.historyChanged(
+                        CreditChangeEvent.Type.HISTORY_UPDATED, updated)).thenReturn(updated))
+                .as(transactionalOperator::transactional);
+        if (!shardRouter.isSharded()) {
+            return update.doOnNext(updated -> replicaRouter.written(updated.getSsn()));
+        }
+
+        // Only the record itself tells which SSN, and so which shard, it belongs to
+        return shardRouter.scatter(() -> creditHistoryRepository.findById(id))
+                .next()
+                .switchIfEmpty(Mono.error(() -> new RuntimeException(notFound)))
+                .flatMap(found -> shardRouter.write(found.getSsn(), update));
     }
 
-    private Mono<CreditScore> updateExistingCreditScore(CreditScore existingScore, CreateCreditScoreRequest request) {
-        String riskLevel = request.getRiskLevel() != null ? request.getRiskLevel()
-                : determineRiskLevel(request.getScore());
+    /**
+     * Runs {@code action} once the surrounding transaction commits, so a rolled-back write is never announced;
+     * without a transaction it runs immediately.
+     */
+    private static Mono<Void> afterCommit(Runnable action) {
+        return TransactionSynchronizationManager.forCurrentTransaction()
+                .doOnNext(synchronizations -> synchronizations.registerSynchronization(
+                        new TransactionSynchronization() {
+                            @Override
+                            public Mono<Void> afterCommit() {
+                                return Mono.fromRunnable(action);
+                            }
+                        }))
+                .onErrorResume(NoTransactionException.class, error -> Mono.fromRunnable(action))
+                .then();
+    }
 
-        CreditScore updatedScore = CreditScore.builder()
-                .id(existingScore.getId())
-                .ssn(existingScore.getSsn())
-                .firstName(request.getFirstName())
-                .lastName(request.getLastName())
-                .score(request.getScore())
-                .riskLevel(riskLevel)
-                .createdAt(existingScore.getCreatedAt())
-                .lastUpdated(LocalDateTime.now())
-                .build();
+    /**
+     * Explains an update that matched no row: a stale expected version if the row exists, otherwise not found.
+     */
+    private static <T> Mono<T> notUpdated(Mono<Boolean> exists, Long expectedVersion, String notFoundMessage) {
+        return Mono.defer(() -> expectedVersion == null ? Mono.just(false) : exists)
+                .flatMap(found -> Mono.error(found
+                        ? new OptimisticLockingFailureException("Record was modified since version " + expectedVersion)
+                        : new RuntimeException(notFoundMessage)));
+    }
+
+    private static boolean changesAggregate(UpdateCreditHistoryRequest request) {
+        return request.getCurrentBalance() != null || request.getCreditLimit() != null
+                || request.getPaymentStatus() != null || request.getDaysLate() != null
+                || request.getIsActive() != null;
+    }
+
+    /**
+     * Folds the change from {@code previous} to {@code current} into the SSN's aggregate. Sums and counts are
+     * applied as deltas; the aggregate is only recomputed from the table when the maximum days late could shrink.
+     */
+    private Mono<Integer> applyToAggregate(CreditHistory previous, CreditHistory current) {
+        boolean wasActive = previous != null && Boolean.TRUE.equals(previous.getIsActive());
+        boolean isActive = Boolean.TRUE.equals(current.getIsActive());
+        if (!wasActive && !isActive) {
+            return Mono.just(0);
+        }
+
+        int previousDaysLate = wasActive ? daysLate(previous) : 0;
+        int currentDaysLate = isActive ? daysLate(current) : 0;
+        if (previousDaysLate > currentDaysLate) {
+            return creditAggregateRepository.recompute(current.getSsn());
+        }
+
+        int accounts = (isActive ? 1 : 0) - (wasActive ? 1 : 0);
+        int delinquent = (isActive && isDelinquent(current) ? 1 : 0) - (wasActive && isDelinquent(previous) ? 1 : 0);
+        BigDecimal balance = amountIfActive(current.getCurrentBalance(), isActive)
+                .subtract(amountIfActive(wasActive ? previous.getCurrentBalance() : null, wasActive));
+        BigDecimal creditLimit = amountIfActive(current.getCreditLimit(), isActive)
+                .subtract(amountIfActive(wasActive ? previous.getCreditLimit() : null, wasActive));
+
+        return creditAggregateRepository.applyDelta(current.getSsn(), accounts, balance, creditLimit, delinquent,
+                currentDaysLate);
+    }
 
-        return creditScoreRepository.save(updatedScore);
+    private static BigDecimal amountIfActive(BigDecimal amount, boolean active) {
+        return active && amount != null ? amount : BigDecimal.ZERO;
+    }
+
+    private static int daysLate(CreditHistory history) {
+        return history.getDaysLate() != null ? history.getDaysLate() : 0;
+    }
+
+    private static boolean isDelinquent(CreditHistory history) {
+        return !"CURRENT".equals(history.getPaymentStatus());
     }
 
     private Mono<CreditScore> generateMockCreditScore(CreditCheckRequest request) {
+        if (!hasNames(request)) {
+            return Mono.error(new IllegalArgumentException(NAMES_REQUIRED));
+        }
+        // Keeps, and returns, a score another instance created for this SSN in the meantime
+        return shardRouter.write(request.getSsn(), Mono.defer(() -> creditScoreRepository.insertMissing(
+                        List.of(buildMockCreditScore(request))).next()))
+                .retryWhen(CONCURRENT_INSERT_RETRY)
+                .doOnNext(creditScoreCache::put);
+    }
+
+    private static boolean hasNames(CreditCheckRequest request) {
+        return request.getFirstName() != null && request.getLastName() != null;
+    }
+
+    private CreditScore buildMockCreditScore(CreditCheckRequest request) {
         // Generate a mock credit score for demo purposes
         int mockScore = 300 + (int) (Math.random() * 550); // Random score between 300-850
         String riskLevel = determineRiskLevel(mockScore);
 
-        CreditScore creditScore = CreditScore.builder()
+        return CreditScore.builder()
                 .ssn(request.getSsn())
                 .firstName(request.getFirstName())
                 .lastName(request.getLastName())
@@ -193,27 +612,36 @@ public class CreditBureauService {
                 .lastUpdated(LocalDateTime.now())
                 .createdAt(LocalDateTime.now())
                 .build();
-
-        return creditScoreRepository.save(creditScore);
     }
 
-    private CreditCheckResponse buildCreditCheckResponse(CreditScore creditScore, List<CreditHistory> history,
+    CreditCheckResponse buildCreditCheckResponse(CreditScore creditScore, List<CreditHistory> history,
             CreditCheckRequest request) {
-        String decision = makeDecision(creditScore, history, request);
-        BigDecimal approvedAmount = calculateApprovedAmount(creditScore, request);
-        BigDecimal interestRate = calculateInterestRate(creditScore, request);
-
         List<CreditCheckResponse.CreditHistorySummary> historySummary = history.stream()
-                .map(h -> CreditCheckResponse.CreditHistorySummary.builder()
-                        .accountType(h.getAccountType())
-                        .creditorName(h.getCreditorName())
-                        .currentBalance(h.getCurrentBalance())
-                        .paymentStatus(h.getPaymentStatus())
-                        .daysLate(h.getDaysLate())
-                        .build())
+                .map(CreditBureauService::toSummary)
                 .toList();
 
+        return buildCreditCheckResponse(creditScore, summarize(creditScore.getSsn(), history), historySummary,
+                request);
+    }
+
+    private static CreditCheckResponse.CreditHistorySummary toSummary(CreditHistory history) {
+        return CreditCheckResponse.CreditHistorySummary.builder()
+                .accountType(history.getAccountType())
+                .creditorName(history.getCreditorName())
+                .currentBalance(history.getCurrentBalance())
+                .paymentStatus(history.getPaymentStatus())
+                .daysLate(history.getDaysLate())
+                .build();
+    }
+
+    private CreditCheckResponse buildCreditCheckResponse(CreditScore creditScore, CreditAggregate aggregate,
+            List<CreditCheckResponse.CreditHistorySummary> historySummary, CreditCheckRequest request) {
+        // One band lookup yields everything the decision needs
+        ScoreBand band = scorePolicyEngine.bandFor(creditScore.getScore());
+        String decision = band.decide(aggregate.getTotalActiveBalance(), request.getAnnualIncome());
+
         return CreditCheckResponse.builder()
+                .applicationId(UUID.randomUUID().toString())
                 .ssn(creditScore.getSsn())
                 .firstName(creditScore.getFirstName())
                 .lastName(creditScore.getLastName())
@@ -221,99 +649,60 @@ public class CreditBureauService {
                 .riskLevel(creditScore.getRiskLevel())
                 .isApproved("APPROVED".equals(decision))
                 .decision(decision)
-                .rejectionReason("REJECTED".equals(decision) ? generateRejectionReason(creditScore, history) : null)
-                .approvedAmount(approvedAmount)
-                .recommendedInterestRate(interestRate)
+                .rejectionReason("REJECTED".equals(decision)
+                        ? scorePolicyEngine.rejectionReason(creditScore.getScore(), aggregate.getDelinquentCount())
+                        : null)
+                .approvedAmount("REJECTED".equals(decision) ? BigDecimal.ZERO
+                        : band.approvedAmount(request.getRequestedAmount()))
+                .recommendedInterestRate(band.getInterestRate())
                 .creditHistory(historySummary)
                 .checkDate(LocalDateTime.now())
                 .build();
     }
 
-    private String makeDecision(CreditScore creditScore, List<CreditHistory> history, CreditCheckRequest request) {
-        int score = creditScore.getScore();
-
-        // Basic decision logic
-        if (score >= 700) {
-            return "APPROVED";
-        } else if (score >= 600) {
-            // Check debt-to-income ratio
-            BigDecimal debtToIncomeRatio = calculateDebtToIncomeRatio(history, request);
-            if (debtToIncomeRatio.compareTo(new BigDecimal("0.4")) <= 0) {
-                return "APPROVED";
-            } else {
-                return "MANUAL_REVIEW";
-            }
-        } else {
-            return "REJECTED";
-        }
+    private boolean includesHistory(CreditCheckRequest request) {
+        return request.getIncludeHistory() == null || request.getIncludeHistory();
     }
 
-    private BigDecimal calculateApprovedAmount(CreditScore creditScore, CreditCheckRequest request) {
-        BigDecimal requestedAmount = request.getRequestedAmount();
-        int score = creditScore.getScore();
-
-        if (score >= 750) {
-            return requestedAmount; // Approve full amount
-        } else if (score >= 700) {
-            return requestedAmount.multiply(new BigDecimal("0.9")); // 90% of requested
-        } else if (score >= 650) {
-            return requestedAmount.multiply(new BigDecimal("0.75")); // 75% of requested
-        } else if (score >= 600) {
-            return requestedAmount.multiply(new BigDecimal("0.5")); // 50% of requested
-        } else {
-            return BigDecimal.ZERO; // Rejected
-        }
+    private CreditAggregate emptyAggregate(Ssn ssn) {
+        return summarize(ssn, List.of());
     }
 
-    private BigDecimal calculateInterestRate(CreditScore creditScore, CreditCheckRequest request) {
-        int score = creditScore.getScore();
-
-        if (score >= 750) {
-            return new BigDecimal("3.5");
-        } else if (score >= 700) {
-            return new BigDecimal("5.0");
-        } else if (score >= 650) {
-            return new BigDecimal("7.5");
-        } else if (score >= 600) {
-            return new BigDecimal("12.0");
-        } else {
-            return new BigDecimal("18.0");
+    /**
+     * Rolls already-loaded active accounts up in a single pass, matching what {@code credit_aggregates} holds.
+     */
+    static CreditAggregate summarize(Ssn ssn, List<CreditHistory> activeHistory) {
+        int delinquent = 0;
+        int maxDaysLate = 0;
+        BigDecimal balance = BigDecimal.ZERO;
+        BigDecimal creditLimit = BigDecimal.ZERO;
+        for (CreditHistory history : activeHistory) {
+            if (history.getCurrentBalance() != null) {
+                balance = balance.add(history.getCurrentBalance());
+            }
+            if (history.getCreditLimit() != null) {
+                creditLimit = creditLimit.add(history.getCreditLimit());
+            }
+            if (isDelinquent(history)) {
+                delinquent++;
+            }
+            maxDaysLate = Math.max(maxDaysLate, daysLate(history));
         }
-    }
 
-    private String determineRiskLevel(int score) {
-        if (score >= 700) {
-            return "LOW";
-        } else if (score >= 600) {
-            return "MEDIUM";
-        } else {
-            return "HIGH";
-        }
+        return CreditAggregate.builder()
+                .ssn(ssn)
+                .activeAccounts(activeHistory.size())
+                .totalActiveBalance(balance)
+                .totalCreditLimit(creditLimit)
+                .delinquentCount(delinquent)
+                .maxDaysLate(maxDaysLate)
+                .build();
     }
 
-    private BigDecimal calculateDebtToIncomeRatio(List<CreditHistory> history, CreditCheckRequest request) {
-        BigDecimal totalDebt = history.stream()
-                .filter(h -> h.getCurrentBalance() != null)
-                .map(CreditHistory::getCurrentBalance)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        return totalDebt.divide(request.getAnnualIncome().divide(new BigDecimal("12"), RoundingMode.HALF_UP), 2,
-                RoundingMode.HALF_UP);
+    private String determineRiskLevel(int score) {
+        return scorePolicyEngine.riskLevel(score);
     }
 
-    private String generateRejectionReason(CreditScore creditScore, List<CreditHistory> history) {
-        if (creditScore.getScore() < 500) {
-            return "Credit score too low";
-        }
-
-        long negativeAccounts = history.stream()
-                .filter(h -> !"CURRENT".equals(h.getPaymentStatus()))
-                .count();
-
-        if (negativeAccounts > 2) {
-            return "Too many delinquent accounts";
-        }
-
-        return "Credit profile does not meet lending criteria";
+    private record MockScoreKey(Ssn ssn, String firstName, String lastName) {
     }
 }
@@ -0,0 +1,107 @@
+package com.rjtmahinay.credit.service;
+
+import com.rjtmahinay.credit.config.CreditBureauProperties;
+import com.rjtmahinay.credit.dto.CreditChangeEvent;
+import com.rjtmahinay.credit.model.CreditHistory;
+import com.rjtmahinay.credit.model.CreditScore;
+import com.rjtmahinay.credit.model.Ssn;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * In-process feed of credit score and credit history changes.
+ * <p>
+ * Every published event gets the next sequence number and the most recent {@code replay-size} events are kept,
+ * so a subscriber that passes the sequence of the last event it saw resumes without a gap. Publishing never
+ * waits on subscribers: each one reads through its own bounded buffer and is disconnected when that buffer
+ * overflows, after which it can reconnect and resume. Sequences restart with the process.
+ */
+@Slf4j
+@Component
+public class CreditChangeFeed {
+
+    private final Sinks.Many<CreditChangeEvent> sink;
+    private final int replaySize;
+    private final int subscriberBuffer;
+    private volatile long lastSequence;
+
+    public CreditChangeFeed(CreditBureauProperties properties, MeterRegistry meterRegistry) {
+        CreditBureauProperties.ChangeFeed config = properties.getChangeFeed();
+        this.replaySize = config.getReplaySize();
+        this.subscriberBuffer = config.getSubscriberBuffer();
+        this.sink = Sinks.many().replay().limit(replaySize);
+        meterRegistry.gauge("credit.change.feed.subscribers", sink, Sinks.Many::currentSubscriberCount);
+    }
+
+    public void scoreChanged(CreditChangeEvent.Type type, CreditScore score) {
+        publish(CreditChangeEvent.builder()
+                .type(type)
+                .ssn(score.getSsn())
+                .score(score.getScore())
+                .riskLevel(score.getRiskLevel())
+                .version(score.getVersion()));
+    }
+
+    public void historyChanged(CreditChangeEvent.Type type, CreditHistory history) {
+        publish(CreditChangeEvent.builder()
+                .type(type)
+                .ssn(history.getSsn())
+                .historyId(history.getId())
+                .version(history.getVersion()));
+    }
+
+    /**
+     * Streams events published after {@code resumeAfter}, or only new events when it is null, that concern one of
+     * {@code ssns} and, when {@code riskLevels} is not empty, carry one of those risk levels (so history events are
+     * then left out). Empty filters match everything.
+     *
+     * @throws ResumeTokenExpiredException (signalled) if events after {@code resumeAfter} are no longer retained
+     */
+    public Flux<CreditChangeEvent> subscribe(Long resumeAfter, Set<Ssn> ssns, Set<String> riskLevels) {
+        return Flux.defer(() -> {
+            long head = lastSequence;
+            long after = resumeAfter != null ? resumeAfter : head;
+            if (after > head || after < head - replaySize) {
+                return Flux.error(new ResumeTokenExpiredException(after));
+            }
+            return sink.asFlux()
+                    .skipWhile(event -> event.getSequence() <= after)
+                    // Events published while this subscription started could have pushed the token out of the buffer
+                    .switchOnFirst((first, events) -> first.hasValue() && first.get().getSequence() > after + 1
+                            ? Flux.error(new ResumeTokenExpiredException(after))
+                            : events)
+                    .filter(event -> ssns.isEmpty() || ssns.contains(event.getSsn()))
+                    .filter(event -> riskLevels.isEmpty() || riskLevels.contains(event.getRiskLevel()))
+                    // Room for a full replay plus the allowed lag; overflowing it disconnects the subscriber
+                    .onBackpressureBuffer(replaySize + subscriberBuffer)
+                    .publishOn(Schedulers.parallel());
+        });
+    }
+
+    private synchronized void publish(CreditChangeEvent.CreditChangeEventBuilder event) {
+        // Serialized so sequence numbers reach the sink in order. Emitting only appends to the replay buffer and
+        // each subscriber's own buffer; encoding and writing happen on the subscriber's scheduler
+        CreditChangeEvent published = event.sequence(++lastSequence).occurredAt(LocalDateTime.now()).build();
+        Sinks.EmitResult result = sink.tryEmitNext(published);
+        if (result.isFailure()) {
+            log.warn("Could not publish {} for SSN {}: {}", published.getType(), published.getSsn(), result);
+        }
+    }
+
+    /**
+     * A resume token is older than the retained events, or was issued before the feed last restarted.
+     */
+    public static class ResumeTokenExpiredException extends RuntimeException {
+
+        public ResumeTokenExpiredException(long token) {
+            super("Change feed can no longer resume after " + token + "; reconnect without a resume token");
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.rjtmahinay.credit.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rjtmahinay.credit.config.CreditBureauProperties;
+import com.rjtmahinay.credit.dto.CreditCheckRequest;
+import com.rjtmahinay.credit.dto.CreditCheckResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, TTL-evicting store of credit check results by client-supplied {@code Idempotency-Key}.
+ * <p>
+ * The first request for a key stores its still-running check, so a duplicate that arrives mid-flight waits for
+ * the same result and a later retry replays it without running the check again. A failed check is forgotten so
+ * the client can retry it. A key may only be reused with the same request body.
+ */
+@Component
+public class CreditCheckIdempotencyCache {
+
+    private final Cache<String, Entry> cache;
+
+    public CreditCheckIdempotencyCache(CreditBureauProperties properties, MeterRegistry meterRegistry) {
+        CreditBureauProperties.Idempotency config = properties.getIdempotency();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getTimeToLive())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "creditCheckIdempotency");
+    }
+
+    public Mono<CreditCheckResponse> execute(String key, CreditCheckRequest request,
+            Supplier<Mono<CreditCheckResponse>> check) {
+        return Mono.defer(() -> {
+            Entry entry = cache.get(key, k -> newEntry(k, request, check));
+            if (!entry.request().equals(request)) {
+                return Mono.error(new KeyReusedException(key));
+            }
+            return entry.response();
+        });
+    }
+
+    private Entry newEntry(String key, CreditCheckRequest request, Supplier<Mono<CreditCheckResponse>> check) {
+        AtomicReference<Entry> self = new AtomicReference<>();
+        Mono<CreditCheckResponse> response = Mono.defer(check)
+                .doOnError(error -> cache.asMap().remove(key, self.get()))
+                .cache();
+        self.set(new Entry(request, response));
+        return self.get();
+    }
+
+    private record Entry(CreditCheckRequest request, Mono<CreditCheckResponse> response) {
+    }
+
+    /**
+     * An {@code Idempotency-Key} was sent again with a different request body.
+     */
+    public static class KeyReusedException extends RuntimeException {
+
+        public KeyReusedException(String key) {
+            super("Idempotency-Key " + key + " was already used with a different request");
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.rjtmahinay.credit.service;
+
+import com.rjtmahinay.credit.dto.CreditCheckResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer instrumentation for credit checks: a {@code credit.check.stage} timer per pipeline stage, with
+ * client-side percentiles and a percentile histogram for Prometheus, and counters of outcomes by decision and
+ * by risk level.
+ * <p>
+ * Tags only ever carry low-cardinality labels; applicant identifiers such as the SSN must never become a tag.
+ */
+@Component
+public class CreditCheckMetrics {
+
+    public enum Stage {
+        /** Cache or database read of an existing credit score. */
+        SCORE_LOOKUP,
+        /** Insert of a generated score for an SSN the bureau has not seen before. */
+        MOCK_SCORE_INSERT,
+        /** Load of the active tradelines. */
+        HISTORY_FETCH,
+        /** Load of the pre-aggregated account totals. */
+        AGGREGATE_FETCH,
+        /** Policy evaluation and response assembly. */
+        DECISION
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    // Keyed by tag value; risk levels come from the score policy, so they are registered as they first appear
+    private final Map<String, Counter> decisionCounters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> riskLevelCounters = new ConcurrentHashMap<>();
+
+    public CreditCheckMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("credit.check.stage")
+                    .description("Time spent in each stage of a credit check")
+                    .tag("stage", stage.name().toLowerCase(Locale.ROOT))
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Times {@code mono} from subscription until it completes, errors or is cancelled.
+     */
+    public <T> Mono<T> time(Stage stage, Mono<T> mono) {
+        Timer timer = stageTimers.get(stage);
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return mono.doFinally(signal -> sample.stop(timer));
+        });
+    }
+
+    public <T> T time(Stage stage, Supplier<T> work) {
+        return stageTimers.get(stage).record(work);
+    }
+
+    public void recordOutcome(CreditCheckResponse response) {
+        decisionCounters.computeIfAbsent(String.valueOf(response.getDecision()), decision -> Counter
+                        .builder("credit.check.decisions")
+                        .description("Credit checks by decision outcome")
+                        .tag("decision", decision)
+                        .register(meterRegistry))
+                .increment();
+        riskLevelCounters.computeIfAbsent(String.valueOf(response.getRiskLevel()), riskLevel -> Counter
+                        .builder("credit.check.risk.levels")
+                        .description("Credit checks by assessed risk level")
+                        .tag("risk_level", riskLevel)
+                        .register(meterRegistry))
+                .increment();
+    }
+}
@@ -0,0 +1,58 @@
+package com.rjtmahinay.credit.service;
+
+import com.rjtmahinay.credit.config.CreditBureauProperties;
+import com.rjtmahinay.credit.model.CreditHistory;
+import com.rjtmahinay.credit.model.CreditScore;
+import com.rjtmahinay.credit.repository.CreditHistoryRepository;
+import com.rjtmahinay.credit.repository.CreditScoreRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Streams whole tables for warehouse extracts. Rows are read in keyset pages on {@code id}, each page its own
+ * short query outside any transaction, and the next page is only queried once the previous one has been
+ * consumed downstream, so an export holds at most one page in memory however large the table is.
+ * <p>
+ * With sharding every shard is paged through at the same time and the rows are merged in {@code id} order,
+ * which is unique across shards, so {@code afterId} resumes a sharded export as it does an unsharded one.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CreditExportService {
+
+    private final CreditScoreRepository creditScoreRepository;
+    private final CreditHistoryRepository creditHistoryRepository;
+    private final CreditBureauProperties properties;
+    private final ShardRouter shardRouter;
+
+    public Flux<CreditScore> exportCreditScores(long afterId) {
+        return shardRouter.scatter(() -> keyset(afterId, creditScoreRepository::findPageAfter, CreditScore::getId),
+                Comparator.comparing(CreditScore::getId));
+    }
+
+    public Flux<CreditHistory> exportCreditHistory(long afterId) {
+        return shardRouter.scatter(() -> keyset(afterId, creditHistoryRepository::findPageAfter, CreditHistory::getId),
+                Comparator.comparing(CreditHistory::getId));
+    }
+
+    private <T> Flux<T> keyset(long afterId, BiFunction<Long, Integer, Flux<T>> pageAfter, Function<T, Long> id) {
+        int pageSize = properties.getExport().getPageSize();
+        Function<Long, Mono<List<T>>> page = after -> pageAfter.apply(after, pageSize).collectList();
+
+        return Mono.defer(() -> page.apply(afterId))
+                .expand(rows -> rows.size() < pageSize
+                        ? Mono.empty()
+                        : page.apply(id.apply(rows.get(rows.size() - 1))))
+                // Request one page at a time so demand from the socket paces the queries
+                .flatMapIterable(rows -> rows, 1);
+    }
+}
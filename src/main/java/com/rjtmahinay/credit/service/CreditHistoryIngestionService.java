@@ -0,0 +1,293 @@
+package com.rjtmahinay.credit.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rjtmahinay.credit.config.CreditBureauProperties;
+import com.rjtmahinay.credit.dto.BulkIngestionSummary;
+import com.rjtmahinay.credit.dto.CreateCreditHistoryRequest;
+import com.rjtmahinay.credit.model.CreditAggregate;
+import com.rjtmahinay.credit.model.CreditHistory;
+import com.rjtmahinay.credit.model.Ssn;
+import com.rjtmahinay.credit.repository.CreditAggregateRepository;
+import com.rjtmahinay.credit.repository.CreditHistoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Streams furnisher files of tradelines into {@code credit_history}. Lines are parsed and validated as they
+ * arrive, accepted rows are written with multi-row inserts in a bounded number of concurrent batches, and each
+ * batch folds its rows into {@code credit_aggregates} in the same transaction, so memory use depends on the
+ * batch size and concurrency rather than the size of the upload.
+ * <p>
+ * With sharding a batch is written as one transaction per shard its SSNs belong to, and a failed write rejects
+ * just the rows of that shard.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CreditHistoryIngestionService {
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    private static final Set<String> ACCOUNT_TYPES = names(CreditHistory.AccountType.class);
+    private static final Set<String> PAYMENT_STATUSES = names(CreditHistory.PaymentStatus.class);
+
+    private final CreditHistoryRepository creditHistoryRepository;
+    private final CreditAggregateRepository creditAggregateRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final ShardRouter shardRouter;
+    private final ObjectMapper objectMapper;
+    private final CreditBureauProperties properties;
+
+    public Mono<BulkIngestionSummary> ingest(Flux<String> lines, Format format) {
+        CreditBureauProperties.Ingestion config = properties.getIngestion();
+
+        return Mono.defer(() -> {
+            Progress progress = new Progress(config.getMaxReportedErrors());
+            RowParser parser = format == Format.CSV ? new CsvRowParser() : this::parseJson;
+            log.info("Starting {} credit history ingestion", format);
+
+            return lines
+                    .index()
+                    .filter(line -> !line.getT2().isBlank())
+                    .mapNotNull(line -> parse(parser, line.getT1() + 1, line.getT2(), progress))
+                    .buffer(config.getBatchSize())
+                    .flatMap(batch -> write(batch, progress), config.getConcurrency())
+                    .then(Mono.fromSupplier(progress::summary))
+                    .doOnNext(summary -> log.info(
+                            "Finished credit history ingestion: {} accepted, {} rejected in {} ms",
+                            summary.getAcceptedRows(), summary.getRejectedRows(), summary.getElapsedMillis()));
+        });
+    }
+
+    private ParsedRow parse(RowParser parser, long lineNumber, String line, Progress progress) {
+        CreateCreditHistoryRequest request;
+        try {
+            request = parser.parse(line);
+            if (request == null) {
+                return null; // CSV header
+            }
+            validate(request);
+        } catch (RuntimeException e) {
+            progress.totalRows.incrementAndGet();
+            progress.reject(lineNumber, e.getMessage());
+            return null;
+        }
+        progress.totalRows.incrementAndGet();
+        return new ParsedRow(lineNumber, CreditBureauService.newCreditHistory(request));
+    }
+
+    private Mono<Void> write(List<ParsedRow> batch, Progress progress) {
+        return shardRouter.writeAll(batch, row -> row.history().getSsn(), rows -> writeShard(rows, progress)).then();
+    }
+
+    private Mono<Void> writeShard(List<ParsedRow> batch, Progress progress) {
+        List<CreditHistory> rows = batch.stream().map(ParsedRow::history).toList();
+        // Sorted so concurrent batches touching the same SSNs take aggregate row locks in the same order
+        List<CreditAggregate> deltas = rows.stream()
+                .filter(history -> Boolean.TRUE.equals(history.getIsActive()))
+                .collect(Collectors.groupingBy(CreditHistory::getSsn))
+                .entrySet().stream()
+                .map(entry -> CreditBureauService.summarize(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparing(CreditAggregate::getSsn))
+                .toList();
+
+        return creditHistoryRepository.insertAll(rows)
+                .flatMap(inserted -> creditAggregateRepository.applyDeltas(deltas).thenReturn(inserted))
+                .as(transactionalOperator::transactional)
+                .doOnNext(progress.acceptedRows::addAndGet)
+                .onErrorResume(error -> {
+                    log.error("Failed to write credit history batch starting at line {}", batch.get(0).line(), error);
+                    batch.forEach(row -> progress.reject(row.line(), "Write failed: " + error.getMessage()));
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private CreateCreditHistoryRequest parseJson(String line) {
+        try {
+            return objectMapper.readValue(line, CreateCreditHistoryRequest.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private static void validate(CreateCreditHistoryRequest request) {
+        if (request.getSsn() == null) {
+            throw new IllegalArgumentException("SSN is required");
+        }
+        if (request.getAccountType() == null || !ACCOUNT_TYPES.contains(request.getAccountType())) {
+            throw new IllegalArgumentException("Invalid account type: " + request.getAccountType());
+        }
+        if (request.getCreditorName() == null || request.getCreditorName().isBlank()
+                || request.getCreditorName().length() > 100) {
+            throw new IllegalArgumentException("Creditor name is required and limited to 100 characters");
+        }
+        if (request.getPaymentStatus() == null || !PAYMENT_STATUSES.contains(request.getPaymentStatus())) {
+            throw new IllegalArgumentException("Invalid payment status: " + request.getPaymentStatus());
+        }
+        requireNonNegative("originalAmount", request.getOriginalAmount());
+        requireNonNegative("currentBalance", request.getCurrentBalance());
+        requireNonNegative("creditLimit", request.getCreditLimit());
+        if (request.getDaysLate() != null && request.getDaysLate() < 0) {
+            throw new IllegalArgumentException("daysLate must not be negative");
+        }
+    }
+
+    private static void requireNonNegative(String field, BigDecimal amount) {
+        if (amount != null && amount.signum() < 0) {
+            throw new IllegalArgumentException(field + " must not be negative");
+        }
+    }
+
+    private static <E extends Enum<E>> Set<String> names(Class<E> type) {
+        return EnumSet.allOf(type).stream().map(Enum::name).collect(Collectors.toUnmodifiableSet());
+    }
+
+    @FunctionalInterface
+    private interface RowParser {
+        CreateCreditHistoryRequest parse(String line);
+    }
+
+    private record ParsedRow(long line, CreditHistory history) {
+    }
+
+    /**
+     * Comma-separated rows whose first line is a header naming {@link CreateCreditHistoryRequest} fields, in
+     * either camelCase or snake_case. Fields may be double-quoted; unknown columns are ignored.
+     */
+    private static final class CsvRowParser implements RowParser {
+
+        private List<String> columns;
+
+        @Override
+        public CreateCreditHistoryRequest parse(String line) {
+            List<String> fields = split(line);
+            if (columns == null) {
+                columns = fields.stream()
+                        .map(column -> column.trim().replace("_", "").toLowerCase(Locale.ROOT))
+                        .toList();
+                return null;
+            }
+            if (fields.size() != columns.size()) {
+                throw new IllegalArgumentException(
+                        "Expected " + columns.size() + " columns but found " + fields.size());
+            }
+
+            CreateCreditHistoryRequest request = new CreateCreditHistoryRequest();
+            for (int i = 0; i < fields.size(); i++) {
+                String value = fields.get(i).trim();
+                if (value.isEmpty()) {
+                    continue;
+                }
+                try {
+                    switch (columns.get(i)) {
+                        case "ssn" -> request.setSsn(Ssn.of(value));
+                        case "accounttype" -> request.setAccountType(value);
+                        case "creditorname" -> request.setCreditorName(value);
+                        case "originalamount" -> request.setOriginalAmount(new BigDecimal(value));
+                        case "currentbalance" -> request.setCurrentBalance(new BigDecimal(value));
+                        case "creditlimit" -> request.setCreditLimit(new BigDecimal(value));
+                        case "paymentstatus" -> request.setPaymentStatus(value);
+                        case "dayslate" -> request.setDaysLate(Integer.valueOf(value));
+                        case "accountopendate" -> request.setAccountOpenDate(dateTime(value));
+                        case "lastpaymentdate" -> request.setLastPaymentDate(dateTime(value));
+                        case "isactive" -> request.setIsActive(Boolean.valueOf(value));
+                        default -> {
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    throw new IllegalArgumentException("Invalid value for column " + columns.get(i) + ": " + value);
+                }
+            }
+            return request;
+        }
+
+        private static LocalDateTime dateTime(String value) {
+            return value.length() == 10 ? LocalDate.parse(value).atStartOfDay() : LocalDateTime.parse(value);
+        }
+
+        private static List<String> split(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    private static final class Progress {
+
+        private final long startNanos = System.nanoTime();
+        private final int maxReportedErrors;
+        private final AtomicLong totalRows = new AtomicLong();
+        private final AtomicLong acceptedRows = new AtomicLong();
+        private final AtomicLong rejectedRows = new AtomicLong();
+        private final AtomicInteger reportedErrors = new AtomicInteger();
+        private final Queue<BulkIngestionSummary.RowError> errors = new ConcurrentLinkedQueue<>();
+
+        private Progress(int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+
+        private void reject(long line, String message) {
+            rejectedRows.incrementAndGet();
+            if (reportedErrors.incrementAndGet() <= maxReportedErrors) {
+                errors.add(BulkIngestionSummary.RowError.builder().line(line).message(message).build());
+            }
+        }
+
+        private BulkIngestionSummary summary() {
+            return BulkIngestionSummary.builder()
+                    .totalRows(totalRows.get())
+                    .acceptedRows(acceptedRows.get())
+                    .rejectedRows(rejectedRows.get())
+                    .elapsedMillis((System.nanoTime() - startNanos) / 1_000_000)
+                    .errors(errors.stream()
+                            .sorted(Comparator.comparingLong(BulkIngestionSummary.RowError::getLine))
+                            .toList())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.rjtmahinay.credit.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rjtmahinay.credit.config.CreditBureauProperties;
+import com.rjtmahinay.credit.model.CreditScore;
+import com.rjtmahinay.credit.model.Ssn;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Bounded, TTL-evicting read-through cache of {@link CreditScore} by SSN.
+ * <p>
+ * Loads only populate absent entries while writes always overwrite, so a lookup that raced with an
+ * update can never replace the freshly written score with the stale one it read.
+ * <p>
+ * A miss is answered from the {@link ScoreSnapshotStore} when it holds the SSN, and the entry is then loaded in
+ * the background to revalidate it; only SSNs the snapshot cannot answer wait on the database.
+ */
+@Slf4j
+@Component
+public class CreditScoreCache {
+
+    private final Cache<Ssn, CreditScore> cache;
+    private final ScoreSnapshotStore snapshots;
+    private final Set<Ssn> revalidating = ConcurrentHashMap.newKeySet();
+
+    public CreditScoreCache(CreditBureauProperties properties, ScoreSnapshotStore snapshots,
+            MeterRegistry meterRegistry) {
+        CreditBureauProperties.Cache config = properties.getCache();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getTimeToLive())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "creditScores");
+        this.snapshots = snapshots;
+    }
+
+    public Mono<CreditScore> get(Ssn ssn, Function<Ssn, Mono<CreditScore>> loader) {
+        return Mono.defer(() -> {
+            CreditScore cached = cache.getIfPresent(ssn);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            Mono<CreditScore> load = loader.apply(ssn).doOnNext(loaded -> cache.asMap().putIfAbsent(ssn, loaded));
+            CreditScore snapshotted = snapshots.find(ssn);
+            if (snapshotted == null) {
+                return load;
+            }
+            revalidate(ssn, load);
+            return Mono.just(snapshotted);
+        });
+    }
+
+    private void revalidate(Ssn ssn, Mono<CreditScore> load) {
+        if (!revalidating.add(ssn)) {
+            return;
+        }
+        // A score the database no longer has stops being answered from the snapshot
+        load.switchIfEmpty(Mono.fromRunnable(() -> snapshots.invalidate(ssn)))
+                .doFinally(signal -> revalidating.remove(ssn))
+                .subscribe(null, error -> log.warn("Could not revalidate snapshotted credit score", error));
+    }
+
+    public Map<Ssn, CreditScore> getAllPresent(Collection<Ssn> ssns) {
+        return cache.getAllPresent(ssns);
+    }
+
+    public void put(CreditScore creditScore) {
+        snapshots.invalidate(creditScore.getSsn());
+        cache.put(creditScore.getSsn(), creditScore);
+    }
+
+    /**
+     * Caches a score just read from the database. Unlike {@link #put} it is not a change, so the snapshot is kept,
+     * and like any load it never replaces an entry a concurrent write made.
+     */
+    public void putLoaded(CreditScore creditScore) {
+        cache.asMap().putIfAbsent(creditScore.getSsn(), creditScore);
+    }
+
+    public void invalidate(Ssn ssn) {
+        snapshots.invalidate(ssn);
+        cache.invalidate(ssn);
+    }
+}
@@ -0,0 +1,323 @@
+package com.rjtmahinay.credit.service;
+
+import com.rjtmahinay.credit.CreditBureauServiceApplication;
+import com.rjtmahinay.credit.config.CreditBureauProperties;
+import com.rjtmahinay.credit.model.CreditAggregate;
+import com.rjtmahinay.credit.model.CreditHistory;
+import com.rjtmahinay.credit.model.CreditScore;
+import com.rjtmahinay.credit.model.Ssn;
+import com.rjtmahinay.credit.repository.CreditAggregateRepository;
+import com.rjtmahinay.credit.repository.CreditHistoryRepository;
+import com.rjtmahinay.credit.repository.CreditScoreRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Generates a synthetic population of applicants, each with a credit score and a credit history, for scaling
+ * tests, and loads it into the configured database with multi-row inserts.
+ * <p>
+ * Scores follow a skewed bell around the low 700s with a subprime tail; the number of accounts per applicant is
+ * log-normal around {@code credit.dataset.mean-accounts}; account types, limits, balances, utilization and
+ * delinquency are drawn so that lower scores carry more debt and more late payments. Every applicant is drawn
+ * from a random source derived only from the seed and its position, so the dataset does not depend on batch
+ * size, concurrency or the order batches are written in. Each batch of applicants is generated on the
+ * CPU-bound scheduler and written, together with its {@code credit_aggregates} rows, in one transaction (one
+ * per shard with sharding).
+ * <p>
+ * Runs at startup with the {@code dataset} profile, or standalone through {@link #main}, which loads the
+ * dataset without starting the web server and exits.
+ */
+@Slf4j
+@Component
+@Profile("dataset")
+@RequiredArgsConstructor
+public class DatasetGenerator implements ApplicationRunner {
+
+    private static final String[] FIRST_NAMES = { "James", "Mary", "Robert", "Patricia", "John", "Jennifer",
+            "Michael", "Linda", "David", "Elizabeth", "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica",
+            "Thomas", "Sarah", "Carlos", "Maria", "Wei", "Mei", "Ahmed", "Fatima", "Raj", "Priya" };
+    private static final String[] LAST_NAMES = { "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia",
+            "Miller", "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Wilson", "Anderson", "Thomas",
+            "Taylor", "Moore", "Jackson", "Martin", "Lee", "Nguyen", "Chen", "Patel", "Kim", "Khan", "Singh" };
+    private static final String[] CARD_ISSUERS = { "Chase Bank", "Capital One", "Citibank", "Discover",
+            "American Express", "Bank of America", "Synchrony Bank" };
+    private static final String[] LENDERS = { "Wells Fargo", "SoFi", "LendingClub", "US Bank", "PNC Bank",
+            "Navy Federal Credit Union" };
+    private static final String[] AUTO_LENDERS = { "Toyota Financial", "Ford Credit", "Ally Financial",
+            "Honda Finance" };
+    private static final String[] MORTGAGE_LENDERS = { "Rocket Mortgage", "Wells Fargo Home Mortgage",
+            "Quicken Loans", "Chase Home Lending" };
+    private static final double ACCOUNTS_SIGMA = 0.6;
+
+    private final CreditScoreRepository creditScoreRepository;
+    private final CreditHistoryRepository creditHistoryRepository;
+    private final CreditAggregateRepository creditAggregateRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final ShardRouter shardRouter;
+    private final ScorePolicyEngine scorePolicyEngine;
+    private final CreditBureauProperties properties;
+
+    /**
+     * Loads the dataset without starting the web server and exits once it is written. Point
+     * {@code spring.r2dbc.url} at a persistent database, since the default in-memory one is gone on exit.
+     */
+    public static void main(String[] args) {
+        SpringApplication application = new SpringApplication(CreditBureauServiceApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        application.setAdditionalProfiles("dataset");
+        System.exit(SpringApplication.exit(application.run(args)));
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        generate().block();
+    }
+
+    public Mono<Void> generate() {
+        CreditBureauProperties.Dataset config = properties.getDataset();
+        int applicants = config.getApplicants();
+        int batchSize = config.getBatchSize();
+        if (applicants <= 0 || config.getSsnBase() < 0
+                || (long) config.getSsnBase() + applicants - 1 > 999_999_999) {
+            return Mono.error(new IllegalArgumentException("credit.dataset.applicants must be positive and every "
+                    + "SSN from credit.dataset.ssn-base nine digits"));
+        }
+        LocalDateTime asOf = (config.getAsOf() != null ? config.getAsOf() : LocalDate.now()).atStartOfDay();
+        AtomicLong scores = new AtomicLong();
+        AtomicLong tradelines = new AtomicLong();
+
+        Ssn first = new Ssn(config.getSsnBase());
+        return shardRouter.read(first, creditScoreRepository.existsBySsn(first))
+                .flatMap(exists -> exists
+                        ? Mono.error(new IllegalStateException("SSN " + first
+                                + " already has a score; choose another credit.dataset.ssn-base"))
+                        : Mono.just(System.nanoTime()))
+                .flatMap(start -> {
+                    log.info("Generating {} applicants from SSN {} with seed {} as of {}", applicants,
+                            first, config.getSeed(), asOf.toLocalDate());
+                    Disposable progress = Flux.interval(Duration.ofSeconds(10))
+                            .subscribe(tick -> log.info("Dataset progress: {} of {} scores, {} tradelines, {} rows/min",
+                                    scores.get(), applicants, tradelines.get(),
+                                    perMinute(scores.get() + tradelines.get(), start)));
+
+                    return Flux.range(0, (applicants + batchSize - 1) / batchSize)
+                            .flatMap(batch -> Mono.fromCallable(() -> generateBatch(config, batch, asOf))
+                                            .subscribeOn(Schedulers.parallel())
+                                            .flatMap(generated -> write(generated, batchSize))
+                                            .doOnNext(generated -> {
+                                                scores.addAndGet(generated.scores().size());
+                                                tradelines.addAndGet(generated.history().size());
+                                            }),
+                                    config.getConcurrency())
+                            .then(Mono.fromRunnable(() -> log.info(
+                                    "Generated {} scores and {} tradelines in {} s ({} rows/min)", scores.get(),
+                                    tradelines.get(), Duration.ofNanos(System.nanoTime() - start).toSeconds(),
+                                    perMinute(scores.get() + tradelines.get(), start))))
+                            .doFinally(signal -> progress.dispose());
+                })
+                .then();
+    }
+
+    private Mono<Batch> write(Batch batch, int rowsPerStatement) {
+        return shardRouter.writeAll(batch.scores(), CreditScore::getSsn,
+                        scores -> writeShard(batch.of(scores), rowsPerStatement))
+                .then(Mono.just(batch));
+    }
+
+    private Mono<Void> writeShard(Batch batch, int rowsPerStatement) {
+        return creditScoreRepository.insertAll(batch.scores())
+                .thenMany(Flux.fromIterable(batch.history()).buffer(rowsPerStatement)
+                        .concatMap(creditHistoryRepository::insertAll))
+                .then(creditAggregateRepository.applyDeltas(batch.aggregates()))
+                .as(transactionalOperator::transactional)
+                .then();
+    }
+
+    private Batch generateBatch(CreditBureauProperties.Dataset config, int batch, LocalDateTime asOf) {
+        int first = batch * config.getBatchSize();
+        int last = Math.min(first + config.getBatchSize(), config.getApplicants());
+        List<CreditScore> scores = new ArrayList<>(last - first);
+        List<CreditHistory> history = new ArrayList<>((int) ((last - first) * config.getMeanAccounts() * 1.2));
+        List<CreditAggregate> aggregates = new ArrayList<>(last - first);
+
+        for (int applicant = first; applicant < last; applicant++) {
+            SplittableRandom random = new SplittableRandom(mix(config.getSeed() + mix(applicant)));
+            Ssn ssn = new Ssn(config.getSsnBase() + applicant);
+            int score = score(random);
+            scores.add(CreditScore.builder()
+                    .ssn(ssn)
+                    .firstName(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)])
+                    .lastName(LAST_NAMES[random.nextInt(LAST_NAMES.length)])
+                    .score(score)
+                    .riskLevel(scorePolicyEngine.riskLevel(score))
+                    .lastUpdated(asOf.minusDays(random.nextInt(90)))
+                    .createdAt(asOf.minusDays(90 + random.nextInt(3_650)))
+                    .build());
+
+            List<CreditHistory> active = new ArrayList<>();
+            for (int account = accounts(random, config.getMeanAccounts()); account > 0; account--) {
+                CreditHistory tradeline = tradeline(ssn, score, random, asOf);
+                history.add(tradeline);
+                if (tradeline.getIsActive()) {
+                    active.add(tradeline);
+                }
+            }
+            if (!active.isEmpty()) {
+                aggregates.add(CreditBureauService.summarize(ssn, active));
+            }
+        }
+        return new Batch(scores, history, aggregates);
+    }
+
+    /**
+     * A prime-heavy bell with a subprime tail, clamped to 300-850.
+     */
+    private static int score(SplittableRandom random) {
+        double score = random.nextDouble() < 0.82
+                ? 725 + 55 * random.nextGaussian()
+                : 590 + 65 * random.nextGaussian();
+        return (int) Math.round(Math.min(850, Math.max(300, score)));
+    }
+
+    /**
+     * Log-normal with the given mean, so most files are moderate and a few are very deep; about 3% are empty.
+     */
+    private static int accounts(SplittableRandom random, double mean) {
+        if (random.nextInt(100) < 3) {
+            return 0;
+        }
+        double mu = Math.log(mean) - ACCOUNTS_SIGMA * ACCOUNTS_SIGMA / 2;
+        return Math.max(1, (int) Math.round(Math.exp(mu + ACCOUNTS_SIGMA * random.nextGaussian())));
+    }
+
+    private static CreditHistory tradeline(Ssn ssn, int score, SplittableRandom random, LocalDateTime asOf) {
+        // 0 for the best scores up to 1 for the worst: drives utilization and delinquency
+        double risk = (850 - score) / 550.0;
+        boolean active = random.nextInt(100) < 85;
+        int type = random.nextInt(100);
+
+        String accountType;
+        String creditor;
+        BigDecimal originalAmount = null;
+        BigDecimal creditLimit = null;
+        BigDecimal balance;
+        int maxAgeDays;
+        if (type < 55) {
+            accountType = "CREDIT_CARD";
+            creditor = CARD_ISSUERS[random.nextInt(CARD_ISSUERS.length)];
+            creditLimit = money(logNormal(random, 2_000 + 8_000 * (1 - risk), 0.7), 100);
+            balance = creditLimit.multiply(BigDecimal.valueOf(Math.min(1, random.nextDouble() * (0.15 + risk))))
+                    .setScale(2, RoundingMode.HALF_UP);
+            maxAgeDays = 365 * 20;
+        } else if (type < 75) {
+            accountType = "LOAN";
+            creditor = LENDERS[random.nextInt(LENDERS.length)];
+            originalAmount = money(logNormal(random, 12_000, 0.6), 500);
+            balance = remaining(originalAmount, random);
+            maxAgeDays = 365 * 7;
+        } else if (type < 90) {
+            accountType = "AUTO_LOAN";
+            creditor = AUTO_LENDERS[random.nextInt(AUTO_LENDERS.length)];
+            originalAmount = money(logNormal(random, 28_000, 0.4), 500);
+            balance = remaining(originalAmount, random);
+            maxAgeDays = 365 * 7;
+        } else {
+            accountType = "MORTGAGE";
+            creditor = MORTGAGE_LENDERS[random.nextInt(MORTGAGE_LENDERS.length)];
+            originalAmount = money(logNormal(random, 260_000, 0.5), 1_000);
+            balance = remaining(originalAmount, random);
+            maxAgeDays = 365 * 30;
+        }
+
+        String paymentStatus = "CURRENT";
+        int daysLate = 0;
+        double delinquency = score >= 740 ? 0.01 : score >= 670 ? 0.04 : score >= 580 ? 0.12 : 0.30;
+        if (active && random.nextDouble() < delinquency) {
+            int severity = random.nextInt(100);
+            paymentStatus = severity < 50 ? "LATE_30" : severity < 75 ? "LATE_60" : severity < 87 ? "LATE_90"
+                    : severity < 95 ? "CHARGED_OFF" : "COLLECTIONS";
+            daysLate = severity < 50 ? 30 : severity < 75 ? 60 : severity < 87 ? 90 : 120 + random.nextInt(240);
+        }
+
+        LocalDateTime opened = asOf.minusDays(30 + random.nextInt(maxAgeDays));
+        return CreditHistory.builder()
+                .ssn(ssn)
+                .accountType(accountType)
+                .creditorName(creditor)
+                .originalAmount(originalAmount)
+                .currentBalance(active ? balance : BigDecimal.ZERO.setScale(2))
+                .creditLimit(creditLimit)
+                .paymentStatus(paymentStatus)
+                .daysLate(daysLate)
+                .accountOpenDate(opened)
+                .lastPaymentDate(active ? asOf.minusDays(daysLate + random.nextInt(30)) : null)
+                .reportedDate(asOf.minusDays(random.nextInt(30)))
+                .isActive(active)
+                .build();
+    }
+
+    private static double logNormal(SplittableRandom random, double median, double sigma) {
+        return median * Math.exp(sigma * random.nextGaussian());
+    }
+
+    private static BigDecimal money(double amount, int roundTo) {
+        return BigDecimal.valueOf(Math.max(1, Math.round(amount / roundTo)) * (long) roundTo).setScale(2);
+    }
+
+    private static BigDecimal remaining(BigDecimal originalAmount, SplittableRandom random) {
+        return originalAmount.multiply(BigDecimal.valueOf(random.nextDouble())).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static long perMinute(long rows, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        return elapsed > 0 ? Math.round(rows * 60e9 / elapsed) : 0;
+    }
+
+    /**
+     * SplitMix64 finalizer, so neighbouring applicants get unrelated random streams.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private record Batch(List<CreditScore> scores, List<CreditHistory> history, List<CreditAggregate> aggregates) {
+
+        /**
+         * The rows of this batch that belong to the applicants of {@code applicantScores}.
+         */
+        Batch of(List<CreditScore> applicantScores) {
+            if (applicantScores.size() == scores.size()) {
+                return this;
+            }
+            Set<Ssn> ssns = applicantScores.stream().map(CreditScore::getSsn).collect(Collectors.toSet());
+            return new Batch(applicantScores,
+                    history.stream().filter(row -> ssns.contains(row.getSsn())).toList(),
+                    aggregates.stream().filter(row -> ssns.contains(row.getSsn())).toList());
+        }
+    }
+}
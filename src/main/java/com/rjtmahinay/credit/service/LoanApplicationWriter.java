@@ -0,0 +1,206 @@
+package com.rjtmahinay.credit.service;
+
+import com.rjtmahinay.credit.config.CreditBureauProperties;
+import com.rjtmahinay.credit.dto.CreditCheckRequest;
+import com.rjtmahinay.credit.dto.CreditCheckResponse;
+import com.rjtmahinay.credit.model.LoanApplication;
+import com.rjtmahinay.credit.repository.LoanApplicationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Write-behind log of credit decisions into {@code loan_applications}.
+ * <p>
+ * {@link #submit} only adds the record to a lock-free multi-producer queue, so a credit check never waits on the
+ * audit write or on other checks; a single consumer flushes the queue with multi-row inserts whenever a batch
+ * fills or the flush interval elapses. A batch the database rejects is retried row by row, so only the offending
+ * records are lost. Once {@code capacity} records are waiting, further ones are dropped and counted rather than
+ * slowing the caller. The writer starts before and stops after the web server, so everything accepted is drained
+ * on shutdown.
+ */
+@Slf4j
+@Component
+public class LoanApplicationWriter implements SmartLifecycle {
+
+    private final LoanApplicationRepository loanApplicationRepository;
+    private final CreditBureauProperties.WriteBehind config;
+    private final Queue<LoanApplication> queue = Queues.<LoanApplication>unboundedMultiproducer().get();
+    // Nudges the consumer when a batch has filled; a nudge lost to a concurrent one is covered by that one
+    private final Sinks.Many<Integer> batchFilled = Sinks.many().multicast().directBestEffort();
+    private final Sinks.Empty<Void> stopped = Sinks.empty();
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter failed;
+    private final AtomicBoolean overflowing = new AtomicBoolean();
+    private final AtomicInteger pending = new AtomicInteger(); // accepted but not yet written
+    private volatile boolean stopping;
+
+    private volatile Disposable subscription;
+    private volatile CountDownLatch drained;
+
+    public LoanApplicationWriter(LoanApplicationRepository loanApplicationRepository,
+            CreditBureauProperties properties, MeterRegistry meterRegistry) {
+        this.loanApplicationRepository = loanApplicationRepository;
+        this.config = properties.getWriteBehind();
+        this.written = outcomeCounter(meterRegistry, "written");
+        this.dropped = outcomeCounter(meterRegistry, "dropped");
+        this.failed = outcomeCounter(meterRegistry, "failed");
+        meterRegistry.gauge("loan.applications.write.pending", pending);
+    }
+
+    /**
+     * Queues the decision, under the application id already set on the response, for persistence without
+     * blocking.
+     */
+    public void submit(CreditCheckRequest request, CreditCheckResponse response) {
+        int waiting = pending.incrementAndGet();
+        if (stopping || waiting > config.getCapacity()) {
+            pending.decrementAndGet();
+            dropped.increment();
+            if (overflowing.compareAndSet(false, true)) {
+                log.warn("Loan application write queue is full or stopped; dropping records until it drains");
+            }
+            return;
+        }
+        queue.offer(toLoanApplication(request, response));
+        overflowing.set(false);
+        if (waiting % config.getBatchSize() == 0) {
+            batchFilled.tryEmitNext(waiting);
+        }
+    }
+
+    @Override
+    public void start() {
+        CountDownLatch latch = new CountDownLatch(1);
+        drained = latch;
+        subscription = Flux.merge(Flux.interval(config.getFlushInterval()), batchFilled.asFlux())
+                .onBackpressureDrop()
+                .takeUntilOther(stopped.asMono())
+                .concatMap(signal -> drain(), 1)
+                .then(Mono.defer(this::drain))
+                .doFinally(signal -> latch.countDown())
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        log.info("Draining {} pending loan applications", pending.get());
+        stopping = true;
+        stopped.tryEmitEmpty();
+        try {
+            if (!drained.await(config.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Timed out draining loan applications; {} left unwritten", pending.get());
+                subscription.dispose();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            subscription.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return subscription != null && !subscription.isDisposed() && drained.getCount() > 0;
+    }
+
+    /**
+     * Stops after the web server (which stops in earlier phases) so no request can enqueue after the drain.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    /**
+     * Writes everything queued, a batch at a time. Only ever runs on one subscriber at once.
+     */
+    private Mono<Void> drain() {
+        return Flux.<List<LoanApplication>>generate(sink -> {
+                    List<LoanApplication> batch = new ArrayList<>();
+                    LoanApplication application;
+                    while (batch.size() < config.getBatchSize() && (application = queue.poll()) != null) {
+                        batch.add(application);
+                    }
+                    if (batch.isEmpty()) {
+                        sink.complete();
+                    } else {
+                        sink.next(batch);
+                    }
+                })
+                .concatMap(this::write)
+                .then();
+    }
+
+    private Mono<Long> write(List<LoanApplication> batch) {
+        return insert(batch).doFinally(signal -> pending.addAndGet(-batch.size()));
+    }
+
+    /**
+     * Inserts the batch in one statement, or, if that fails, one row at a time so that a record the table
+     * rejects (say, a value longer than its column) is the only one lost.
+     */
+    private Mono<Long> insert(List<LoanApplication> batch) {
+        return loanApplicationRepository.insertAll(batch)
+                .doOnNext(written::increment)
+                .onErrorResume(error -> {
+                    if (batch.size() == 1) {
+                        log.error("Failed to write loan application {}", batch.get(0).getApplicationId(), error);
+                        failed.increment();
+                        return Mono.empty();
+                    }
+                    log.warn("Failed to write {} loan applications in one statement; writing them one at a time",
+                            batch.size(), error);
+                    return Flux.fromIterable(batch)
+                            .concatMap(application -> insert(List.of(application)))
+                            .reduce(0L, Long::sum);
+                });
+    }
+
+    private static LoanApplication toLoanApplication(CreditCheckRequest request, CreditCheckResponse response) {
+        // Callers may send only an SSN; the table's NOT NULL columns get explicit placeholders instead
+        return LoanApplication.builder()
+                .applicationId(response.getApplicationId())
+                .ssn(response.getSsn())
+                .firstName(name(request.getFirstName(), response.getFirstName()))
+                .lastName(name(request.getLastName(), response.getLastName()))
+                .requestedAmount(Objects.requireNonNullElse(request.getRequestedAmount(), BigDecimal.ZERO))
+                .loanType(Objects.requireNonNullElse(request.getLoanType(), "UNSPECIFIED"))
+                .termMonths(Objects.requireNonNullElse(request.getTermMonths(), 0))
+                .annualIncome(Objects.requireNonNullElse(request.getAnnualIncome(), BigDecimal.ZERO))
+                .employmentStatus(Objects.requireNonNullElse(request.getEmploymentStatus(), "UNSPECIFIED"))
+                .status(response.getDecision())
+                .rejectionReason(response.getRejectionReason())
+                .applicationDate(response.getCheckDate())
+                .processedDate("MANUAL_REVIEW".equals(response.getDecision()) ? null : response.getCheckDate())
+                .build();
+    }
+
+    private static String name(String requested, String onFile) {
+        return requested != null ? requested : Objects.requireNonNullElse(onFile, "");
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("loan.applications.write")
+                .description("Loan applications handled by the write-behind queue")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
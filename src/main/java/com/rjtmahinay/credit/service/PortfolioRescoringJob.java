@@ -0,0 +1,323 @@
+package com.rjtmahinay.credit.service;
+
+import com.rjtmahinay.credit.config.CreditBureauProperties;
+import com.rjtmahinay.credit.config.ShardRoutingConnectionFactory;
+import com.rjtmahinay.credit.dto.CreditChangeEvent;
+import com.rjtmahinay.credit.model.CreditScore;
+import com.rjtmahinay.credit.model.RescoreCheckpoint;
+import com.rjtmahinay.credit.model.Ssn;
+import com.rjtmahinay.credit.repository.CreditScoreRepository;
+import com.rjtmahinay.credit.repository.RescoreCheckpointRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Re-derives the risk level of every stored credit score from the current {@link ScorePolicyEngine} bands, so
+ * that a change to the bands reaches scores written before it.
+ * <p>
+ * A pass walks {@code credit_scores} in SSN order, one keyset-paginated chunk at a time. Chunks are re-scored in
+ * parallel on the CPU-bound scheduler; only scores whose risk level changes are written back, one statement per
+ * chunk with a bounded number of chunks in flight. Chunks complete in SSN order and a checkpoint is stored after
+ * each one, so a pass stopped for any reason resumes after the last chunk written. Re-running a chunk is
+ * harmless because its scores already carry the new risk level. A score changed by a live request while its
+ * chunk was in flight keeps what that request wrote.
+ * <p>
+ * The pass is paced to {@code credit.rescore.max-rows-per-second} and pauses while live requests are waiting
+ * for a database connection.
+ * <p>
+ * With sharding each chunk is the lowest SSNs of every shard's next chunk merged, so the pass still walks all
+ * scores in SSN order, and its writes go to each score's shard.
+ */
+@Slf4j
+@Component
+public class PortfolioRescoringJob implements SmartLifecycle {
+
+    static final String JOB = "portfolio-rescore";
+
+    private final CreditScoreRepository creditScoreRepository;
+    private final RescoreCheckpointRepository rescoreCheckpointRepository;
+    private final ScorePolicyEngine scorePolicyEngine;
+    private final CreditScoreCache creditScoreCache;
+    private final CreditChangeFeed creditChangeFeed;
+    private final ShardRouter shardRouter;
+    private final List<ConnectionPool> pools;
+    private final CreditBureauProperties.Rescore config;
+    private final Counter scanned;
+    private final Counter updated;
+    private final Counter conflicted;
+    private final Counter busyBackoffs;
+    private final AtomicBoolean active = new AtomicBoolean();
+
+    private volatile boolean running;
+    private volatile Disposable pass;
+    private volatile RescoreCheckpoint checkpoint;
+    private volatile Throughput throughput;
+    private volatile String lastError;
+
+    public PortfolioRescoringJob(CreditScoreRepository creditScoreRepository,
+            RescoreCheckpointRepository rescoreCheckpointRepository, ScorePolicyEngine scorePolicyEngine,
+            CreditScoreCache creditScoreCache, CreditChangeFeed creditChangeFeed,
+            ShardRouter shardRouter, ConnectionFactory connectionFactory, CreditBureauProperties properties,
+            MeterRegistry meterRegistry) {
+        this.creditScoreRepository = creditScoreRepository;
+        this.rescoreCheckpointRepository = rescoreCheckpointRepository;
+        this.scorePolicyEngine = scorePolicyEngine;
+        this.creditScoreCache = creditScoreCache;
+        this.creditChangeFeed = creditChangeFeed;
+        this.shardRouter = shardRouter;
+        this.pools = ShardRoutingConnectionFactory.targets(connectionFactory).stream()
+                .filter(ConnectionPool.class::isInstance)
+                .map(ConnectionPool.class::cast)
+                .toList();
+        this.config = properties.getRescore();
+        this.scanned = rowCounter(meterRegistry, "scanned");
+        this.updated = rowCounter(meterRegistry, "updated");
+        this.conflicted = rowCounter(meterRegistry, "conflicted");
+        this.busyBackoffs = Counter.builder("credit.rescore.busy.backoffs")
+                .description("Pauses taken because live requests were waiting for a database connection")
+                .register(meterRegistry);
+        meterRegistry.gauge("credit.rescore.active", active, flag -> flag.get() ? 1 : 0);
+    }
+
+    /**
+     * Resumes the unfinished pass, or starts a new one if there is none or {@code fromBeginning} is set.
+     *
+     * @throws IllegalStateException (signalled) if a pass is already running
+     */
+    public Mono<RescoreCheckpoint> start(boolean fromBeginning) {
+        return Mono.defer(() -> {
+            if (!active.compareAndSet(false, true)) {
+                return Mono.error(new IllegalStateException("A re-scoring pass is already running"));
+            }
+            return rescoreCheckpointRepository.findById(JOB)
+                    .filter(existing -> !fromBeginning && !existing.isCompleted())
+                    .switchIfEmpty(Mono.defer(() -> rescoreCheckpointRepository.store(newCheckpoint())))
+                    .doOnNext(this::launch)
+                    .doOnError(error -> active.set(false));
+        });
+    }
+
+    /**
+     * Stops the running pass, if any; it resumes from its last checkpoint on the next {@link #start}.
+     */
+    public void cancel() {
+        Disposable current = pass;
+        if (current != null && !current.isDisposed()) {
+            log.info("Stopping re-scoring pass after SSN {}", lastSsn(checkpoint));
+            current.dispose();
+            active.set(false);
+        }
+    }
+
+    public boolean isActive() {
+        return active.get();
+    }
+
+    /**
+     * The latest checkpoint of the current or most recent pass, or empty if none was ever started.
+     */
+    public Mono<RescoreCheckpoint> checkpoint() {
+        return checkpoint != null ? Mono.just(checkpoint) : rescoreCheckpointRepository.findById(JOB);
+    }
+
+    /**
+     * Credit scores re-scored per second since this instance started or resumed the pass.
+     */
+    public double rowsPerSecond() {
+        Throughput current = throughput;
+        return current != null ? current.rowsPerSecond() : 0;
+    }
+
+    public String lastError() {
+        return lastError;
+    }
+
+    private void launch(RescoreCheckpoint from) {
+        checkpoint = from;
+        throughput = new Throughput();
+        lastError = null;
+        log.info("Starting re-scoring pass after SSN {} with score policy version {}", lastSsn(from),
+                scorePolicyEngine.version());
+
+        pass = chunksAfter(from.getLastSsn())
+                .concatMap(chunk -> Mono.delay(pace()).then(awaitIdlePool()).thenReturn(chunk))
+                .flatMapSequential(chunk -> Mono.fromCallable(() -> rescore(chunk)).subscribeOn(Schedulers.parallel()),
+                        Schedulers.DEFAULT_POOL_SIZE)
+                .flatMapSequential(this::write, config.getWriteConcurrency())
+                .concatMap(this::storeCheckpoint)
+                .then(Mono.defer(() -> rescoreCheckpointRepository.store(checkpoint.toBuilder()
+                        .completedAt(LocalDateTime.now())
+                        .build())))
+                .doFinally(signal -> active.set(false))
+                .subscribe(done -> {
+                    checkpoint = done;
+                    log.info("Finished re-scoring pass: {} scores scanned, {} updated", done.getRowsScanned(),
+                            done.getRowsUpdated());
+                }, error -> {
+                    lastError = error.toString();
+                    log.error("Re-scoring pass failed after SSN {}; it resumes from there on the next start",
+                            lastSsn(checkpoint), error);
+                });
+    }
+
+    private Flux<List<CreditScore>> chunksAfter(Integer lastSsn) {
+        int chunkSize = config.getChunkSize();
+        return readChunk(lastSsn != null ? lastSsn : -1)
+                .expand(chunk -> chunk.size() < chunkSize ? Mono.empty()
+                        : readChunk(chunk.get(chunk.size() - 1).getSsn().value()))
+                .filter(chunk -> !chunk.isEmpty());
+    }
+
+    private Mono<List<CreditScore>> readChunk(int afterSsn) {
+        return shardRouter.scatter(() -> creditScoreRepository.findPageAfterSsn(afterSsn, config.getChunkSize()),
+                        Comparator.comparing(CreditScore::getSsn))
+                .take(config.getChunkSize())
+                .collectList();
+    }
+
+    private Chunk rescore(List<CreditScore> scores) {
+        List<CreditScore> changed = new ArrayList<>();
+        for (CreditScore score : scores) {
+            String riskLevel = scorePolicyEngine.riskLevel(score.getScore());
+            if (!riskLevel.equals(score.getRiskLevel())) {
+                score.setRiskLevel(riskLevel);
+                changed.add(score);
+            }
+        }
+        return new Chunk(scores.get(scores.size() - 1).getSsn(), scores.size(), changed, 0);
+    }
+
+    private Mono<Chunk> write(Chunk chunk) {
+        return shardRouter.writeAll(chunk.changed(), CreditScore::getSsn, creditScoreRepository::updateRiskLevels)
+                .doOnNext(score -> {
+                    creditScoreCache.put(score);
+                    creditChangeFeed.scoreChanged(CreditChangeEvent.Type.SCORE_UPDATED, score);
+                })
+                .count()
+                .map(written -> new Chunk(chunk.last(), chunk.scanned(), chunk.changed(), written));
+    }
+
+    private Mono<Void> storeCheckpoint(Chunk chunk) {
+        RescoreCheckpoint next = checkpoint.toBuilder()
+                .lastSsn(chunk.last().value())
+                .rowsScanned(checkpoint.getRowsScanned() + chunk.scanned())
+                .rowsUpdated(checkpoint.getRowsUpdated() + chunk.written())
+                .checkpointedAt(LocalDateTime.now())
+                .build();
+        return rescoreCheckpointRepository.store(next)
+                .doOnNext(stored -> {
+                    checkpoint = stored;
+                    throughput.add(chunk.scanned());
+                    scanned.increment(chunk.scanned());
+                    updated.increment(chunk.written());
+                    conflicted.increment(chunk.changed().size() - chunk.written());
+                })
+                .then();
+    }
+
+    private Duration pace() {
+        return Duration.ofNanos(1_000_000_000L * config.getChunkSize() / Math.max(config.getMaxRowsPerSecond(), 1));
+    }
+
+    /**
+     * Completes once no request is queued for a pooled connection (on any shard), checking again every busy-backoff
+     * until then.
+     */
+    private Mono<Void> awaitIdlePool() {
+        if (pools.isEmpty()) {
+            return Mono.empty();
+        }
+        return Mono.fromSupplier(() -> pools.stream()
+                        .allMatch(pool -> pool.getMetrics().map(PoolMetrics::pendingAcquireSize).orElse(0) == 0))
+                .filter(idle -> idle)
+                .repeatWhenEmpty(Integer.MAX_VALUE, checks -> checks
+                        .doOnNext(check -> busyBackoffs.increment())
+                        .delayElements(config.getBusyBackoff()))
+                .then();
+    }
+
+    private static RescoreCheckpoint newCheckpoint() {
+        LocalDateTime now = LocalDateTime.now();
+        return RescoreCheckpoint.builder()
+                .job(JOB)
+                .rowsScanned(0L)
+                .rowsUpdated(0L)
+                .startedAt(now)
+                .checkpointedAt(now)
+                .build();
+    }
+
+    private static Object lastSsn(RescoreCheckpoint checkpoint) {
+        return checkpoint != null && checkpoint.getLastSsn() != null ? new Ssn(checkpoint.getLastSsn()) : "(none)";
+    }
+
+    private static Counter rowCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("credit.rescore.rows")
+                .description("Credit scores processed by the re-scoring job")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (!config.isResumeOnStartup()) {
+            return;
+        }
+        rescoreCheckpointRepository.findById(JOB)
+                .filter(existing -> !existing.isCompleted())
+                .flatMap(unfinished -> start(false))
+                .subscribe(resumed -> { }, error -> log.error("Could not resume the re-scoring pass", error));
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        cancel();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * A chunk of scores: the last SSN it covers, how many it holds, those whose risk level changed and how many of
+     * those were written.
+     */
+    private record Chunk(Ssn last, int scanned, List<CreditScore> changed, long written) {
+    }
+
+    private static final class Throughput {
+
+        private final long startedAt = System.nanoTime();
+        private final AtomicLong rows = new AtomicLong();
+
+        void add(long count) {
+            rows.addAndGet(count);
+        }
+
+        double rowsPerSecond() {
+            double seconds = (System.nanoTime() - startedAt) / 1e9;
+            return seconds > 0 ? rows.get() / seconds : 0;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.rjtmahinay.credit.service;
+
+import com.rjtmahinay.credit.config.CreditBureauProperties;
+import com.rjtmahinay.credit.config.ReplicaRoutingConnectionFactory;
+import com.rjtmahinay.credit.model.Ssn;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+import static com.rjtmahinay.credit.config.ReplicaRoutingConnectionFactory.onReplica;
+
+/**
+ * Sends reads to the read replicas when {@code credit.replicas} is enabled, except reads for SSNs written within
+ * {@code credit.replicas.read-your-writes-window}, which stay on the primary so that a client reads its own
+ * writes while the replicas catch up. Without replicas every method runs the query as given.
+ * <p>
+ * Writes are remembered in a fixed table of expiry times indexed by a hash of the SSN rather than per SSN, so
+ * memory stays the same however many SSNs are written; an SSN that shares a slot with one written recently is
+ * read from the primary as well.
+ */
+@Component
+public class ReplicaRouter {
+
+    private static final int SLOT_BITS = 16;
+
+    private final AtomicLongArray primaryUntil;
+    private final long windowNanos;
+
+    public ReplicaRouter(ObjectProvider<ReplicaRoutingConnectionFactory> replicas, CreditBureauProperties properties) {
+        if (replicas.getIfAvailable() == null) {
+            this.primaryUntil = null;
+            this.windowNanos = 0;
+            return;
+        }
+        this.primaryUntil = new AtomicLongArray(1 << SLOT_BITS);
+        this.windowNanos = properties.getReplicas().getReadYourWritesWindow().toNanos();
+        long now = System.nanoTime();
+        for (int slot = 0; slot < primaryUntil.length(); slot++) {
+            primaryUntil.set(slot, now);
+        }
+    }
+
+    public <T> Mono<T> read(Ssn ssn, Mono<T> query) {
+        return primaryUntil == null ? query
+                : Mono.defer(() -> recentlyWritten(ssn) ? query : query.contextWrite(onReplica()));
+    }
+
+    public <T> Flux<T> read(Ssn ssn, Flux<T> query) {
+        return primaryUntil == null ? query
+                : Flux.defer(() -> recentlyWritten(ssn) ? query : query.contextWrite(onReplica()));
+    }
+
+    /**
+     * Runs a query about the {@code items}' SSNs on a replica, or on the primary if any of them was written
+     * recently.
+     */
+    public <E, T> Flux<T> readAll(Collection<E> items, Function<E, Ssn> ssn, Flux<T> query) {
+        return primaryUntil == null ? query
+                : Flux.defer(() -> items.stream().map(ssn).anyMatch(this::recentlyWritten) ? query
+                        : query.contextWrite(onReplica()));
+    }
+
+    /**
+     * Runs a write, keeping reads for the SSN on the primary while it runs and for the window after it ends.
+     */
+    public <T> Mono<T> write(Ssn ssn, Mono<T> write) {
+        return primaryUntil == null ? write : Mono.defer(() -> {
+            written(ssn);
+            return write.doFinally(signal -> written(ssn));
+        });
+    }
+
+    /**
+     * Runs a write about the {@code items}' SSNs, keeping reads for them on the primary while it runs and for the
+     * window after it ends.
+     */
+    public <E, T> Flux<T> writeAll(Collection<E> items, Function<E, Ssn> ssn, Flux<T> write) {
+        return primaryUntil == null ? write : Flux.defer(() -> {
+            items.forEach(item -> written(ssn.apply(item)));
+            return write.doFinally(signal -> items.forEach(item -> written(ssn.apply(item))));
+        });
+    }
+
+    /**
+     * Keeps reads for the SSN on the primary for the window from now, for writes that only tell which SSN they
+     * changed once they are done.
+     */
+    public void written(Ssn ssn) {
+        if (primaryUntil == null) {
+            return;
+        }
+        primaryUntil.accumulateAndGet(slot(ssn), System.nanoTime() + windowNanos,
+                (current, until) -> until - current > 0 ? until : current);
+    }
+
+    private boolean recentlyWritten(Ssn ssn) {
+        return primaryUntil.get(slot(ssn)) - System.nanoTime() > 0;
+    }
+
+    // Fibonacci hashing spreads consecutive SSNs over the slots
+    private static int slot(Ssn ssn) {
+        return (ssn.value() * 0x9E3779B9) >>> (Integer.SIZE - SLOT_BITS);
+    }
+}
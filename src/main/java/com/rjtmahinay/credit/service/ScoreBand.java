@@ -0,0 +1,61 @@
+package com.rjtmahinay.credit.service;
+
+import com.rjtmahinay.credit.config.CreditBureauProperties;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Immutable, pre-validated form of a configured score band. Everything a credit decision needs is resolved up
+ * front so that applying the band allocates nothing beyond the amounts it returns.
+ */
+@Getter
+public final class ScoreBand {
+
+    private static final BigDecimal MONTHS_PER_YEAR = BigDecimal.valueOf(12);
+
+    private final int minScore;
+    private final String decision;
+    private final String riskLevel;
+    private final BigDecimal approvalFactor;
+    private final BigDecimal interestRate;
+    private final BigDecimal debtToIncomeApprovalLimit;
+    private final boolean fullApproval;
+    private final boolean noApproval;
+
+    ScoreBand(CreditBureauProperties.Band band) {
+        if (band.getDecision() == null || band.getRiskLevel() == null || band.getApprovalFactor() == null
+                || band.getInterestRate() == null) {
+            throw new IllegalArgumentException("Score band starting at " + band.getMinScore()
+                    + " must define decision, riskLevel, approvalFactor and interestRate");
+        }
+        this.minScore = band.getMinScore();
+        this.decision = band.getDecision();
+        this.riskLevel = band.getRiskLevel();
+        this.approvalFactor = band.getApprovalFactor();
+        this.interestRate = band.getInterestRate();
+        this.debtToIncomeApprovalLimit = band.getDebtToIncomeApprovalLimit();
+        this.fullApproval = approvalFactor.compareTo(BigDecimal.ONE) == 0;
+        this.noApproval = approvalFactor.signum() == 0;
+    }
+
+    public String decide(BigDecimal totalDebt, BigDecimal annualIncome) {
+        if (debtToIncomeApprovalLimit == null) {
+            return decision;
+        }
+        BigDecimal debtToIncomeRatio = totalDebt.divide(
+                annualIncome.divide(MONTHS_PER_YEAR, RoundingMode.HALF_UP), 2, RoundingMode.HALF_UP);
+        return debtToIncomeRatio.compareTo(debtToIncomeApprovalLimit) <= 0 ? "APPROVED" : decision;
+    }
+
+    public BigDecimal approvedAmount(BigDecimal requestedAmount) {
+        if (fullApproval) {
+            return requestedAmount;
+        }
+        if (noApproval) {
+            return BigDecimal.ZERO;
+        }
+        return requestedAmount.multiply(approvalFactor);
+    }
+}
@@ -0,0 +1,121 @@
+package com.rjtmahinay.credit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rjtmahinay.credit.config.CreditBureauProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Table-driven credit policy. The configured score bands are compiled into a lookup table indexed directly by
+ * score, so a credit check resolves its decision, risk level, approval factor and rate with one array read.
+ * A new policy can be installed at any time; in-flight checks keep the table they started with.
+ */
+@Slf4j
+@Component
+public class ScorePolicyEngine {
+
+    static final int MAX_SCORE = 1000;
+
+    private static final String LOW_SCORE_REASON = "Credit score too low";
+    private static final String DELINQUENT_REASON = "Too many delinquent accounts";
+    private static final String DEFAULT_REASON = "Credit profile does not meet lending criteria";
+
+    private final ObjectMapper objectMapper;
+    private final String location;
+    private volatile CompiledPolicy policy;
+
+    public ScorePolicyEngine(CreditBureauProperties properties, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.location = properties.getPolicy().getLocation();
+        install(location != null ? read(location) : properties.getPolicy());
+    }
+
+    public ScoreBand bandFor(int score) {
+        return policy.bandsByScore[Math.min(Math.max(score, 0), MAX_SCORE)];
+    }
+
+    public String riskLevel(int score) {
+        return bandFor(score).getRiskLevel();
+    }
+
+    public String rejectionReason(int score, int delinquentCount) {
+        CompiledPolicy current = policy;
+        if (score < current.definition.getLowScoreThreshold()) {
+            return LOW_SCORE_REASON;
+        }
+        if (delinquentCount > current.definition.getMaxDelinquentAccounts()) {
+            return DELINQUENT_REASON;
+        }
+        return DEFAULT_REASON;
+    }
+
+    public CreditBureauProperties.Policy currentPolicy() {
+        return policy.definition;
+    }
+
+    public long version() {
+        return policy.version;
+    }
+
+    /**
+     * Validates and compiles the given policy and atomically replaces the active one.
+     */
+    public synchronized long install(CreditBureauProperties.Policy definition) {
+        long version = policy == null ? 1 : policy.version + 1;
+        policy = new CompiledPolicy(definition, version);
+        log.info("Installed score policy version {} with {} bands", version, definition.getBands().size());
+        return version;
+    }
+
+    /**
+     * Re-reads the policy file configured through {@code credit.policy.location} and installs it.
+     */
+    public long reload() {
+        if (location == null) {
+            throw new IllegalStateException("No score policy location configured (credit.policy.location)");
+        }
+        return install(read(location));
+    }
+
+    private CreditBureauProperties.Policy read(String location) {
+        try {
+            return objectMapper.readValue(Path.of(location).toFile(), CreditBureauProperties.Policy.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read score policy from " + location, e);
+        }
+    }
+
+    private static final class CompiledPolicy {
+
+        private final CreditBureauProperties.Policy definition;
+        private final long version;
+        private final ScoreBand[] bandsByScore = new ScoreBand[MAX_SCORE + 1];
+
+        private CompiledPolicy(CreditBureauProperties.Policy definition, long version) {
+            if (definition.getBands() == null || definition.getBands().isEmpty()) {
+                throw new IllegalArgumentException("Score policy must define at least one band");
+            }
+            this.definition = definition;
+            this.version = version;
+
+            List<ScoreBand> bands = definition.getBands().stream()
+                    .map(ScoreBand::new)
+                    .sorted(Comparator.comparingInt(ScoreBand::getMinScore))
+                    .toList();
+            // Scores below the lowest band fall into it; every other score takes the highest band it reaches
+            int next = 0;
+            for (int score = 0; score <= MAX_SCORE; score++) {
+                while (next + 1 < bands.size() && bands.get(next + 1).getMinScore() <= score) {
+                    next++;
+                }
+                bandsByScore[score] = bands.get(next);
+            }
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.rjtmahinay.credit.service;
+
+import com.rjtmahinay.credit.model.CreditScore;
+import com.rjtmahinay.credit.model.Ssn;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+/**
+ * A read-only, memory-mapped copy of {@code credit_scores} ordered by SSN. A lookup is a binary search over
+ * fixed-width entries read in place from the mapping; only the names of the matching entry are decoded.
+ * <p>
+ * File layout, big-endian:
+ * <pre>
+ * header   magic "CBSS" (int), format version (int), entry count (int), names length (int),
+ *          built-at epoch millis (long), CRC32C of every byte after the header (long),
+ *          identity of the database it was built from (UUID as two longs)
+ * entries  ssn (int), score (int), id (long), version (long), last updated and created at as epoch
+ *          microseconds (long each), offset of the names (int), risk level ordinal (byte), 3 bytes padding
+ * names    first then last name of each entry as a length-prefixed UTF-8 string; length -1 is null
+ * </pre>
+ * A file with another magic, format version, size, checksum or database identity is rejected as a whole.
+ */
+final class ScoreSnapshot {
+
+    static final int MAGIC = 0x43425353;
+    static final int FORMAT_VERSION = 2;
+
+    private static final int HEADER_SIZE = 48;
+    private static final int ENTRY_SIZE = 48;
+    private static final long NULL_TIME = Long.MIN_VALUE;
+    private static final CreditScore.RiskLevel[] RISK_LEVELS = CreditScore.RiskLevel.values();
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final Instant builtAt;
+    private final long coveredChanges;
+
+    private ScoreSnapshot(ByteBuffer buffer, int size, Instant builtAt, long coveredChanges) {
+        this.buffer = buffer;
+        this.size = size;
+        this.builtAt = builtAt;
+        this.coveredChanges = coveredChanges;
+    }
+
+    /**
+     * Maps and verifies the snapshot at {@code path}, which must have been built from the database identified by
+     * {@code databaseId}. {@code coveredChanges} is the last score change the snapshot is known to include; see
+     * {@link ScoreSnapshotStore}.
+     */
+    static ScoreSnapshot map(Path path, UUID databaseId, long coveredChanges) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_SIZE || length > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot has an invalid length of " + length + " bytes");
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a score snapshot");
+            }
+            if (buffer.getInt(4) != FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot format version " + buffer.getInt(4));
+            }
+            int size = buffer.getInt(8);
+            if (length != HEADER_SIZE + (long) size * ENTRY_SIZE + buffer.getInt(12)) {
+                throw new IOException("Snapshot is truncated");
+            }
+            CRC32C checksum = new CRC32C();
+            checksum.update(buffer.slice(HEADER_SIZE, (int) length - HEADER_SIZE));
+            if (checksum.getValue() != buffer.getLong(24)) {
+                throw new IOException("Snapshot checksum mismatch");
+            }
+            if (!new UUID(buffer.getLong(32), buffer.getLong(40)).equals(databaseId)) {
+                throw new IOException("Snapshot was built from another database");
+            }
+            return new ScoreSnapshot(buffer, size, Instant.ofEpochMilli(buffer.getLong(16)), coveredChanges);
+        }
+    }
+
+    /**
+     * Returns the score stored for {@code ssn}, or {@code null} if the snapshot has none.
+     */
+    CreditScore find(Ssn ssn) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = HEADER_SIZE + mid * ENTRY_SIZE;
+            int key = buffer.getInt(entry);
+            if (key < ssn.value()) {
+                low = mid + 1;
+            } else if (key > ssn.value()) {
+                high = mid - 1;
+            } else {
+                return read(ssn, entry);
+            }
+        }
+        return null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    Instant builtAt() {
+        return builtAt;
+    }
+
+    long coveredChanges() {
+        return coveredChanges;
+    }
+
+    private CreditScore read(Ssn ssn, int entry) {
+        int names = HEADER_SIZE + size * ENTRY_SIZE + buffer.getInt(entry + 40);
+        int lastName = names + 2 + Math.max(buffer.getShort(names), 0);
+        return CreditScore.builder()
+                .id(buffer.getLong(entry + 8))
+                .version(buffer.getLong(entry + 16))
+                .ssn(ssn)
+                .firstName(string(names))
+                .lastName(string(lastName))
+                .score(buffer.getInt(entry + 4))
+                .riskLevel(RISK_LEVELS[buffer.get(entry + 44)].name())
+                .lastUpdated(dateTime(buffer.getLong(entry + 24)))
+                .createdAt(dateTime(buffer.getLong(entry + 32)))
+                .build();
+    }
+
+    private String string(int offset) {
+        short length = buffer.getShort(offset);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(offset + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static LocalDateTime dateTime(long micros) {
+        return micros == NULL_TIME ? null
+                : LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                        (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static long micros(LocalDateTime dateTime) {
+        return dateTime == null ? NULL_TIME : ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0), dateTime);
+    }
+
+    /**
+     * Streams scores, in ascending SSN order, into a new snapshot file. Entries are written as they are added;
+     * only the names section is held in memory until {@link #finish}.
+     */
+    static final class Writer implements Closeable {
+
+        private final FileChannel channel;
+        private final ByteBuffer entries = ByteBuffer.allocate(ENTRY_SIZE * 1024);
+        private final ByteArrayOutputStream names = new ByteArrayOutputStream();
+        private final CRC32C checksum = new CRC32C();
+        private int size;
+        private int previousSsn = -1;
+
+        Writer(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+            channel.position(HEADER_SIZE);
+        }
+
+        /**
+         * Appends {@code score}, skipping it (so lookups for it fall through to the database) if its risk level is
+         * not one the format can encode.
+         */
+        void add(CreditScore score) throws IOException {
+            int riskLevel = riskLevel(score.getRiskLevel());
+            if (riskLevel < 0 || score.getScore() == null) {
+                return;
+            }
+            int ssn = score.getSsn().value();
+            if (ssn <= previousSsn) {
+                throw new IllegalStateException("Scores must be added in ascending SSN order");
+            }
+            previousSsn = ssn;
+
+            entries.putInt(ssn)
+                    .putInt(score.getScore())
+                    .putLong(score.getId() != null ? score.getId() : 0)
+                    .putLong(score.getVersion() != null ? score.getVersion() : 0)
+                    .putLong(micros(score.getLastUpdated()))
+                    .putLong(micros(score.getCreatedAt()))
+                    .putInt(names.size())
+                    .put((byte) riskLevel)
+                    .put(new byte[3]);
+            putString(score.getFirstName());
+            putString(score.getLastName());
+            size++;
+            if (!entries.hasRemaining()) {
+                flushEntries();
+            }
+        }
+
+        /**
+         * Writes the names and header and forces the file to disk.
+         */
+        void finish(Instant builtAt, UUID databaseId) throws IOException {
+            flushEntries();
+            ByteBuffer namesSection = ByteBuffer.wrap(names.toByteArray());
+            checksum.update(namesSection.duplicate());
+            write(namesSection);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC)
+                    .putInt(FORMAT_VERSION)
+                    .putInt(size)
+                    .putInt(names.size())
+                    .putLong(builtAt.toEpochMilli())
+                    .putLong(checksum.getValue())
+                    .putLong(databaseId.getMostSignificantBits())
+                    .putLong(databaseId.getLeastSignificantBits())
+                    .flip();
+            channel.position(0);
+            write(header);
+            channel.force(true);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        private void flushEntries() throws IOException {
+            entries.flip();
+            checksum.update(entries.duplicate());
+            write(entries);
+            entries.clear();
+        }
+
+        private void write(ByteBuffer source) throws IOException {
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+        }
+
+        private void putString(String value) {
+            if (value == null) {
+                names.write(0xFF);
+                names.write(0xFF);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            names.write(bytes.length >>> 8);
+            names.write(bytes.length);
+            names.writeBytes(bytes);
+        }
+
+        private static int riskLevel(String riskLevel) {
+            for (CreditScore.RiskLevel level : RISK_LEVELS) {
+                if (level.name().equals(riskLevel)) {
+                    return level.ordinal();
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.rjtmahinay.credit.service;
+
+import com.rjtmahinay.credit.config.CreditBureauProperties;
+import com.rjtmahinay.credit.model.CreditScore;
+import com.rjtmahinay.credit.model.Ssn;
+import com.rjtmahinay.credit.repository.CreditScoreRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps the current {@link ScoreSnapshot} of {@code credit_scores} mapped for {@link CreditScoreCache}.
+ * <p>
+ * The snapshot left by the previous run is mapped on startup, before the web server takes traffic, and is then
+ * rebuilt from the table on a fixed interval: each rebuild is written to a temporary file, renamed over the old
+ * one and swapped in atomically. Scores changed through this instance since the current snapshot was read are
+ * recorded and never answered from it, so the snapshot can only be stale for changes made elsewhere.
+ * <p>
+ * A snapshot records the {@code database_identity} of the database it was read from and is only mapped for that
+ * database, so a snapshot left by another database, such as the previous run's in-memory one, is ignored.
+ */
+@Slf4j
+@Component
+public class ScoreSnapshotStore implements SmartLifecycle {
+
+    private final CreditScoreRepository creditScoreRepository;
+    private final ShardRouter shardRouter;
+    private final Mono<UUID> databaseId;
+    private final CreditBureauProperties.Snapshot config;
+    private final AtomicReference<ScoreSnapshot> current = new AtomicReference<>();
+    private final AtomicLong changes = new AtomicLong();
+    private final ConcurrentMap<Ssn, Long> changedSince = new ConcurrentHashMap<>(); // SSN -> its latest change
+
+    private volatile Disposable rebuilds;
+
+    public ScoreSnapshotStore(CreditScoreRepository creditScoreRepository, ShardRouter shardRouter,
+            DatabaseClient databaseClient, CreditBureauProperties properties, MeterRegistry meterRegistry) {
+        this.creditScoreRepository = creditScoreRepository;
+        this.shardRouter = shardRouter;
+        this.databaseId = databaseClient.sql("SELECT id FROM database_identity")
+                .map(row -> row.get("id", UUID.class))
+                .one()
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("database_identity is empty")))
+                .cache();
+        this.config = properties.getSnapshot();
+        Gauge.builder("credit.score.snapshot.entries", current, ref -> ref.get() != null ? ref.get().size() : 0)
+                .description("Credit scores in the mapped snapshot")
+                .register(meterRegistry);
+        TimeGauge.builder("credit.score.snapshot.age", current, TimeUnit.MILLISECONDS,
+                        ref -> ref.get() != null
+                                ? System.currentTimeMillis() - ref.get().builtAt().toEpochMilli()
+                                : Double.NaN)
+                .description("Time since the mapped snapshot was read from the database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the snapshotted score for {@code ssn}, or {@code null} when there is no snapshot, it has no score for
+     * the SSN, or the score has changed since the snapshot was built.
+     */
+    public CreditScore find(Ssn ssn) {
+        ScoreSnapshot snapshot = current.get();
+        if (snapshot == null) {
+            return null;
+        }
+        Long changed = changedSince.get(ssn);
+        return changed != null && changed > snapshot.coveredChanges() ? null : snapshot.find(ssn);
+    }
+
+    /**
+     * Records that the score for {@code ssn} was written, so the current snapshot no longer answers for it.
+     */
+    public void invalidate(Ssn ssn) {
+        if (config.isEnabled()) {
+            changedSince.put(ssn, changes.incrementAndGet());
+        }
+    }
+
+    /**
+     * Rebuilds the snapshot from {@code credit_scores} and swaps it in.
+     */
+    public Mono<Void> rebuild() {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            // Any change recorded up to here was committed before the scan below begins
+            long covered = changes.get();
+            Path target = config.getPath();
+            Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+
+            return databaseId.flatMap(id -> Mono.using(() -> openWriter(temp),
+                            writer -> write(writer, temp, target, id, covered), writer -> close(writer, temp)))
+                    .doOnNext(snapshot -> {
+                        current.set(snapshot);
+                        changedSince.values().removeIf(changed -> changed <= covered);
+                        log.info("Rebuilt score snapshot with {} scores in {} ms", snapshot.size(),
+                                (System.nanoTime() - start) / 1_000_000);
+                    })
+                    .then();
+        });
+    }
+
+    private static ScoreSnapshot.Writer openWriter(Path temp) throws IOException {
+        Files.createDirectories(temp.toAbsolutePath().getParent());
+        return new ScoreSnapshot.Writer(temp);
+    }
+
+    private Mono<ScoreSnapshot> write(ScoreSnapshot.Writer writer, Path temp, Path target, UUID id,
+            long covered) {
+        // The snapshot is looked up by binary search, so sharded scores are merged back into SSN order
+        return shardRouter.scatter(creditScoreRepository::findAllByOrderBySsnAsc,
+                        Comparator.comparing(CreditScore::getSsn))
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(score -> {
+                    try {
+                        writer.add(score);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .then(Mono.fromCallable(() -> {
+                    writer.finish(Instant.now(), id);
+                    writer.close();
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    return ScoreSnapshot.map(target, id, covered);
+                }));
+    }
+
+    private static void close(ScoreSnapshot.Writer writer, Path temp) {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.warn("Could not close score snapshot file {}", temp, e);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        UUID id;
+        try {
+            id = databaseId.block();
+        } catch (RuntimeException e) {
+            log.warn("Score snapshot disabled: no database_identity to tie it to ({})", e.getMessage());
+            return;
+        }
+        try {
+            ScoreSnapshot snapshot = ScoreSnapshot.map(config.getPath(), id, 0);
+            current.set(snapshot);
+            log.info("Mapped score snapshot with {} scores built at {}", snapshot.size(), snapshot.builtAt());
+        } catch (NoSuchFileException e) {
+            log.info("No score snapshot at {}; lookups use the database until one is built", config.getPath());
+        } catch (IOException e) {
+            log.warn("Ignoring score snapshot at {}: {}", config.getPath(), e.getMessage());
+        }
+
+        rebuilds = Flux.interval(config.getInitialDelay(), config.getRebuildInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> rebuild().onErrorResume(error -> {
+                    log.error("Failed to rebuild score snapshot", error);
+                    return Mono.empty();
+                }))
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        if (rebuilds != null) {
+            rebuilds.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return rebuilds != null && !rebuilds.isDisposed();
+    }
+
+    /**
+     * Starts before the web server so the first requests after a rollout can already be answered from the
+     * snapshot.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
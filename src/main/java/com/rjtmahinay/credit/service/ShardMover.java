@@ -0,0 +1,254 @@
+package com.rjtmahinay.credit.service;
+
+import com.rjtmahinay.credit.config.CreditBureauProperties;
+import com.rjtmahinay.credit.config.ShardDirectory;
+import com.rjtmahinay.credit.config.ShardRoutingConnectionFactory;
+import com.rjtmahinay.credit.model.Ssn;
+import io.r2dbc.spi.ColumnMetadata;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.Parameter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Moves buckets of SSNs between shards while the service keeps serving them.
+ * <p>
+ * A move turns new writes to the bucket away and waits for those in flight (see {@link ShardRouter#write}),
+ * copies the bucket's scores, history and aggregates to the target shard in one transaction, records the new
+ * owner in {@code shard_directory}, and only then deletes the rows from the source shard. Reads keep going to the
+ * source until the owner changes, and find the same rows on the target afterwards. Rows keep their {@code id}s.
+ * An interrupted move leaves the bucket on its source shard and can simply be repeated: the copy first discards
+ * anything an earlier attempt left on the target.
+ * <p>
+ * Writes are only held off on this instance, so with more than one instance a move needs the others drained of
+ * traffic to the bucket, and they pick up the new owner when they restart.
+ */
+@Slf4j
+@Service
+@ConditionalOnBooleanProperty("credit.sharding.enabled")
+public class ShardMover {
+
+    private static final List<String> TABLES = List.of("credit_scores", "credit_history", "credit_aggregates");
+    private static final int SSNS_PER_STATEMENT = 500;
+    private static final Duration DRAIN_CHECK_INTERVAL = Duration.ofMillis(10);
+
+    private final ShardDirectory directory;
+    private final List<DatabaseClient> shards;
+    private final List<TransactionalOperator> transactions;
+    private final Duration drainTimeout;
+
+    public ShardMover(ShardDirectory directory, ShardRoutingConnectionFactory connectionFactory,
+            CreditBureauProperties properties) {
+        this.directory = directory;
+        this.shards = connectionFactory.getShards().stream().map(DatabaseClient::create).toList();
+        this.transactions = connectionFactory.getShards().stream()
+                .map(shard -> TransactionalOperator.create(new R2dbcTransactionManager(shard)))
+                .toList();
+        this.drainTimeout = properties.getSharding().getDrainTimeout();
+    }
+
+    /**
+     * The outcome of a bucket move: the SSNs it held and the rows copied for them.
+     */
+    public record Move(int bucket, int fromShard, int toShard, int ssns, long rows, long elapsedMillis) {
+    }
+
+    /**
+     * Reads the bucket owners recorded by earlier moves from the first shard.
+     */
+    public Mono<Void> loadDirectory() {
+        return shards.get(0).sql("SELECT bucket, shard FROM shard_directory")
+                .map(row -> new int[] { row.get("bucket", Integer.class), row.get("shard", Integer.class) })
+                .all()
+                .doOnNext(entry -> {
+                    if (entry[0] >= directory.buckets() || entry[1] >= directory.shardCount()) {
+                        throw new IllegalStateException("shard_directory assigns bucket " + entry[0] + " to shard "
+                                + entry[1] + ", outside the configured " + directory.buckets() + " buckets and "
+                                + directory.shardCount() + " shards");
+                    }
+                    directory.assign(entry[0], entry[1]);
+                })
+                .then();
+    }
+
+    /**
+     * Moves every SSN of {@code bucket} to {@code targetShard}.
+     *
+     * @throws IllegalArgumentException (signalled) if the bucket or shard does not exist or the shard already
+     *                                  owns the bucket
+     * @throws IllegalStateException    (signalled) if the bucket is already being moved, or writes to it did not
+     *                                  finish within {@code credit.sharding.drain-timeout}
+     */
+    public Mono<Move> move(int bucket, int targetShard) {
+        return Mono.defer(() -> {
+            if (bucket < 0 || bucket >= directory.buckets()) {
+                return Mono.error(new IllegalArgumentException("No bucket " + bucket + "; buckets are 0 to "
+                        + (directory.buckets() - 1)));
+            }
+            if (targetShard < 0 || targetShard >= directory.shardCount()) {
+                return Mono.error(new IllegalArgumentException("No shard " + targetShard + "; shards are 0 to "
+                        + (directory.shardCount() - 1)));
+            }
+            int sourceShard = directory.ownerOf(bucket);
+            if (sourceShard == targetShard) {
+                return Mono.error(new IllegalArgumentException("Bucket " + bucket + " is already on shard "
+                        + targetShard));
+            }
+
+            directory.freeze(bucket);
+            long start = System.nanoTime();
+            return awaitDrained(bucket)
+                    .then(ssnsOn(sourceShard).filter(ssn -> directory.bucketOf(ssn) == bucket).collectList())
+                    .flatMap(ssns -> copy(ssns, sourceShard, targetShard, true)
+                            .flatMap(rows -> storeOwner(bucket, targetShard)
+                                    .then(delete(ssns, sourceShard))
+                                    .thenReturn(new Move(bucket, sourceShard, targetShard, ssns.size(), rows,
+                                            (System.nanoTime() - start) / 1_000_000))))
+                    .doFinally(signal -> directory.unfreeze(bucket))
+                    .doOnNext(move -> log.info("Moved bucket {} ({} SSNs, {} rows) from shard {} to shard {} in {} ms",
+                            bucket, move.ssns(), move.rows(), sourceShard, targetShard, move.elapsedMillis()));
+        });
+    }
+
+    /**
+     * Moves rows found on a shard that does not own their SSN to the owner, unless it already has rows for that
+     * SSN, and deletes them from where they were found; emits the number of rows copied. Meant for before the
+     * service takes traffic, such as after the data scripts wrote every row to the first shard.
+     */
+    public Mono<Long> rebalance() {
+        return Flux.range(0, shards.size())
+                .concatMap(shard -> ssnsOn(shard)
+                        .filter(ssn -> directory.shardOf(ssn) != shard)
+                        .collect(Collectors.groupingBy(directory::shardOf, TreeMap::new, Collectors.toList()))
+                        .flatMapMany(byOwner -> Flux.fromIterable(byOwner.entrySet()))
+                        .concatMap(misplaced -> ssnsOn(misplaced.getKey(), misplaced.getValue())
+                                .collect(Collectors.toSet())
+                                .flatMap(present -> copy(misplaced.getValue().stream()
+                                        .filter(ssn -> !present.contains(ssn))
+                                        .toList(), shard, misplaced.getKey(), false))
+                                .flatMap(rows -> delete(misplaced.getValue(), shard).thenReturn(rows))))
+                .reduce(0L, Long::sum);
+    }
+
+    private Mono<Void> awaitDrained(int bucket) {
+        return Mono.fromSupplier(() -> directory.isDrained(bucket))
+                .filter(drained -> drained)
+                .repeatWhenEmpty(Integer.MAX_VALUE, checks -> checks.delayElements(DRAIN_CHECK_INTERVAL))
+                .timeout(drainTimeout, Mono.error(() -> new IllegalStateException("Writes to bucket " + bucket
+                        + " did not finish within " + drainTimeout)))
+                .then();
+    }
+
+    /**
+     * Every SSN with a score, history or aggregate on the shard.
+     */
+    private Flux<Ssn> ssnsOn(int shard) {
+        return shards.get(shard).sql(TABLES.stream()
+                        .map(table -> "SELECT ssn FROM " + table)
+                        .collect(Collectors.joining(" UNION ")))
+                .map(row -> new Ssn(row.get(0, Integer.class)))
+                .all();
+    }
+
+    /**
+     * Those of {@code ssns} with a score, history or aggregate on the shard.
+     */
+    private Flux<Ssn> ssnsOn(int shard, List<Ssn> ssns) {
+        return Flux.fromIterable(chunks(ssns))
+                .concatMap(chunk -> shards.get(shard).sql(TABLES.stream()
+                                .map(table -> "SELECT ssn FROM " + table + " WHERE ssn IN (:ssns)")
+                                .collect(Collectors.joining(" UNION ")))
+                        .bind("ssns", chunk)
+                        .map(row -> new Ssn(row.get(0, Integer.class)))
+                        .all());
+    }
+
+    /**
+     * Copies every row of {@code ssns} from one shard to another in a single transaction on the target, first
+     * deleting any rows the target already has for them if {@code replace} is set; emits the rows copied.
+     */
+    private Mono<Long> copy(List<Ssn> ssns, int sourceShard, int targetShard, boolean replace) {
+        DatabaseClient target = shards.get(targetShard);
+        return (replace ? delete(ssns, target) : Mono.<Void>empty())
+                .thenMany(Flux.fromIterable(chunks(ssns)))
+                .concatMap(chunk -> Flux.fromIterable(TABLES)
+                        .concatMap(table -> shards.get(sourceShard)
+                                .sql("SELECT * FROM " + table + " WHERE ssn IN (:ssns)")
+                                .bind("ssns", chunk)
+                                .map((row, metadata) -> {
+                                    Map<String, Parameter> columns = new LinkedHashMap<>();
+                                    for (ColumnMetadata column : metadata.getColumnMetadatas()) {
+                                        Class<?> type = column.getJavaType() != null ? column.getJavaType()
+                                                : Object.class;
+                                        columns.put(column.getName().toLowerCase(Locale.ROOT),
+                                                Parameter.fromOrEmpty(row.get(column.getName()), type));
+                                    }
+                                    return columns;
+                                })
+                                .all()
+                                .concatMap(columns -> insert(target, table, columns))))
+                .count()
+                .as(transactions.get(targetShard)::transactional);
+    }
+
+    private static Mono<Long> insert(DatabaseClient shard, String table, Map<String, Parameter> columns) {
+        DatabaseClient.GenericExecuteSpec insert = shard.sql("INSERT INTO " + table + " ("
+                + String.join(", ", columns.keySet()) + ") VALUES ("
+                + columns.keySet().stream().map(column -> ":" + column).collect(Collectors.joining(", ")) + ")");
+        for (Map.Entry<String, Parameter> column : columns.entrySet()) {
+            insert = insert.bind(column.getKey(), column.getValue());
+        }
+        return insert.fetch().rowsUpdated();
+    }
+
+    private Mono<Void> delete(List<Ssn> ssns, int shard) {
+        return delete(ssns, shards.get(shard)).as(transactions.get(shard)::transactional);
+    }
+
+    private static Mono<Void> delete(List<Ssn> ssns, DatabaseClient shard) {
+        return Flux.fromIterable(chunks(ssns))
+                .concatMap(chunk -> Flux.fromIterable(TABLES)
+                        .concatMap(table -> shard.sql("DELETE FROM " + table + " WHERE ssn IN (:ssns)")
+                                .bind("ssns", chunk)
+                                .then()))
+                .then();
+    }
+
+    private Mono<Void> storeOwner(int bucket, int shard) {
+        return shards.get(0).sql("MERGE INTO shard_directory t USING (VALUES (CAST(:bucket AS INTEGER), "
+                        + "CAST(:shard AS INTEGER))) AS s(bucket, shard) ON t.bucket = s.bucket "
+                        + "WHEN MATCHED THEN UPDATE SET shard = s.shard "
+                        + "WHEN NOT MATCHED THEN INSERT (bucket, shard) VALUES (s.bucket, s.shard)")
+                .bind("bucket", bucket)
+                .bind("shard", shard)
+                .then()
+                .doOnSuccess(stored -> directory.assign(bucket, shard));
+    }
+
+    /**
+     * Splits SSNs into lists of their values no longer than {@link #SSNS_PER_STATEMENT}, de-duplicated.
+     */
+    private static List<List<Integer>> chunks(List<Ssn> ssns) {
+        List<Integer> values = List.copyOf(new LinkedHashSet<>(ssns.stream().map(Ssn::value).toList()));
+        List<List<Integer>> chunks = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += SSNS_PER_STATEMENT) {
+            chunks.add(values.subList(from, Math.min(from + SSNS_PER_STATEMENT, values.size())));
+        }
+        return chunks;
+    }
+}
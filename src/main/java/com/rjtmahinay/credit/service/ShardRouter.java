@@ -0,0 +1,150 @@
+package com.rjtmahinay.credit.service;
+
+import com.rjtmahinay.credit.config.ShardDirectory;
+import com.rjtmahinay.credit.model.Ssn;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.rjtmahinay.credit.config.ShardRoutingConnectionFactory.onShard;
+
+/**
+ * Sends credit score, history and aggregate queries to the shard that owns the SSN they are about when
+ * {@code credit.sharding} is enabled, splits queries over many SSNs into one query per owning shard, and fans
+ * queries over whole tables out to every shard. All shards are queried in parallel. Without sharding every
+ * method runs the query as given against the one database.
+ * <p>
+ * Loan applications and rescoring checkpoints are not routed and stay on the first shard.
+ * <p>
+ * Reads about SSNs and writes also pass through {@link ReplicaRouter}, which sends the reads to read replicas
+ * when those are configured instead of shards.
+ */
+@Component
+public class ShardRouter {
+
+    private static final Duration FROZEN_BUCKET_RETRY = Duration.ofMillis(10);
+
+    private final ShardDirectory directory;
+    private final ReplicaRouter replicaRouter;
+
+    public ShardRouter(ObjectProvider<ShardDirectory> directory, ReplicaRouter replicaRouter) {
+        this.directory = directory.getIfAvailable();
+        this.replicaRouter = replicaRouter;
+    }
+
+    public boolean isSharded() {
+        return directory != null;
+    }
+
+    public <T> Mono<T> read(Ssn ssn, Mono<T> query) {
+        return replicaRouter.read(ssn, directory == null ? query
+                : Mono.defer(() -> query.contextWrite(onShard(directory.shardOf(ssn)))));
+    }
+
+    public <T> Flux<T> read(Ssn ssn, Flux<T> query) {
+        return replicaRouter.read(ssn, directory == null ? query
+                : Flux.defer(() -> query.contextWrite(onShard(directory.shardOf(ssn)))));
+    }
+
+    /**
+     * Runs {@code query} once for each shard that owns any of the {@code items}' SSNs, with just those items.
+     */
+    public <E, R> Flux<R> readAll(Collection<E> items, Function<E, Ssn> ssn,
+            Function<List<E>, ? extends Publisher<R>> query) {
+        return replicaRouter.readAll(items, ssn, directory == null ? Flux.defer(() -> query.apply(asList(items)))
+                : Flux.defer(() -> perShard(items, ssn, query)));
+    }
+
+    /**
+     * Runs a write on the shard that owns {@code ssn}. While the SSN's bucket is being moved to another shard the
+     * write waits for the move to finish, and a move waits for the write. A transaction has to be started within
+     * {@code write} to be on the shard.
+     */
+    public <T> Mono<T> write(Ssn ssn, Mono<T> write) {
+        if (directory == null) {
+            return replicaRouter.write(ssn, write);
+        }
+        return Mono.defer(() -> {
+            int[] bucket = { directory.bucketOf(ssn) };
+            return Mono.usingWhen(enter(bucket),
+                    entered -> write.contextWrite(onShard(directory.shardOf(ssn))),
+                    entered -> Mono.fromRunnable(() -> directory.exit(bucket)));
+        });
+    }
+
+    /**
+     * Runs {@code write} once for each shard that owns any of the {@code items}' SSNs, with just those items, as
+     * {@link #write(Ssn, Mono)} does for a single SSN.
+     */
+    public <E, R> Flux<R> writeAll(Collection<E> items, Function<E, Ssn> ssn,
+            Function<List<E>, ? extends Publisher<R>> write) {
+        if (directory == null) {
+            return replicaRouter.writeAll(items, ssn, Flux.defer(() -> write.apply(asList(items))));
+        }
+        return Flux.defer(() -> {
+            int[] buckets = items.stream().map(ssn).mapToInt(directory::bucketOf).distinct().sorted().toArray();
+            return Flux.usingWhen(enter(buckets),
+                    entered -> perShard(items, ssn, write),
+                    entered -> Mono.fromRunnable(() -> directory.exit(buckets)));
+        });
+    }
+
+    /**
+     * Runs {@code query} on every shard and merges what they emit.
+     */
+    public <T> Flux<T> scatter(Supplier<? extends Publisher<T>> query) {
+        if (directory == null) {
+            return Flux.defer(query);
+        }
+        return Flux.range(0, directory.shardCount())
+                .flatMap(shard -> Flux.defer(query).contextWrite(onShard(shard)), directory.shardCount());
+    }
+
+    /**
+     * Runs {@code query}, which must emit in {@code order}, on every shard and merges what they emit in that order.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Flux<T> scatter(Supplier<? extends Publisher<T>> query, Comparator<? super T> order) {
+        if (directory == null) {
+            return Flux.defer(query);
+        }
+        return Flux.mergeComparing(order, IntStream.range(0, directory.shardCount())
+                .mapToObj(shard -> Flux.defer(query).contextWrite(onShard(shard)))
+                .toArray(Publisher[]::new));
+    }
+
+    private <E, R> Flux<R> perShard(Collection<E> items, Function<E, Ssn> ssn,
+            Function<List<E>, ? extends Publisher<R>> query) {
+        Map<Integer, List<E>> byShard = items.stream()
+                .collect(Collectors.groupingBy(item -> directory.shardOf(ssn.apply(item)), TreeMap::new,
+                        Collectors.toList()));
+        return Flux.fromIterable(byShard.entrySet())
+                .flatMap(shard -> Flux.from(query.apply(shard.getValue())).contextWrite(onShard(shard.getKey())),
+                        directory.shardCount());
+    }
+
+    /**
+     * Registers a write to the buckets, checking again every {@link #FROZEN_BUCKET_RETRY} while one is being moved.
+     */
+    private Mono<int[]> enter(int[] buckets) {
+        return Mono.fromSupplier(() -> directory.tryEnter(buckets) ? buckets : null)
+                .repeatWhenEmpty(Integer.MAX_VALUE, attempts -> attempts.delayElements(FROZEN_BUCKET_RETRY));
+    }
+
+    private static <E> List<E> asList(Collection<E> items) {
+        return items instanceof List<E> list ? list : List.copyOf(items);
+    }
+}
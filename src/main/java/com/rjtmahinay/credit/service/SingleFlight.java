@@ -0,0 +1,35 @@
+package com.rjtmahinay.credit.service;
+
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent executions of the same keyed work: while a call for a key is in flight, later callers
+ * subscribe to its result instead of starting their own. Once it terminates the key is released, so the next
+ * call starts fresh. Cancelling one subscriber does not cancel the shared work for the others.
+ */
+final class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+
+    Mono<V> execute(K key, Supplier<Mono<V>> work) {
+        return Mono.defer(() -> inFlight.computeIfAbsent(key, k -> newFlight(k, work)));
+    }
+
+    int inFlight() {
+        return inFlight.size();
+    }
+
+    private Mono<V> newFlight(K key, Supplier<Mono<V>> work) {
+        AtomicReference<Mono<V>> self = new AtomicReference<>();
+        Mono<V> flight = Mono.defer(work)
+                .doFinally(signal -> inFlight.remove(key, self.get()))
+                .cache();
+        self.set(flight);
+        return flight;
+    }
+}
@@ -0,0 +1,152 @@
+package com.rjtmahinay.credit.service;
+
+import com.rjtmahinay.credit.config.CreditBureauProperties;
+import com.rjtmahinay.credit.dto.CreateCreditHistoryRequest;
+import com.rjtmahinay.credit.dto.CreateCreditScoreRequest;
+import com.rjtmahinay.credit.dto.CreditCheckRequest;
+import com.rjtmahinay.credit.dto.UpdateCreditScoreRequest;
+import com.rjtmahinay.credit.model.Ssn;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Training workload for the class-data sharing archive of the optimized container image.
+ * <p>
+ * With {@code credit.startup.training-run=true}, once the service is ready it sends every kind of
+ * {@code CreditBureauController} request, plus the health and API docs endpoints, to itself over HTTP, then
+ * shuts down. Run under {@code -XX:ArchiveClassesAtExit}, the classes those requests load (codecs, Netty
+ * handlers, R2DBC and the service itself) are archived along with the startup classes, so later launches map
+ * them instead of loading and verifying them again. The bean is always registered rather than made
+ * conditional, because ahead-of-time processing fixes the set of beans at build time.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StartupTrainingRun {
+
+    private static final int APPLICANTS = 10;
+    private static final int SSN_BASE = 900_000_000;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final CreditBureauProperties properties;
+    private final WebClient.Builder webClientBuilder;
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        if (!properties.getStartup().isTrainingRun()
+                || !(event.getApplicationContext() instanceof WebServerApplicationContext context)) {
+            return;
+        }
+
+        WebClient client = webClientBuilder
+                .baseUrl("http://localhost:" + context.getWebServer().getPort())
+                .build();
+        long started = System.nanoTime();
+        long failures = Flux.range(0, APPLICANTS)
+                .map(i -> new Ssn(SSN_BASE + i))
+                .concatMap(ssn -> exercise(client, ssn))
+                .concatWith(Flux.concat(
+                        send(client.get().uri("/actuator/health")),
+                        send(client.get().uri("/v3/api-docs")),
+                        send(client.get().uri("/api/v1/credit/export/scores")),
+                        send(client.get().uri("/api/v1/credit/export/history")),
+                        send(client.get().uri("/api/v1/credit/applications?status=APPROVED&limit=10"))))
+                .filter(status -> status >= 400)
+                .count()
+                .block(REQUEST_TIMEOUT.multipliedBy(APPLICANTS));
+        log.info("Training run finished in {} ms with {} failed requests",
+                Duration.ofNanos(System.nanoTime() - started).toMillis(), failures);
+
+        System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+
+    /**
+     * Writes a score and history for one applicant, then reads and checks it through every endpoint that takes
+     * an SSN, twice for the reads so cache hits are covered as well as misses.
+     */
+    private Flux<Integer> exercise(WebClient client, Ssn ssn) {
+        CreateCreditScoreRequest score = CreateCreditScoreRequest.builder()
+                .ssn(ssn)
+                .firstName("Training")
+                .lastName("Run")
+                .score(580 + (ssn.value() % 10) * 25)
+                .build();
+        List<CreateCreditHistoryRequest> tradelines = List.of(tradeline(ssn, "CREDIT_CARD", "CURRENT"),
+                tradeline(ssn, "AUTO_LOAN", "LATE_30"));
+        Flux<Integer> reads = Flux.concat(
+                send(client.get().uri("/api/v1/credit/score/{ssn}", ssn)),
+                send(client.get().uri("/api/v1/credit/history/{ssn}", ssn)),
+                send(client.get().uri("/api/v1/credit/history/{ssn}/page?limit=1&view=summary", ssn)),
+                send(client.post().uri("/api/v1/credit/check").bodyValue(check(ssn, true))),
+                send(client.post().uri("/api/v1/credit/check").bodyValue(check(ssn, false))),
+                send(client.get().uri("/api/v1/credit/loan-history/{ssn}", ssn)));
+
+        return Flux.concat(
+                send(client.post().uri("/api/v1/credit/score").bodyValue(score)),
+                send(client.put().uri("/api/v1/credit/score/{ssn}", ssn)
+                        .bodyValue(UpdateCreditScoreRequest.builder().score(score.getScore() + 10).build())),
+                send(client.post().uri("/api/v1/credit/history").bodyValue(tradelines.get(0))),
+                send(client.post().uri("/api/v1/credit/history/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .body(Flux.just(tradelines.get(1)), CreateCreditHistoryRequest.class)),
+                send(client.post().uri("/api/v1/credit/check/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .body(Flux.just(check(ssn, true)), CreditCheckRequest.class)),
+                reads,
+                reads);
+    }
+
+    private static CreateCreditHistoryRequest tradeline(Ssn ssn, String accountType, String paymentStatus) {
+        return CreateCreditHistoryRequest.builder()
+                .ssn(ssn)
+                .accountType(accountType)
+                .creditorName("Training Bank")
+                .creditLimit(BigDecimal.valueOf(5_000))
+                .currentBalance(BigDecimal.valueOf(1_250))
+                .paymentStatus(paymentStatus)
+                .daysLate("CURRENT".equals(paymentStatus) ? 0 : 30)
+                .isActive(true)
+                .build();
+    }
+
+    private static CreditCheckRequest check(Ssn ssn, boolean includeHistory) {
+        return CreditCheckRequest.builder()
+                .ssn(ssn)
+                .firstName("Training")
+                .lastName("Run")
+                .requestedAmount(BigDecimal.valueOf(15_000))
+                .loanType("PERSONAL")
+                .termMonths(36)
+                .annualIncome(BigDecimal.valueOf(85_000))
+                .employmentStatus("EMPLOYED")
+                .includeHistory(includeHistory)
+                .build();
+    }
+
+    /**
+     * Sends the request, reads the whole response body and emits the status code; a request that could not be
+     * sent at all counts as a 500.
+     */
+    private static Mono<Integer> send(WebClient.RequestHeadersSpec<?> request) {
+        return request.exchangeToMono(response -> response.bodyToMono(byte[].class)
+                        .then(Mono.just(response.statusCode().value())))
+                .timeout(REQUEST_TIMEOUT)
+                .onErrorResume(error -> {
+                    log.warn("Training request failed", error);
+                    return Mono.just(500);
+                });
+    }
+}
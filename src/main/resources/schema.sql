@@ -1,21 +1,23 @@
 -- Credit Bureau Service Database Schema
+-- SSNs are stored as their nine digits in an INTEGER (123-45-6789 is 123456789)
 
 -- Credit Scores Table
 CREATE TABLE IF NOT EXISTS credit_scores (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
-    ssn VARCHAR(11) NOT NULL UNIQUE,
+    ssn INTEGER NOT NULL UNIQUE,
     first_name VARCHAR(100) NOT NULL,
     last_name VARCHAR(100) NOT NULL,
     score INTEGER NOT NULL,
     risk_level VARCHAR(10) NOT NULL,
     last_updated TIMESTAMP NOT NULL,
-    created_at TIMESTAMP NOT NULL
+    created_at TIMESTAMP NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0
 );
 
 -- Credit History Table
 CREATE TABLE IF NOT EXISTS credit_history (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
-    ssn VARCHAR(11) NOT NULL,
+    ssn INTEGER NOT NULL,
     account_type VARCHAR(20) NOT NULL,
     creditor_name VARCHAR(100) NOT NULL,
     original_amount DECIMAL(15,2),
@@ -26,14 +28,50 @@ CREATE TABLE IF NOT EXISTS credit_history (
     account_open_date TIMESTAMP,
     last_payment_date TIMESTAMP,
     reported_date TIMESTAMP NOT NULL,
-    is_active BOOLEAN DEFAULT TRUE
+    is_active BOOLEAN DEFAULT TRUE,
+    version BIGINT NOT NULL DEFAULT 0
 );
 
+-- Credit Aggregates Table (per-SSN rollup of active credit history, maintained on every history write)
+CREATE TABLE IF NOT EXISTS credit_aggregates (
+    ssn INTEGER PRIMARY KEY,
+    active_accounts INTEGER NOT NULL DEFAULT 0,
+    total_active_balance DECIMAL(17,2) NOT NULL DEFAULT 0,
+    total_credit_limit DECIMAL(17,2) NOT NULL DEFAULT 0,
+    delinquent_count INTEGER NOT NULL DEFAULT 0,
+    max_days_late INTEGER NOT NULL DEFAULT 0,
+    last_updated TIMESTAMP NOT NULL
+);
+
+-- Re-scoring job checkpoints (one row per job; last_ssn is the last SSN whose chunk was fully written)
+CREATE TABLE IF NOT EXISTS rescore_checkpoints (
+    job VARCHAR(50) PRIMARY KEY,
+    last_ssn INTEGER,
+    rows_scanned BIGINT NOT NULL DEFAULT 0,
+    rows_updated BIGINT NOT NULL DEFAULT 0,
+    started_at TIMESTAMP NOT NULL,
+    checkpointed_at TIMESTAMP NOT NULL,
+    completed_at TIMESTAMP
+);
+
+-- Shard directory (only used with credit.sharding, on the first shard: buckets moved off their default shard)
+CREATE TABLE IF NOT EXISTS shard_directory (
+    bucket INTEGER PRIMARY KEY,
+    shard INTEGER NOT NULL
+);
+
+-- Database identity: one random id generated with the database, so files derived from it, such as the score
+-- snapshot, are never applied to another database (a new in-memory database gets a new id on every start)
+CREATE TABLE IF NOT EXISTS database_identity (
+    id UUID PRIMARY KEY
+);
+INSERT INTO database_identity (id) SELECT RANDOM_UUID() WHERE NOT EXISTS (SELECT 1 FROM database_identity);
+
 -- Loan Applications Table
 CREATE TABLE IF NOT EXISTS loan_applications (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     application_id VARCHAR(36) NOT NULL UNIQUE,
-    ssn VARCHAR(11) NOT NULL,
+    ssn INTEGER NOT NULL,
     first_name VARCHAR(100) NOT NULL,
     last_name VARCHAR(100) NOT NULL,
     email VARCHAR(255),
@@ -53,6 +91,7 @@ CREATE TABLE IF NOT EXISTS loan_applications (
 CREATE INDEX IF NOT EXISTS idx_credit_scores_ssn ON credit_scores(ssn);
 CREATE INDEX IF NOT EXISTS idx_credit_history_ssn ON credit_history(ssn);
 CREATE INDEX IF NOT EXISTS idx_credit_history_ssn_active ON credit_history(ssn, is_active);
+CREATE INDEX IF NOT EXISTS idx_credit_history_ssn_reported ON credit_history(ssn, reported_date, id);
 CREATE INDEX IF NOT EXISTS idx_loan_applications_ssn ON loan_applications(ssn);
 CREATE INDEX IF NOT EXISTS idx_loan_applications_status ON loan_applications(status);
 CREATE INDEX IF NOT EXISTS idx_loan_applications_app_id ON loan_applications(application_id);
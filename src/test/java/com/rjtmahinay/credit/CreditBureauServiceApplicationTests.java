@@ -3,7 +3,7 @@ package com.rjtmahinay.credit;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "credit.snapshot.enabled=false")
 class CreditBureauServiceApplicationTests {
 
     @Test
@@ -0,0 +1,84 @@
+package com.rjtmahinay.credit.controller;
+
+import com.rjtmahinay.credit.dto.CreditCheckResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.r2dbc.url=r2dbc:h2:mem:///batch-check-tests?options=DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "credit.snapshot.enabled=false" })
+@AutoConfigureWebTestClient
+class BatchCreditCheckTests {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void invalidRequestDoesNotEndTheBatch() {
+        String requests = """
+                {"ssn": "987-65-4321", "requestedAmount": 25000, "annualIncome": 75000}
+                {"ssn": "555-12-3456", "requestedAmount": 25000}
+                {"ssn": "444-55-6666", "requestedAmount": 25000, "annualIncome": 75000, "includeHistory": false}
+                """;
+
+        List<CreditCheckResponse> responses = webTestClient.post()
+                .uri("/api/v1/credit/check/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(requests)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(CreditCheckResponse.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertThat(responses).extracting(response -> response.getSsn().toString())
+                .containsExactly("987-65-4321", "555-12-3456", "444-55-6666");
+        assertThat(responses).extracting(CreditCheckResponse::getError)
+                .containsExactly(null, "Annual income must be positive", null);
+        assertThat(responses.get(1).getDecision()).isNull();
+        assertThat(responses.get(2).getDecision()).isNotNull();
+    }
+
+    @Test
+    void unknownSsnWithoutNamesDoesNotEndTheBatch() {
+        String requests = """
+                {"ssn": "987-65-4321", "requestedAmount": 25000, "annualIncome": 75000}
+                {"ssn": "777-66-5555", "requestedAmount": 25000, "annualIncome": 75000}
+                {"ssn": "777-66-5556", "firstName": "New", "lastName": "Applicant", "requestedAmount": 25000, "annualIncome": 75000}
+                """;
+
+        List<CreditCheckResponse> responses = webTestClient.post()
+                .uri("/api/v1/credit/check/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(requests)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(CreditCheckResponse.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertThat(responses).extracting(CreditCheckResponse::getError)
+                .containsExactly(null, "First and last name are required for an SSN with no score on file", null);
+        assertThat(responses.get(2).getCreditScore()).isNotNull();
+    }
+
+    @Test
+    void singleCheckOfUnknownSsnWithoutNamesIsBadRequest() {
+        webTestClient.post()
+                .uri("/api/v1/credit/check")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"ssn\": \"777-66-5557\", \"requestedAmount\": 25000, \"annualIncome\": 75000}")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
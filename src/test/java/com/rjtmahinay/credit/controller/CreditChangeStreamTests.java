@@ -0,0 +1,136 @@
+package com.rjtmahinay.credit.controller;
+
+import com.rjtmahinay.credit.dto.CreditChangeEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The feed keeps only the last three events here, so a resume token goes stale after a few writes.
+ */
+@SpringBootTest(properties = {
+        "spring.r2dbc.url=r2dbc:h2:mem:///change-stream-tests?options=DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "credit.snapshot.enabled=false",
+        "credit.change-feed.replay-size=3" })
+@AutoConfigureWebTestClient(timeout = "PT10S")
+class CreditChangeStreamTests {
+
+    private static final ParameterizedTypeReference<ServerSentEvent<CreditChangeEvent>> SSE =
+            new ParameterizedTypeReference<>() {
+            };
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void resumesAfterTheLastEventSeenAndRejectsAnExpiredToken() {
+        List<ServerSentEvent<CreditChangeEvent>> live = whileListening(3,
+                () -> List.of("301-00-0001", "301-00-0002", "301-00-0003").forEach(this::createScore));
+        assertThat(live).extracting(event -> event.data().getSsn().toString())
+                .containsExactly("301-00-0001", "301-00-0002", "301-00-0003");
+        long first = live.get(0).data().getSequence();
+        assertThat(live).extracting(ServerSentEvent::id)
+                .containsExactly(Long.toString(first), Long.toString(first + 1), Long.toString(first + 2));
+
+        // SSE clients resume with Last-Event-ID
+        List<ServerSentEvent<CreditChangeEvent>> resumed = webTestClient.get().uri("/api/v1/credit/changes")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header("Last-Event-ID", Long.toString(first))
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(SSE)
+                .getResponseBody()
+                .take(2)
+                .collectList()
+                .block();
+        assertThat(resumed).extracting(ServerSentEvent::id)
+                .containsExactly(Long.toString(first + 1), Long.toString(first + 2));
+
+        // NDJSON clients resume with after, filtered like a fresh subscription
+        List<CreditChangeEvent> filtered = webTestClient.get()
+                .uri("/api/v1/credit/changes?after={after}&ssn=301-00-0003", first)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(CreditChangeEvent.class)
+                .getResponseBody()
+                .take(1)
+                .collectList()
+                .block();
+        assertThat(filtered).extracting(CreditChangeEvent::getSequence).containsExactly(first + 2);
+
+        createScore("301-00-0004");
+        createScore("301-00-0005");
+
+        // The event after first has now left the replay buffer
+        webTestClient.get().uri("/api/v1/credit/changes?after={after}", first)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isEqualTo(410);
+        webTestClient.get().uri("/api/v1/credit/changes")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header("Last-Event-ID", Long.toString(first))
+                .exchange()
+                .expectStatus().isEqualTo(410);
+        // A token from before the feed last restarted
+        webTestClient.get().uri("/api/v1/credit/changes?after={after}", first + 100)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isEqualTo(410);
+    }
+
+    /**
+     * Opens a stream without a resume token, runs {@code writes} once it is subscribed to the feed, and returns
+     * the first {@code count} events it receives.
+     */
+    private List<ServerSentEvent<CreditChangeEvent>> whileListening(int count, Runnable writes) {
+        double subscribers = subscribers();
+        CompletableFuture<List<ServerSentEvent<CreditChangeEvent>>> events = Mono.fromCallable(() ->
+                        webTestClient.get().uri("/api/v1/credit/changes")
+                                .accept(MediaType.TEXT_EVENT_STREAM)
+                                .exchange()
+                                .returnResult(SSE)
+                                .getResponseBody()
+                                .take(count)
+                                .collectList()
+                                .block())
+                .subscribeOn(Schedulers.boundedElastic())
+                .toFuture();
+        // Response headers only arrive with the first event, so wait for the subscription itself
+        Mono.fromSupplier(this::subscribers)
+                .filter(current -> current > subscribers)
+                .repeatWhenEmpty(attempts -> attempts.delayElements(Duration.ofMillis(20)))
+                .block(Duration.ofSeconds(10));
+        writes.run();
+        return events.join();
+    }
+
+    private double subscribers() {
+        return meterRegistry.get("credit.change.feed.subscribers").gauge().value();
+    }
+
+    private void createScore(String ssn) {
+        webTestClient.post().uri("/api/v1/credit/score")
+                .bodyValue(Map.of("ssn", ssn, "firstName", "Feed", "lastName", "Reader", "score", 700))
+                .exchange()
+                .expectStatus().isCreated();
+    }
+}
@@ -0,0 +1,106 @@
+package com.rjtmahinay.credit.controller;
+
+import com.rjtmahinay.credit.dto.CreditHistoryPage;
+import com.rjtmahinay.credit.model.CreditHistory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.r2dbc.url=r2dbc:h2:mem:///history-page-tests?options=DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "credit.snapshot.enabled=false" })
+@AutoConfigureWebTestClient
+class CreditHistoryPageTests {
+
+    private static final String PAGE = "/api/v1/credit/history/111-22-3333/page";
+    private static final ParameterizedTypeReference<CreditHistoryPage<CreditHistory>> FULL_PAGE =
+            new ParameterizedTypeReference<>() {
+            };
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void cursorWalksEveryRecordOnceEvenWhenNewerOnesArriveBetweenPages() {
+        // Seeded records share one reported date, so the id has to break the tie
+        createHistory("First New Bank");
+        createHistory("Second New Bank");
+        List<Long> expected = webTestClient.get().uri("/api/v1/credit/history/111-22-3333")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(CreditHistory.class)
+                .returnResult()
+                .getResponseBody()
+                .stream()
+                .sorted(Comparator.comparing(CreditHistory::getReportedDate)
+                        .thenComparing(CreditHistory::getId)
+                        .reversed())
+                .map(CreditHistory::getId)
+                .toList();
+        assertThat(expected).hasSize(5);
+
+        List<Long> walked = new ArrayList<>();
+        CreditHistoryPage<CreditHistory> page = page(PAGE + "?limit=2");
+        page.getItems().forEach(item -> walked.add(item.getId()));
+        // A record written mid-walk sorts before the cursor, so it neither shifts nor repeats later pages
+        createHistory("Mid Walk Bank");
+        while (page.getNextCursor() != null) {
+            assertThat(page.getItems()).hasSize(2);
+            page = page(PAGE + "?limit=2&cursor=" + page.getNextCursor());
+            page.getItems().forEach(item -> walked.add(item.getId()));
+        }
+
+        assertThat(walked).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void filteredSummaryViewReturnsOnlyTheSummaryColumns() {
+        webTestClient.get().uri(PAGE + "?limit=1&view=summary&activeOnly=true&accountType=MORTGAGE")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items.length()").isEqualTo(1)
+                .jsonPath("$.items[0].accountType").isEqualTo("MORTGAGE")
+                .jsonPath("$.items[0].creditorName").isEqualTo("Wells Fargo Home")
+                .jsonPath("$.items[0].originalAmount").doesNotExist()
+                .jsonPath("$.items[0].id").doesNotExist()
+                .jsonPath("$.nextCursor").doesNotExist();
+    }
+
+    @Test
+    void malformedCursorOrLimitIsBadRequest() {
+        webTestClient.get().uri(PAGE + "?cursor=not-a-cursor").exchange().expectStatus().isBadRequest();
+        webTestClient.get().uri(PAGE + "?limit=0").exchange().expectStatus().isBadRequest();
+        webTestClient.get().uri(PAGE + "?paymentStatus=SOMETIMES").exchange().expectStatus().isBadRequest();
+    }
+
+    private CreditHistoryPage<CreditHistory> page(String uri) {
+        return webTestClient.get().uri(uri)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(FULL_PAGE)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private void createHistory(String creditorName) {
+        webTestClient.post().uri("/api/v1/credit/history")
+                .bodyValue(Map.of("ssn", "111-22-3333", "accountType", "CREDIT_CARD", "creditorName", creditorName,
+                        "originalAmount", 1000, "currentBalance", 100, "creditLimit", 1000,
+                        "paymentStatus", "CURRENT", "daysLate", 0,
+                        "accountOpenDate", LocalDateTime.of(2024, 1, 1, 0, 0).toString(), "isActive", true))
+                .exchange()
+                .expectStatus().isCreated();
+    }
+}
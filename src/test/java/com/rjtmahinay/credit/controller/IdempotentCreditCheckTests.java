@@ -0,0 +1,65 @@
+package com.rjtmahinay.credit.controller;
+
+import com.rjtmahinay.credit.dto.CreditCheckResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.r2dbc.url=r2dbc:h2:mem:///idempotent-check-tests?options=DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "credit.snapshot.enabled=false" })
+@AutoConfigureWebTestClient
+class IdempotentCreditCheckTests {
+
+    private static final Map<String, Object> REQUEST = Map.of("ssn", "987-65-4321", "requestedAmount", 25000,
+            "annualIncome", 75000);
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void retryWithTheSameKeyReplaysTheOriginalDecision() {
+        CreditCheckResponse original = check("replay-key", REQUEST).expectStatus().isOk()
+                .expectBody(CreditCheckResponse.class).returnResult().getResponseBody();
+        CreditCheckResponse replayed = check("replay-key", REQUEST).expectStatus().isOk()
+                .expectBody(CreditCheckResponse.class).returnResult().getResponseBody();
+        CreditCheckResponse unkeyed = check(null, REQUEST).expectStatus().isOk()
+                .expectBody(CreditCheckResponse.class).returnResult().getResponseBody();
+
+        // Every check that actually runs records a new loan application
+        assertThat(replayed.getApplicationId()).isEqualTo(original.getApplicationId());
+        assertThat(unkeyed.getApplicationId()).isNotEqualTo(original.getApplicationId());
+    }
+
+    @Test
+    void reusingAKeyForAnotherRequestIsUnprocessable() {
+        check("reused-key", REQUEST).expectStatus().isOk();
+
+        check("reused-key", Map.of("ssn", "987-65-4321", "requestedAmount", 50000, "annualIncome", 75000))
+                .expectStatus().isEqualTo(422);
+    }
+
+    @Test
+    void aFailedCheckDoesNotHoldItsKey() {
+        check("failed-key", Map.of("ssn", "987-65-4321", "requestedAmount", 25000)).expectStatus().isBadRequest();
+
+        check("failed-key", REQUEST).expectStatus().isOk();
+    }
+
+    private WebTestClient.ResponseSpec check(String idempotencyKey, Map<String, Object> request) {
+        return webTestClient.post().uri("/api/v1/credit/check")
+                .headers(headers -> {
+                    if (idempotencyKey != null) {
+                        headers.set("Idempotency-Key", idempotencyKey);
+                    }
+                })
+                .bodyValue(request)
+                .exchange();
+    }
+}
@@ -0,0 +1,74 @@
+package com.rjtmahinay.credit.controller;
+
+import com.rjtmahinay.credit.model.CreditHistory;
+import com.rjtmahinay.credit.model.CreditScore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.r2dbc.url=r2dbc:h2:mem:///versioned-update-tests?options=DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "credit.snapshot.enabled=false" })
+@AutoConfigureWebTestClient
+class VersionedUpdateTests {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void scoreUpdateAtAStaleVersionConflictsAndAnUnknownSsnIsNotFound() {
+        CreditScore current = webTestClient.get().uri("/api/v1/credit/score/555-12-3456")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(CreditScore.class)
+                .returnResult()
+                .getResponseBody();
+
+        CreditScore updated = put("/score/555-12-3456", Map.of("score", 700, "version", current.getVersion()))
+                .expectStatus().isOk()
+                .expectBody(CreditScore.class)
+                .returnResult()
+                .getResponseBody();
+        assertThat(updated.getScore()).isEqualTo(700);
+        assertThat(updated.getVersion()).isEqualTo(current.getVersion() + 1);
+
+        put("/score/555-12-3456", Map.of("score", 710, "version", current.getVersion()))
+                .expectStatus().isEqualTo(409);
+        put("/score/000-00-0001", Map.of("score", 710, "version", 0))
+                .expectStatus().isNotFound();
+        put("/score/000-00-0001", Map.of("score", 710))
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void historyUpdateAtAStaleVersionConflictsAndAnUnknownIdIsNotFound() {
+        CreditHistory current = webTestClient.get().uri("/api/v1/credit/history/444-55-6666")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(CreditHistory.class)
+                .returnResult()
+                .getResponseBody()
+                .get(0);
+
+        put("/history/" + current.getId(), Map.of("creditorName", "Renamed Bank", "version", current.getVersion()))
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.creditorName").isEqualTo("Renamed Bank")
+                .jsonPath("$.version").isEqualTo(current.getVersion() + 1);
+
+        put("/history/" + current.getId(), Map.of("creditorName", "Stale Bank", "version", current.getVersion()))
+                .expectStatus().isEqualTo(409);
+        put("/history/999999", Map.of("creditorName", "Missing Bank", "version", 0))
+                .expectStatus().isNotFound();
+    }
+
+    private WebTestClient.ResponseSpec put(String path, Map<String, Object> body) {
+        return webTestClient.put().uri("/api/v1/credit" + path).bodyValue(body).exchange();
+    }
+}
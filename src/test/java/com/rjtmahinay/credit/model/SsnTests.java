@@ -0,0 +1,39 @@
+package com.rjtmahinay.credit.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.ValueInstantiationException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SsnTests {
+
+    @Test
+    void parsesDashedAndUndashedFormsToTheSameKey() {
+        assertThat(Ssn.of("123-45-6789")).isEqualTo(Ssn.of("123456789")).isEqualTo(new Ssn(123456789));
+        assertThat(Ssn.of("000000042").value()).isEqualTo(42);
+        assertThat(new Ssn(42)).hasToString("000-00-0042");
+        assertThat(Ssn.of("987654321")).hasToString("987-65-4321");
+    }
+
+    @Test
+    void rejectsMalformedInput() {
+        for (String malformed : new String[] { "", "12345678", "1234567890", "12-345-6789", "123-45-678a",
+                "123 45 6789", "+12345678" }) {
+            assertThatThrownBy(() -> Ssn.of(malformed)).as(malformed).isInstanceOf(IllegalArgumentException.class);
+        }
+        assertThatThrownBy(() -> Ssn.of(null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new Ssn(1_000_000_000)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void serializesAsTheDashedString() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        assertThat(objectMapper.writeValueAsString(Ssn.of("123456789"))).isEqualTo("\"123-45-6789\"");
+        assertThat(objectMapper.readValue("\"123456789\"", Ssn.class)).isEqualTo(new Ssn(123456789));
+        assertThatThrownBy(() -> objectMapper.readValue("\"123-456-789\"", Ssn.class))
+                .isInstanceOf(ValueInstantiationException.class);
+    }
+}
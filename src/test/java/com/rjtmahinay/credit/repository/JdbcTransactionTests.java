@@ -0,0 +1,95 @@
+package com.rjtmahinay.credit.repository;
+
+import com.rjtmahinay.credit.dto.CreateCreditHistoryRequest;
+import com.rjtmahinay.credit.model.CreditAggregate;
+import com.rjtmahinay.credit.model.CreditHistory;
+import com.rjtmahinay.credit.model.Ssn;
+import com.rjtmahinay.credit.service.CreditBureauService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.r2dbc.url=r2dbc:h2:mem:///jdbc-tests?options=DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.url=jdbc:h2:mem:jdbc-tests;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "credit.snapshot.enabled=false" })
+@ActiveProfiles("jdbc")
+class JdbcTransactionTests {
+
+    private static final Ssn SSN = Ssn.of("111223333");
+
+    @Autowired
+    private CreditHistoryRepository creditHistoryRepository;
+
+    @Autowired
+    private CreditAggregateRepository creditAggregateRepository;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    @Autowired
+    private CreditBureauService creditBureauService;
+
+    @Test
+    void commitsHistoryWithItsAggregate() {
+        int accounts = activeAccounts();
+
+        creditBureauService.createCreditHistory(request()).block();
+
+        assertThat(activeAccounts()).isEqualTo(accounts + 1);
+    }
+
+    @Test
+    void rollsBackHistoryWithItsAggregate() {
+        long history = creditHistoryRepository.findBySsn(SSN).count().block();
+        int accounts = activeAccounts();
+
+        Mono<Integer> write = creditHistoryRepository.save(CreditHistory.builder()
+                        .ssn(SSN)
+                        .accountType("CREDIT_CARD")
+                        .creditorName("JDBC Test Bank")
+                        .currentBalance(new BigDecimal("100.00"))
+                        .creditLimit(new BigDecimal("1000.00"))
+                        .paymentStatus("CURRENT")
+                        .daysLate(0)
+                        .reportedDate(LocalDateTime.now())
+                        .isActive(true)
+                        .build())
+                .flatMap(saved -> creditAggregateRepository.recompute(SSN))
+                .then(Mono.<Integer>error(new IllegalStateException("rolled back")))
+                .as(transactionalOperator::transactional);
+        assertThatThrownBy(write::block).hasMessage("rolled back");
+
+        assertThat(creditHistoryRepository.findBySsn(SSN).count().block()).isEqualTo(history);
+        assertThat(activeAccounts()).isEqualTo(accounts);
+    }
+
+    private int activeAccounts() {
+        return creditAggregateRepository.findById(SSN).map(CreditAggregate::getActiveAccounts).defaultIfEmpty(0)
+                .block();
+    }
+
+    private static CreateCreditHistoryRequest request() {
+        return CreateCreditHistoryRequest.builder()
+                .ssn(SSN)
+                .accountType("CREDIT_CARD")
+                .creditorName("JDBC Test Bank")
+                .originalAmount(new BigDecimal("1000.00"))
+                .currentBalance(new BigDecimal("100.00"))
+                .creditLimit(new BigDecimal("1000.00"))
+                .paymentStatus("CURRENT")
+                .daysLate(0)
+                .accountOpenDate(LocalDateTime.now())
+                .isActive(true)
+                .build();
+    }
+}
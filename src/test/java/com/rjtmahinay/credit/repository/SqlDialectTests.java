@@ -0,0 +1,52 @@
+package com.rjtmahinay.credit.repository;
+
+import io.r2dbc.spi.ConnectionFactories;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlDialectTests {
+
+    private final DatabaseClient databaseClient = DatabaseClient.create(ConnectionFactories.get(
+            "r2dbc:h2:mem:///sql-dialect-tests?options=DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"));
+
+    @BeforeEach
+    void createTable() {
+        databaseClient.sql("DROP TABLE IF EXISTS scores").then()
+                .then(databaseClient.sql("CREATE TABLE scores (ssn INTEGER PRIMARY KEY, score INTEGER)").then())
+                .then(databaseClient.sql("INSERT INTO scores VALUES (1, 700), (2, 650)").then())
+                .block();
+    }
+
+    @Test
+    void detectsH2() {
+        assertThat(SqlDialect.of(databaseClient.getConnectionFactory())).isEqualTo(SqlDialect.H2);
+    }
+
+    @Test
+    void everyDialectEmitsTheWrittenRows() {
+        assertThat(raise(SqlDialect.H2, 1)).containsExactly(710);
+        // H2 also runs the standard fallback, so both paths are exercised against the same database
+        assertThat(raise(SqlDialect.STANDARD, 1)).containsExactly(720);
+        assertThat(raise(SqlDialect.H2, 3)).isEmpty();
+        assertThat(raise(SqlDialect.STANDARD, 3)).isEmpty();
+    }
+
+    private List<Integer> raise(SqlDialect dialect, int ssn) {
+        return dialect.written("UPDATE scores SET score = score + 10 WHERE ssn = " + ssn,
+                        this::scores,
+                        statement -> databaseClient.sql(statement).fetch().rowsUpdated(),
+                        () -> scores("SELECT * FROM scores WHERE ssn = " + ssn))
+                .collectList()
+                .block();
+    }
+
+    private Flux<Integer> scores(String query) {
+        return databaseClient.sql(query).map(row -> row.get("score", Integer.class)).all();
+    }
+}
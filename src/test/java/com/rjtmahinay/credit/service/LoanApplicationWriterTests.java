@@ -0,0 +1,99 @@
+package com.rjtmahinay.credit.service;
+
+import com.rjtmahinay.credit.config.CreditBureauProperties;
+import com.rjtmahinay.credit.dto.CreditCheckRequest;
+import com.rjtmahinay.credit.dto.CreditCheckResponse;
+import com.rjtmahinay.credit.model.LoanApplication;
+import com.rjtmahinay.credit.model.Ssn;
+import com.rjtmahinay.credit.repository.LoanApplicationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LoanApplicationWriterTests {
+
+    private final LoanApplicationRepository repository = mock(LoanApplicationRepository.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<String> inserted = new CopyOnWriteArrayList<>();
+
+    @Test
+    void dropsDecisionsOnceCapacityIsReached() {
+        LoanApplicationWriter writer = writer(3);
+
+        for (int i = 0; i < 5; i++) {
+            writer.submit(request(), response("app-" + i));
+        }
+
+        assertThat(outcome("dropped")).isEqualTo(2);
+        assertThat(meterRegistry.get("loan.applications.write.pending").gauge().value()).isEqualTo(3);
+        verify(repository, never()).insertAll(anyList());
+    }
+
+    @Test
+    void drainsQueuedDecisionsOnStop() {
+        stubInsert();
+        LoanApplicationWriter writer = writer(100);
+        for (int i = 0; i < 5; i++) {
+            writer.submit(request(), response("app-" + i));
+        }
+
+        writer.start();
+        writer.stop();
+
+        assertThat(inserted).containsExactly("app-0", "app-1", "app-2", "app-3", "app-4");
+        assertThat(outcome("written")).isEqualTo(5);
+        assertThat(meterRegistry.get("loan.applications.write.pending").gauge().value()).isZero();
+        assertThat(writer.isRunning()).isFalse();
+
+        writer.submit(request(), response("late"));
+        assertThat(outcome("dropped")).isEqualTo(1);
+    }
+
+    private LoanApplicationWriter writer(int capacity) {
+        CreditBureauProperties properties = new CreditBureauProperties();
+        properties.getWriteBehind().setCapacity(capacity);
+        properties.getWriteBehind().setBatchSize(2);
+        // Long enough that only the drain on stop writes anything
+        properties.getWriteBehind().setFlushInterval(Duration.ofHours(1));
+        properties.getWriteBehind().setShutdownTimeout(Duration.ofSeconds(5));
+        return new LoanApplicationWriter(repository, properties, meterRegistry);
+    }
+
+    private void stubInsert() {
+        when(repository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<LoanApplication> batch = invocation.getArgument(0);
+            batch.forEach(application -> inserted.add(application.getApplicationId()));
+            return Mono.just((long) batch.size());
+        });
+    }
+
+    private double outcome(String outcome) {
+        return meterRegistry.get("loan.applications.write").tag("outcome", outcome).counter().count();
+    }
+
+    private static CreditCheckRequest request() {
+        return CreditCheckRequest.builder().ssn(Ssn.of("111223333")).firstName("Jane").lastName("Doe").build();
+    }
+
+    private static CreditCheckResponse response(String applicationId) {
+        return CreditCheckResponse.builder()
+                .applicationId(applicationId)
+                .ssn(Ssn.of("111223333"))
+                .decision("APPROVED")
+                .checkDate(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,83 @@
+package com.rjtmahinay.credit.service;
+
+import com.rjtmahinay.credit.config.ReplicaRoutingConnectionFactory;
+import com.rjtmahinay.credit.dto.CreateCreditHistoryRequest;
+import com.rjtmahinay.credit.model.CreditHistory;
+import com.rjtmahinay.credit.model.Ssn;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The replica is a separate H2 database loaded with the same scripts and never replicated to, so what a read
+ * returns tells where it went. The second replica does not exist and is taken out of rotation.
+ */
+@SpringBootTest(properties = {
+        "spring.r2dbc.url=r2dbc:h2:mem:///replica-tests-primary?options=DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "credit.replicas.enabled=true",
+        "credit.replicas.urls[0]=r2dbc:h2:mem:///replica-tests-0?options=DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "credit.replicas.urls[1]=r2dbc:h2:mem:///replica-tests-missing?options=IFEXISTS=TRUE",
+        "credit.replicas.read-your-writes-window=500ms",
+        "credit.snapshot.enabled=false" })
+class ReplicaRouterTests {
+
+    @Autowired
+    private ReplicaRoutingConnectionFactory connectionFactory;
+
+    @Autowired
+    private CreditBureauService creditBureauService;
+
+    @BeforeEach
+    void loadReplica() {
+        DatabaseClient replica = DatabaseClient.create(connectionFactory.getReplicas().get(0));
+        if (replica.sql("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'CREDIT_SCORES'")
+                .map(row -> row.get(0, Long.class)).one().block() == 0) {
+            new ResourceDatabasePopulator(new ClassPathResource("schema.sql"), new ClassPathResource("data.sql"))
+                    .populate(connectionFactory.getReplicas().get(0)).block();
+            replica.sql("UPDATE credit_scores SET score = 1").then().block();
+        }
+        connectionFactory.checkReplicas().block();
+    }
+
+    @Test
+    void readsFromReplicasInRotation() {
+        assertThat(connectionFactory.isInRotation(0)).isTrue();
+        assertThat(connectionFactory.isInRotation(1)).isFalse();
+        for (String ssn : new String[] { "987654321", "555123456", "444556666" }) {
+            assertThat(creditBureauService.getCreditScoreBySSN(Ssn.of(ssn)).block().getScore()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void readsOwnWritesFromPrimaryWithinWindow() throws InterruptedException {
+        Ssn ssn = Ssn.of("111223333");
+        long replicated = creditBureauService.getCreditHistoryBySSN(ssn).count().block();
+
+        CreditHistory created = creditBureauService.createCreditHistory(CreateCreditHistoryRequest.builder()
+                .ssn(ssn)
+                .accountType("CREDIT_CARD")
+                .creditorName("Replica Test Bank")
+                .originalAmount(new BigDecimal("1000.00"))
+                .currentBalance(new BigDecimal("100.00"))
+                .creditLimit(new BigDecimal("1000.00"))
+                .paymentStatus("CURRENT")
+                .daysLate(0)
+                .accountOpenDate(LocalDateTime.now())
+                .isActive(true)
+                .build()).block();
+
+        assertThat(creditBureauService.getCreditHistoryBySSN(ssn).map(CreditHistory::getId).collectList().block())
+                .contains(created.getId());
+        Thread.sleep(700);
+        assertThat(creditBureauService.getCreditHistoryBySSN(ssn).count().block()).isEqualTo(replicated);
+    }
+}
@@ -0,0 +1,79 @@
+package com.rjtmahinay.credit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rjtmahinay.credit.config.CreditBureauProperties;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ScorePolicyEngineTests {
+
+    private final ScorePolicyEngine engine = new ScorePolicyEngine(properties(
+            band(750, "APPROVED", "LOW", "1", "3.5", null),
+            band(700, "APPROVED", "LOW", "0.9", "5.0", null),
+            band(600, "MANUAL_REVIEW", "MEDIUM", "0.5", "12.0", "0.4"),
+            band(0, "REJECTED", "HIGH", "0", "18.0", null)), new ObjectMapper());
+
+    @Test
+    void resolvesBandBoundaries() {
+        assertThat(engine.bandFor(850).getInterestRate()).isEqualByComparingTo("3.5");
+        assertThat(engine.bandFor(750).getInterestRate()).isEqualByComparingTo("3.5");
+        assertThat(engine.bandFor(749).getInterestRate()).isEqualByComparingTo("5.0");
+        assertThat(engine.riskLevel(699)).isEqualTo("MEDIUM");
+        assertThat(engine.riskLevel(599)).isEqualTo("HIGH");
+        assertThat(engine.riskLevel(-5)).isEqualTo("HIGH");
+        assertThat(engine.riskLevel(5000)).isEqualTo("LOW");
+    }
+
+    @Test
+    void appliesDebtToIncomeLimitAndApprovalFactor() {
+        ScoreBand band = engine.bandFor(620);
+        BigDecimal annualIncome = new BigDecimal("120000");
+
+        assertThat(band.decide(new BigDecimal("4000"), annualIncome)).isEqualTo("APPROVED");
+        assertThat(band.decide(new BigDecimal("4100"), annualIncome)).isEqualTo("MANUAL_REVIEW");
+        assertThat(band.approvedAmount(new BigDecimal("10000"))).isEqualByComparingTo("5000");
+        assertThat(engine.bandFor(800).approvedAmount(new BigDecimal("10000"))).isEqualByComparingTo("10000");
+        assertThat(engine.bandFor(400).approvedAmount(new BigDecimal("10000"))).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void installsNewPolicyAtomically() {
+        long version = engine.install(properties(band(0, "REJECTED", "HIGH", "0", "25.0", null)).getPolicy());
+
+        assertThat(version).isEqualTo(engine.version());
+        assertThat(engine.bandFor(800).getDecision()).isEqualTo("REJECTED");
+        assertThat(engine.bandFor(800).getInterestRate()).isEqualByComparingTo("25.0");
+    }
+
+    @Test
+    void rejectsIncompletePolicies() {
+        assertThatThrownBy(() -> engine.install(properties().getPolicy()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> engine.install(properties(band(0, null, "HIGH", "0", "18.0", null)).getPolicy()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(engine.bandFor(800).getDecision()).isEqualTo("APPROVED");
+    }
+
+    private static CreditBureauProperties properties(CreditBureauProperties.Band... bands) {
+        CreditBureauProperties properties = new CreditBureauProperties();
+        properties.getPolicy().setBands(List.of(bands));
+        return properties;
+    }
+
+    private static CreditBureauProperties.Band band(int minScore, String decision, String riskLevel,
+            String approvalFactor, String interestRate, String debtToIncomeLimit) {
+        CreditBureauProperties.Band band = new CreditBureauProperties.Band();
+        band.setMinScore(minScore);
+        band.setDecision(decision);
+        band.setRiskLevel(riskLevel);
+        band.setApprovalFactor(new BigDecimal(approvalFactor));
+        band.setInterestRate(new BigDecimal(interestRate));
+        band.setDebtToIncomeApprovalLimit(debtToIncomeLimit != null ? new BigDecimal(debtToIncomeLimit) : null);
+        return band;
+    }
+}
@@ -0,0 +1,113 @@
+package com.rjtmahinay.credit.service;
+
+import com.rjtmahinay.credit.model.CreditScore;
+import com.rjtmahinay.credit.model.Ssn;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ScoreSnapshotTests {
+
+    // More entries than the writer buffers at once, so the file is written in several flushes
+    private static final int SIZE = 2_500;
+    private static final UUID DATABASE = UUID.randomUUID();
+    private static final LocalDateTime UPDATED = LocalDateTime.of(2025, 3, 14, 15, 9, 26, 535_897_000);
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void readsBackWhatWasWritten() throws IOException {
+        ScoreSnapshot snapshot = ScoreSnapshot.map(write(), DATABASE, 7);
+
+        assertThat(snapshot.size()).isEqualTo(SIZE);
+        assertThat(snapshot.coveredChanges()).isEqualTo(7);
+        assertThat(snapshot.builtAt()).isEqualTo(Instant.ofEpochMilli(1_000));
+        assertThat(snapshot.find(ssn(0))).usingRecursiveComparison().isEqualTo(score(0));
+        assertThat(snapshot.find(ssn(1))).usingRecursiveComparison().isEqualTo(score(1));
+        assertThat(snapshot.find(ssn(1_234))).usingRecursiveComparison().isEqualTo(score(1_234));
+        assertThat(snapshot.find(ssn(SIZE - 1))).usingRecursiveComparison().isEqualTo(score(SIZE - 1));
+        assertThat(snapshot.find(new Ssn(0))).isNull();
+        assertThat(snapshot.find(new Ssn(ssn(1).value() + 1))).isNull();
+        assertThat(snapshot.find(new Ssn(999_999_999))).isNull();
+    }
+
+    @Test
+    void keepsNullNamesAndTimes() throws IOException {
+        CreditScore sparse = score(1);
+        assertThat(sparse.getFirstName()).isNull();
+        assertThat(sparse.getCreatedAt()).isNull();
+
+        CreditScore read = ScoreSnapshot.map(write(), DATABASE, 0).find(ssn(1));
+
+        assertThat(read.getFirstName()).isNull();
+        assertThat(read.getLastName()).isEqualTo("Last1");
+        assertThat(read.getCreatedAt()).isNull();
+        assertThat(read.getLastUpdated()).isEqualTo(UPDATED);
+    }
+
+    @Test
+    void rejectsACorruptedFile() throws IOException {
+        Path path = write();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer score = ByteBuffer.allocate(1);
+            channel.read(score, 100);
+            score.put(0, (byte) (score.get(0) ^ 1)).rewind();
+            channel.write(score, 100);
+        }
+
+        assertThatThrownBy(() -> ScoreSnapshot.map(path, DATABASE, 0)).hasMessage("Snapshot checksum mismatch");
+    }
+
+    @Test
+    void rejectsASnapshotOfAnotherDatabase() throws IOException {
+        Path path = write();
+
+        assertThatThrownBy(() -> ScoreSnapshot.map(path, UUID.randomUUID(), 0))
+                .hasMessage("Snapshot was built from another database");
+    }
+
+    private Path write() throws IOException {
+        Path path = directory.resolve("scores.snapshot");
+        try (ScoreSnapshot.Writer writer = new ScoreSnapshot.Writer(path)) {
+            for (int i = 0; i < SIZE; i++) {
+                writer.add(score(i));
+            }
+            writer.finish(Instant.ofEpochMilli(1_000), DATABASE);
+        }
+        return path;
+    }
+
+    private static Ssn ssn(int index) {
+        return new Ssn(100_000_000 + index * 7);
+    }
+
+    /**
+     * Odd entries have no first name and no creation time.
+     */
+    private static CreditScore score(int index) {
+        boolean sparse = index % 2 == 1;
+        return CreditScore.builder()
+                .id((long) index + 1)
+                .version((long) index % 3)
+                .ssn(ssn(index))
+                .firstName(sparse ? null : "Fírst" + index)
+                .lastName("Last" + index)
+                .score(300 + index % 551)
+                .riskLevel(CreditScore.RiskLevel.values()[index % 3].name())
+                .lastUpdated(UPDATED)
+                .createdAt(sparse ? null : UPDATED.minusDays(index))
+                .build();
+    }
+}
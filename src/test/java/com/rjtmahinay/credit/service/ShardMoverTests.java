@@ -0,0 +1,81 @@
+package com.rjtmahinay.credit.service;
+
+import com.rjtmahinay.credit.config.ShardDirectory;
+import com.rjtmahinay.credit.model.CreditScore;
+import com.rjtmahinay.credit.model.Ssn;
+import com.rjtmahinay.credit.repository.CreditHistoryRepository;
+import com.rjtmahinay.credit.repository.CreditScoreRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.rjtmahinay.credit.config.ShardRoutingConnectionFactory.onShard;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "credit.sharding.enabled=true",
+        "credit.sharding.urls[0]=r2dbc:h2:mem:///shard-tests-0?options=DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "credit.sharding.urls[1]=r2dbc:h2:mem:///shard-tests-1?options=DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "credit.sharding.urls[2]=r2dbc:h2:mem:///shard-tests-2?options=DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "credit.snapshot.enabled=false" })
+class ShardMoverTests {
+
+    @Autowired
+    private ShardDirectory directory;
+
+    @Autowired
+    private ShardMover shardMover;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private CreditScoreRepository creditScoreRepository;
+
+    @Autowired
+    private CreditHistoryRepository creditHistoryRepository;
+
+    @Test
+    void seedsEachScoreOnlyOnItsOwningShard() {
+        List<CreditScore> all = new ArrayList<>();
+        for (int shard = 0; shard < directory.shardCount(); shard++) {
+            int owner = shard;
+            List<CreditScore> scores = creditScoreRepository.findAll().contextWrite(onShard(shard))
+                    .collectList().block();
+            assertThat(scores).allSatisfy(score -> assertThat(directory.shardOf(score.getSsn())).isEqualTo(owner));
+            all.addAll(scores);
+        }
+
+        assertThat(all).extracting(CreditScore::getSsn).doesNotHaveDuplicates();
+        assertThat(all).extracting(CreditScore::getId).doesNotHaveDuplicates();
+        assertThat(shardRouter.scatter(creditScoreRepository::findAll).count().block()).isEqualTo(all.size());
+    }
+
+    @Test
+    void movesBucketWithItsRows() {
+        Ssn ssn = Ssn.of("123456789");
+        int bucket = directory.bucketOf(ssn);
+        int source = directory.ownerOf(bucket);
+        int target = (source + 1) % directory.shardCount();
+        CreditScore before = shardRouter.read(ssn, creditScoreRepository.findBySsn(ssn)).block();
+        long history = shardRouter.read(ssn, creditHistoryRepository.findBySsn(ssn)).count().block();
+
+        ShardMover.Move move = shardMover.move(bucket, target).block();
+
+        assertThat(move.ssns()).isPositive();
+        assertThat(move.rows()).isGreaterThan(history);
+        assertThat(directory.ownerOf(bucket)).isEqualTo(target);
+        assertThat(directory.isFrozen(bucket)).isFalse();
+        assertThat(shardRouter.read(ssn, creditScoreRepository.findBySsn(ssn)).block())
+                .isEqualTo(before);
+        assertThat(shardRouter.read(ssn, creditHistoryRepository.findBySsn(ssn)).count().block())
+                .isEqualTo(history);
+        assertThat(creditScoreRepository.findBySsn(ssn).contextWrite(onShard(source)).blockOptional()).isEmpty();
+        assertThatThrownBy(() -> shardMover.move(bucket, target).block())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,83 @@
+package com.rjtmahinay.credit.service;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SingleFlightTests {
+
+    private final SingleFlight<String, String> flights = new SingleFlight<>();
+    private final AtomicInteger subscriptions = new AtomicInteger();
+    private final AtomicInteger cancellations = new AtomicInteger();
+
+    @Test
+    void concurrentCallersShareOneSubscription() {
+        Sinks.One<String> result = Sinks.one();
+        List<String> received = new ArrayList<>();
+
+        flights.execute("key", () -> work(result)).subscribe(received::add);
+        flights.execute("key", () -> work(result)).subscribe(received::add);
+        flights.execute("other", () -> work(Sinks.one())).subscribe();
+        result.tryEmitValue("score");
+
+        assertThat(subscriptions).hasValue(2);
+        assertThat(received).containsExactly("score", "score");
+    }
+
+    @Test
+    void releasesTheKeyOnceTheWorkSucceeds() {
+        Sinks.One<String> result = Sinks.one();
+        flights.execute("key", () -> work(result)).subscribe();
+        assertThat(flights.inFlight()).isEqualTo(1);
+
+        result.tryEmitValue("score");
+
+        assertThat(flights.inFlight()).isZero();
+        assertThat(flights.execute("key", () -> work(Mono.just("fresh"))).block()).isEqualTo("fresh");
+        assertThat(subscriptions).hasValue(2);
+    }
+
+    @Test
+    void releasesTheKeyOnceTheWorkFails() {
+        Sinks.One<String> result = Sinks.one();
+        List<Throwable> errors = new ArrayList<>();
+        flights.execute("key", () -> work(result)).subscribe(null, errors::add);
+
+        result.tryEmitError(new IllegalStateException("database down"));
+
+        assertThat(errors).singleElement().extracting(Throwable::getMessage).isEqualTo("database down");
+        assertThat(flights.inFlight()).isZero();
+        assertThat(flights.execute("key", () -> work(Mono.just("retried"))).block()).isEqualTo("retried");
+    }
+
+    @Test
+    void cancellingOneCallerLeavesTheOthersWaiting() {
+        Sinks.One<String> result = Sinks.one();
+        List<String> received = new ArrayList<>();
+
+        Disposable cancelled = flights.execute("key", () -> work(result)).subscribe();
+        flights.execute("key", () -> work(result)).subscribe(received::add);
+        cancelled.dispose();
+        result.tryEmitValue("score");
+
+        assertThat(cancellations).hasValue(0);
+        assertThat(received).containsExactly("score");
+        assertThat(flights.inFlight()).isZero();
+    }
+
+    private Mono<String> work(Sinks.One<String> result) {
+        return work(result.asMono());
+    }
+
+    private Mono<String> work(Mono<String> result) {
+        return result.doOnSubscribe(subscription -> subscriptions.incrementAndGet())
+                .doOnCancel(cancellations::incrementAndGet);
+    }
+}